@@ -0,0 +1,39 @@
+package csw.subsync.common.config.ratelimit;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link GcraRateLimiter#allowRequest(String)} with one thread, and with 8 threads fighting over the same key
+ * (every call is a CAS on the same TAT).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class GcraRateLimiterBenchmark {
+
+    private static final String KEY = "bench";
+
+    private GcraRateLimiter limiter;
+
+    @Setup
+    public void setUp() {
+        limiter = new GcraRateLimiter();
+        // high enough that requests are allowed and the TAT keeps moving
+        limiter.configureRateLimiter(KEY, 1_000_000_000, Duration.ofSeconds(1));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean uncontended() {
+        return limiter.allowRequest(KEY);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean contended() {
+        return limiter.allowRequest(KEY);
+    }
+}
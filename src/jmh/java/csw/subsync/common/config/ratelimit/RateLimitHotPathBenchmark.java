@@ -0,0 +1,62 @@
+package csw.subsync.common.config.ratelimit;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What {@code RateLimitInterceptor} does per call: the old path (Duration + key string + configure + check on the
+ * string-keyed limiter) against a precompiled {@link LimiterHandle} keyed by a primitive caller id.
+ * <p>
+ * Run with {@code -prof gc} to see the allocation rate of each.
+ * {@link #handleSingleHotCallerLimited()} is the contended case where most calls are rejected, i.e. a single caller
+ * hammering an endpoint well past its limit.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class RateLimitHotPathBenchmark {
+
+    private static final int CALLERS = 1_000;
+
+    private GcraRateLimiter limiter;
+    private LimiterHandle handle;
+    private LimiterHandle limitedHandle;
+
+    @Setup
+    public void setUp() {
+        limiter = new GcraRateLimiter();
+        handle = limiter.newHandle(GcraRateLimiter.RateLimiterConfig.of(1_000_000, Duration.ofSeconds(1)));
+        limitedHandle = limiter.newHandle(GcraRateLimiter.RateLimiterConfig.of(1_000, Duration.ofMillis(100)));
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean stringKeyed() {
+        long caller = ThreadLocalRandom.current().nextInt(CALLERS);
+        String key = "bench_" + caller;
+        limiter.configureRateLimiter(key, 1_000_000, Duration.of(1000, ChronoUnit.MILLIS));
+        return limiter.allowRequest(key);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean handle() {
+        return handle.tryAcquire(ThreadLocalRandom.current().nextInt(CALLERS));
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean handleSingleHotCaller() {
+        return handle.tryAcquire(42L);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean handleSingleHotCallerLimited() {
+        return limitedHandle.tryAcquire(42L);
+    }
+}
@@ -0,0 +1,84 @@
+package csw.subsync.common.config.ratelimit;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local vs Redis GCRA.
+ * <p>
+ * The Redis benchmarks need a running Redis. Connection settings come from system properties:
+ * {@code -Dredis.host=localhost -Dredis.port=6379 -Dredis.password=123}.
+ * <ul>
+ *     <li>{@code *Allowed}: a very high limit, so every call is a real check (for Redis: one script round trip).</li>
+ *     <li>{@code *Rejected}: a limit of 1 req/min, so after the first call everything is rejected. For Redis this
+ *         measures the local fast path that skips the network hop.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+
+    private static final GcraRateLimiter.RateLimiterConfig OPEN =
+            GcraRateLimiter.RateLimiterConfig.of(1_000_000_000, Duration.ofSeconds(1));
+    private static final GcraRateLimiter.RateLimiterConfig CLOSED =
+            GcraRateLimiter.RateLimiterConfig.of(1.0 / 60, Duration.ZERO);
+
+    private LettuceConnectionFactory connectionFactory;
+    private GcraRateLimiter local;
+    private RedisGcraRateLimiter redis;
+
+    @Setup
+    public void setUp() {
+        RedisStandaloneConfiguration redisConfig = new RedisStandaloneConfiguration(
+                System.getProperty("redis.host", "localhost"),
+                Integer.getInteger("redis.port", 6379));
+        String password = System.getProperty("redis.password");
+        if (password != null) {
+            redisConfig.setPassword(password);
+        }
+        connectionFactory = new LettuceConnectionFactory(redisConfig);
+        connectionFactory.afterPropertiesSet();
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.delete(redisTemplate.keys(RedisGcraRateLimiter.KEY_PREFIX + "bench-*"));
+
+        local = new GcraRateLimiter();
+        local.configureRateLimiter("bench-open", OPEN.permitsPerSecond(), Duration.ofNanos(OPEN.toleranceNanos()));
+        local.configureRateLimiter("bench-closed", CLOSED.permitsPerSecond(), Duration.ZERO);
+        redis = new RedisGcraRateLimiter(redisTemplate, new GcraRateLimiter());
+    }
+
+    @TearDown
+    public void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean localAllowed() {
+        return local.allowRequest("bench-open");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean redisAllowed() {
+        return redis.allowRequest("bench-open", OPEN);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean localRejected() {
+        return local.allowRequest("bench-closed");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean redisRejected() {
+        return redis.allowRequest("bench-closed", CLOSED);
+    }
+}
@@ -0,0 +1,61 @@
+package csw.subsync.common.config.security;
+
+import csw.subsync.user.model.User;
+import csw.subsync.user.model.role.Role;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What {@code JwtAuthenticationFilter} pays per request, in requests per second on one core.
+ * <p>
+ * {@code cacheSize = 0} parses and verifies every time; otherwise a token seen before is served from the
+ * verified-token cache. {@code legacyFilterPath} is the old filter sequence ({@code extractUsername} +
+ * {@code isTokenValid}), which parsed the token three times.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Threads(1)
+public class JwtServiceBenchmark {
+
+    // same shape as application.security.jwt.secret-key (256-bit, base64)
+    private static final String SECRET_KEY = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    @Param({"0", "10000"})
+    private int cacheSize;
+
+    private JwtService jwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(SECRET_KEY, TimeUnit.HOURS.toMillis(1), TimeUnit.DAYS.toMillis(7), cacheSize);
+        user = User.builder()
+                .id(1L)
+                .username("bench")
+                .email("bench@example.com")
+                .password("password")
+                .role(Role.USER)
+                .build();
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean filterPath() {
+        JwtService.VerifiedToken verified = jwtService.verify(token);
+        return verified.isValidFor(user);
+    }
+
+    @Benchmark
+    public boolean legacyFilterPath() {
+        String username = jwtService.extractUsername(token);
+        return username != null && jwtService.isTokenValid(token, user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+}
@@ -0,0 +1,27 @@
+package csw.subsync.common.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * order_id 발급 비용. 대량 청구에서는 파이프라인 스레드들이 동시에 호출하므로 여러 스레드로 잰다:
+ * {@link UUID#randomUUID()} 는 공유 SecureRandom 을 거치고 {@link OrderIds#next()} 는 스레드별 난수만 쓴다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Threads(8)
+public class OrderIdsBenchmark {
+
+    @Benchmark
+    public UUID timeOrdered() {
+        return OrderIds.next();
+    }
+
+    @Benchmark
+    public String randomUuidString() {
+        return UUID.randomUUID().toString(); // 이전 방식
+    }
+}
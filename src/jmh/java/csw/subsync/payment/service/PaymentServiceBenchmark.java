@@ -0,0 +1,49 @@
+package csw.subsync.payment.service;
+
+import csw.subsync.subscription.model.Membership;
+import csw.subsync.subscription.model.PricingModel;
+import csw.subsync.subscription.model.SubscriptionGroup;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PaymentService#calculateAmount} for each {@link PricingModel}; runs once per member charge.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class PaymentServiceBenchmark {
+
+    @Param // every PricingModel
+    private PricingModel pricingModel;
+
+    private PaymentService paymentService;
+    private SubscriptionGroup group;
+
+    @Setup
+    public void setUp() {
+        paymentService = new PaymentService(null, null, null);
+
+        group = new SubscriptionGroup();
+        group.setId(1L);
+        group.setMaxMembers(6);
+        group.setDurationDays(30);
+        group.setPriceAmount(1_000);
+        group.setPriceCurrency("EUR");
+        group.setPricingModel(pricingModel);
+        List<Membership> memberships = new ArrayList<>();
+        for (int i = 0; i < group.getMaxMembers(); i++) {
+            memberships.add(new Membership());
+        }
+        group.setMemberships(memberships);
+        group.setMemberCount(memberships.size());
+    }
+
+    @Benchmark
+    public int calculateAmount() {
+        return paymentService.calculateAmount(group);
+    }
+}
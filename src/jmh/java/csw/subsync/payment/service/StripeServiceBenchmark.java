@@ -0,0 +1,27 @@
+package csw.subsync.payment.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Idempotency key generation ({@link StripeService#sha256Hex}); runs once per PaymentIntent.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class StripeServiceBenchmark {
+
+    private String rawKey;
+
+    @Setup
+    public void setUp() {
+        rawKey = "payment_intent_12345_" + UUID.randomUUID();
+    }
+
+    @Benchmark
+    public String sha256Hex() {
+        return StripeService.sha256Hex(rawKey);
+    }
+}
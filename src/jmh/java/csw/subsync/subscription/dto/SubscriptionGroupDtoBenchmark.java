@@ -0,0 +1,46 @@
+package csw.subsync.subscription.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import csw.subsync.common.config.ObjectMapperConfig;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing group DTOs with the application's {@link ObjectMapper} (Blackbird, field visibility).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SubscriptionGroupDtoBenchmark {
+
+    private ObjectMapper objectMapper;
+    private SubscriptionGroupDto dto;
+    private List<SubscriptionGroupDto> page;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapperConfig().objectMapper();
+
+        LocalDate start = LocalDate.of(2025, 2, 1);
+        dto = new SubscriptionGroupDto(1L, "VIP Group", 10, 3, 14, start, start.plusDays(13), true, 123L);
+        page = new ArrayList<>();
+        for (long i = 0; i < 50; i++) {
+            page.add(new SubscriptionGroupDto(i, "Group " + i, 10, 3, 14, start, start.plusDays(13), true, 123L));
+        }
+    }
+
+    @Benchmark
+    public byte[] single() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dto);
+    }
+
+    @Benchmark
+    public byte[] pageOf50() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,35 @@
+package csw.subsync.user.model.role;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Role#getAuthorities()} runs for every authenticated request (via {@code User.getAuthorities()}).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class RoleBenchmark {
+
+    @Param({"ADMIN", "MANAGER", "USER"})
+    private String roleName;
+
+    private Role role;
+
+    @Setup
+    public void setUp() {
+        role = switch (roleName) {
+            case "ADMIN" -> Role.ADMIN;
+            case "MANAGER" -> Role.MANAGER;
+            default -> Role.USER;
+        };
+    }
+
+    @Benchmark
+    public List<SimpleGrantedAuthority> getAuthorities() {
+        return role.getAuthorities();
+    }
+}
@@ -77,4 +77,20 @@ public @interface RateLimit {
      * @return The ChronoUnit for the tolerance duration. Defaults to {@link ChronoUnit#MILLIS}.
      */
     ChronoUnit toleranceUnit() default ChronoUnit.MILLIS;
+
+    /**
+     * Where the limiter state (theoretical arrival time) is kept.
+     * <p>
+     * {@link Backend#LOCAL} keeps it in the memory of each instance, so with N instances behind a load balancer
+     * the effective limit is N times {@link #permitsPerSecond}. {@link Backend#REDIS} shares it across all
+     * instances through Redis, at the cost of a network round trip for requests that are not obviously rejected.
+     *
+     * @return The backend holding the limiter state. Defaults to {@link Backend#LOCAL}.
+     */
+    Backend backend() default Backend.LOCAL;
+
+    enum Backend {
+        LOCAL,
+        REDIS
+    }
 }
\ No newline at end of file
@@ -1,4 +1,36 @@
 package csw.subsync.common.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Starts {@link StripeMockServer} inside the app under the {@code stripe-mock} profile.
+ * <p>
+ * {@code application-stripe-mock.yml} points {@code stripe.client.api-base} at it and webhooks come back to this
+ * app's {@code /stripe/webhook}, so the charge → webhook loop runs end to end without live Stripe:
+ * {@code ./gradlew bootRun --args='--spring.profiles.active=local,stripe-mock'}.
+ */
+@Configuration
+@Profile("stripe-mock")
 public class StripeMockConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public StripeMockServer stripeMockServer(ObjectMapper objectMapper,
+                                             @Value("${stripe.mock.port:12111}") int port,
+                                             @Value("${stripe.mock.latency:50ms}") Duration latency,
+                                             @Value("${stripe.mock.latency-jitter:50ms}") Duration latencyJitter,
+                                             @Value("${stripe.mock.error-rate:0}") double errorRate,
+                                             @Value("${stripe.mock.decline-rate:0}") double declineRate,
+                                             @Value("${stripe.mock.webhook-url:}") String webhookUrl,
+                                             @Value("${stripe.mock.webhook-delay:200ms}") Duration webhookDelay,
+                                             @Value("${stripe.webhook-secret}") String webhookSecret) {
+        return new StripeMockServer(new StripeMockServer.Settings(port, latency, latencyJitter, errorRate, declineRate,
+                webhookUrl.isBlank() ? null : URI.create(webhookUrl), webhookSecret, webhookDelay), objectMapper);
+    }
 }
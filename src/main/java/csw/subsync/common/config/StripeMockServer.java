@@ -0,0 +1,356 @@
+package csw.subsync.common.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stripe.Stripe;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the parts of the Stripe API this app calls, for load and latency tests without live Stripe.
+ * <p>
+ * Endpoints: {@code POST /v1/customers}, {@code POST /v1/customers/{id}}, {@code POST /v1/setup_intents} and
+ * {@code POST /v1/payment_intents}. Responses only carry the fields the app and the SDK read.
+ * Every request waits {@code latency} plus up to {@code latencyJitter}, then fails with a 500
+ * {@code api_error} at {@code errorRate}. A replayed {@code Idempotency-Key} gets the first response back (keys are
+ * kept for 24 hours, up to a fixed number).
+ * <p>
+ * Webhooks are signed with the webhook secret the way Stripe does ({@code Stripe-Signature: t=..,v1=..}) and posted
+ * to {@code webhookUrl} after {@code webhookDelay}, with a few retries on non-2xx:
+ * <ul>
+ *     <li>a setup intent is treated as confirmed by the customer right away: {@code setup_intent.succeeded};</li>
+ *     <li>a payment intent is declined at {@code declineRate} (402 {@code card_error} plus
+ *     {@code payment_intent.payment_failed}), otherwise it succeeds ({@code payment_intent.succeeded}).</li>
+ * </ul>
+ */
+@Slf4j
+public class StripeMockServer implements AutoCloseable {
+
+    private static final int WEBHOOK_ATTEMPTS = 3;
+    private static final int MAX_IDEMPOTENCY_KEYS = 100_000;
+
+    private final Settings settings;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient webhookClient = HttpClient.newBuilder()
+            .executor(executor)
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+    // Stripe 도 키를 24시간만 기억한다; 부하 테스트가 길어져도 메모리가 계속 늘지 않도록 크기도 제한
+    private final Cache<String, Response> idempotentResponses = Caffeine.newBuilder()
+            .maximumSize(MAX_IDEMPOTENCY_KEYS)
+            .expireAfterWrite(Duration.ofHours(24))
+            .build();
+    private final AtomicLong ids = new AtomicLong();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final AtomicLong declines = new AtomicLong();
+    private final AtomicLong webhooksDelivered = new AtomicLong();
+    private final AtomicLong webhooksFailed = new AtomicLong();
+
+    private HttpServer server;
+
+    public StripeMockServer(Settings settings, ObjectMapper objectMapper) {
+        if (settings.errorRate() < 0 || settings.errorRate() > 1
+                || settings.declineRate() < 0 || settings.declineRate() > 1) {
+            throw new IllegalArgumentException("Stripe mock error and decline rates must be between 0 and 1.");
+        }
+        this.settings = settings;
+        this.objectMapper = objectMapper;
+    }
+
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            return;
+        }
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", settings.port()), 0);
+        server.setExecutor(executor);
+        server.createContext("/v1/", this::handle);
+        server.start();
+        log.info("Stripe mock listening on {} (webhooks to {})", baseUrl(), settings.webhookUrl());
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public Stats stats() {
+        return new Stats(requests.get(), injectedErrors.get(), declines.get(),
+                webhooksDelivered.get(), webhooksFailed.get());
+    }
+
+    @Override
+    public synchronized void close() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.incrementAndGet();
+            Response response = respond(exchange);
+            byte[] body = response.body().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("Request-Id", "req_mock_" + ids.incrementAndGet());
+            exchange.sendResponseHeaders(response.status(), body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private Response respond(HttpExchange exchange) throws IOException {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return error(401, "authentication_error", null, "No API key provided.");
+        }
+        simulateLatency();
+        if (ThreadLocalRandom.current().nextDouble() < settings.errorRate()) {
+            injectedErrors.incrementAndGet();
+            return error(500, "api_error", null, "Injected failure from the Stripe mock.");
+        }
+
+        Map<String, Object> params = parseForm(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+        String idempotencyKey = exchange.getRequestHeaders().getFirst("Idempotency-Key");
+        if (idempotencyKey == null) {
+            return route(exchange.getRequestMethod(), exchange.getRequestURI().getPath(), params);
+        }
+        // SDK 가 재시도할 때 같은 키를 보낸다: 첫 응답을 그대로 돌려주고 webhook 도 한 번만
+        return idempotentResponses.get(idempotencyKey,
+                key -> route(exchange.getRequestMethod(), exchange.getRequestURI().getPath(), params));
+    }
+
+    private Response route(String method, String path, Map<String, Object> params) {
+        if (!"POST".equals(method)) {
+            return error(404, "invalid_request_error", null, "Unrecognized request URL (" + method + ": " + path + ")");
+        }
+        String[] segments = path.substring("/v1/".length()).split("/");
+        return switch (segments[0]) {
+            case "customers" -> segments.length == 1 ? createCustomer(params) : updateCustomer(segments[1], params);
+            case "setup_intents" -> createSetupIntent(params);
+            case "payment_intents" -> createPaymentIntent(params);
+            default -> error(404, "invalid_request_error", null, "Unrecognized request URL (POST: " + path + ")");
+        };
+    }
+
+    private Response createCustomer(Map<String, Object> params) {
+        Map<String, Object> customer = object("cus", "customer");
+        customer.put("email", params.get("email"));
+        return ok(customer);
+    }
+
+    private Response updateCustomer(String customerId, Map<String, Object> params) {
+        Map<String, Object> customer = new LinkedHashMap<>();
+        customer.put("id", customerId);
+        customer.put("object", "customer");
+        customer.put("invoice_settings", params.getOrDefault("invoice_settings", Map.of()));
+        return ok(customer);
+    }
+
+    private Response createSetupIntent(Map<String, Object> params) {
+        Map<String, Object> setupIntent = object("seti", "setup_intent");
+        setupIntent.put("client_secret", setupIntent.get("id") + "_secret_mock");
+        setupIntent.put("customer", params.get("customer"));
+        setupIntent.put("usage", params.getOrDefault("usage", "off_session"));
+        setupIntent.put("metadata", params.getOrDefault("metadata", Map.of()));
+        setupIntent.put("status", "succeeded");
+        setupIntent.put("payment_method", "pm_mock_" + ids.incrementAndGet());
+
+        deliverWebhook("setup_intent.succeeded", setupIntent);
+        return ok(setupIntent);
+    }
+
+    private Response createPaymentIntent(Map<String, Object> params) {
+        Map<String, Object> paymentIntent = object("pi", "payment_intent");
+        paymentIntent.put("amount", Long.parseLong(String.valueOf(params.getOrDefault("amount", "0"))));
+        paymentIntent.put("currency", params.get("currency"));
+        paymentIntent.put("customer", params.get("customer"));
+        paymentIntent.put("payment_method", params.get("payment_method"));
+        paymentIntent.put("metadata", params.getOrDefault("metadata", Map.of()));
+
+        if (ThreadLocalRandom.current().nextDouble() < settings.declineRate()) {
+            declines.incrementAndGet();
+            Map<String, Object> lastError = new LinkedHashMap<>();
+            lastError.put("type", "card_error");
+            lastError.put("code", "card_declined");
+            lastError.put("decline_code", "generic_decline");
+            lastError.put("message", "Your card was declined.");
+            paymentIntent.put("status", "requires_payment_method");
+            paymentIntent.put("last_payment_error", lastError);
+
+            deliverWebhook("payment_intent.payment_failed", paymentIntent);
+            Map<String, Object> error = new LinkedHashMap<>(lastError);
+            error.put("payment_intent", paymentIntent);
+            return new Response(402, toJson(Map.of("error", error)));
+        }
+
+        paymentIntent.put("status", "succeeded");
+        paymentIntent.put("amount_received", paymentIntent.get("amount"));
+        deliverWebhook("payment_intent.succeeded", paymentIntent);
+        return ok(paymentIntent);
+    }
+
+    private void deliverWebhook(String type, Map<String, Object> dataObject) {
+        if (settings.webhookUrl() == null) {
+            return;
+        }
+        Map<String, Object> event = object("evt", "event");
+        event.put("api_version", Stripe.API_VERSION);
+        event.put("type", type);
+        event.put("livemode", false);
+        event.put("pending_webhooks", 1);
+        event.put("data", Map.of("object", dataObject));
+        String payload = toJson(event);
+
+        CompletableFuture.runAsync(() -> send(payload, 1),
+                CompletableFuture.delayedExecutor(settings.webhookDelay().toMillis(), TimeUnit.MILLISECONDS, executor));
+    }
+
+    private void send(String payload, int attempt) {
+        HttpRequest request = HttpRequest.newBuilder(settings.webhookUrl())
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .header("Stripe-Signature", sign(payload, Instant.now().getEpochSecond()))
+                .POST(HttpRequest.BodyPublishers.ofString(payload, StandardCharsets.UTF_8))
+                .build();
+        webhookClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    if (failure == null && response.statusCode() / 100 == 2) {
+                        webhooksDelivered.incrementAndGet();
+                    } else if (attempt < WEBHOOK_ATTEMPTS) {
+                        CompletableFuture.runAsync(() -> send(payload, attempt + 1), CompletableFuture.delayedExecutor(
+                                settings.webhookDelay().toMillis() << attempt, TimeUnit.MILLISECONDS, executor));
+                    } else {
+                        webhooksFailed.incrementAndGet();
+                        log.warn("Stripe mock gave up delivering a webhook after {} attempts: {}", attempt,
+                                failure != null ? failure.getMessage() : "HTTP " + response.statusCode());
+                    }
+                });
+    }
+
+    // Webhook.constructEvent 가 검증하는 형식: v1 = HMAC-SHA256(secret, "{t}.{payload}")
+    String sign(String payload, long timestamp) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(settings.webhookSecret().getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            byte[] signature = mac.doFinal((timestamp + "." + payload).getBytes(StandardCharsets.UTF_8));
+            return "t=" + timestamp + ",v1=" + HexFormat.of().formatHex(signature);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    private void simulateLatency() {
+        long millis = settings.latency().toMillis();
+        long jitter = settings.latencyJitter().toMillis();
+        if (jitter > 0) {
+            millis += ThreadLocalRandom.current().nextLong(jitter + 1);
+        }
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Map<String, Object> object(String idPrefix, String type) {
+        Map<String, Object> object = new LinkedHashMap<>();
+        object.put("id", idPrefix + "_mock_" + ids.incrementAndGet());
+        object.put("object", type);
+        object.put("created", Instant.now().getEpochSecond());
+        return object;
+    }
+
+    private Response ok(Map<String, Object> body) {
+        return new Response(200, toJson(body));
+    }
+
+    private Response error(int status, String type, String code, String message) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("type", type);
+        if (code != null) {
+            error.put("code", code);
+        }
+        error.put("message", message);
+        return new Response(status, toJson(Map.of("error", error)));
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize Stripe mock response", e);
+        }
+    }
+
+    // a=1&metadata[k]=v 형태: 한 단계 중첩까지만 (이 앱이 보내는 파라미터는 그걸로 충분)
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> parseForm(String body) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (body == null || body.isBlank()) {
+            return params;
+        }
+        for (String pair : body.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            int bracket = key.indexOf('[');
+            if (bracket > 0 && key.endsWith("]")) {
+                ((Map<String, Object>) params.computeIfAbsent(key.substring(0, bracket), k -> new LinkedHashMap<>()))
+                        .put(key.substring(bracket + 1, key.length() - 1), value);
+            } else {
+                params.put(key, value);
+            }
+        }
+        return params;
+    }
+
+    /**
+     * @param port       0 picks a free port
+     * @param webhookUrl where to post events; {@code null} disables webhook delivery
+     */
+    public record Settings(int port, Duration latency, Duration latencyJitter, double errorRate, double declineRate,
+                           URI webhookUrl, String webhookSecret, Duration webhookDelay) {
+    }
+
+    public record Stats(long requests, long injectedErrors, long declines, long webhooksDelivered,
+                        long webhooksFailed) {
+    }
+
+    private record Response(int status, String body) {
+    }
+}
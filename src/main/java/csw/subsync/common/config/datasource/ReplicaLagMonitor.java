@@ -0,0 +1,74 @@
+package csw.subsync.common.config.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+
+/**
+ * Polls the replica's replay lag and tells {@link ReadReplicaRoutingDataSource} whether reads may go there.
+ * <p>
+ * The replica is usable while its lag is at most {@code spring.datasource.read.max-lag}. A failed check, or a
+ * connection failure reported through {@link #markDown}, takes it out until the next successful check.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    // 받은 WAL 을 다 재생했으면 0 (쓰기가 없을 때 replay timestamp 만 보면 lag 가 계속 늘어난다)
+    static final String LAG_SQL = """
+            SELECT CASE
+                     WHEN NOT pg_is_in_recovery() THEN 0
+                     WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                     ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+                   END
+            """;
+
+    private final JdbcTemplate replicaJdbc;
+    private final Duration maxLag;
+
+    private volatile boolean usable = true;
+    private volatile double lagSeconds;
+
+    public ReplicaLagMonitor(JdbcTemplate replicaJdbc, Duration maxLag, MeterRegistry meterRegistry) {
+        this.replicaJdbc = replicaJdbc;
+        this.maxLag = maxLag;
+        Gauge.builder("subsync.datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+                .description("Replica replay lag at the last check")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("subsync.datasource.replica.usable", this, monitor -> monitor.usable ? 1 : 0)
+                .description("1 while read-only transactions are routed to the replica")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${spring.datasource.read.lag-check-interval:5s}")
+    public void check() {
+        try {
+            Double lag = replicaJdbc.queryForObject(LAG_SQL, Double.class);
+            lagSeconds = lag == null ? 0 : lag;
+            boolean withinLimit = lagSeconds * 1000 <= maxLag.toMillis();
+            if (withinLimit != usable) {
+                log.info("Replica {} (lag {}s, max {})", withinLimit ? "back in rotation" : "taken out of rotation",
+                        String.format("%.1f", lagSeconds), maxLag);
+            }
+            usable = withinLimit;
+        } catch (DataAccessException e) {
+            markDown(e);
+        }
+    }
+
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+
+    void markDown(Exception cause) {
+        if (usable) {
+            log.warn("Replica taken out of rotation: {}", cause.getMessage());
+        }
+        usable = false;
+    }
+}
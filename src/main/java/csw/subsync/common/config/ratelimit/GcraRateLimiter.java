@@ -1,82 +1,299 @@
 package csw.subsync.common.config.ratelimit;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * In-memory GCRA rate limiter.
+ * <p>
+ * {@code @RateLimit} methods go through {@link LimiterHandle}s created by {@link #newHandle(RateLimiterConfig)},
+ * which key callers by a primitive id and keep their own fixed-size tables. The string-keyed methods here are
+ * for everything else (e.g. the Redis limiter's fallback).
+ * <p>
+ * Keys are created per user or IP, so the store is bounded: a key whose theoretical arrival time (TAT) is already
+ * in the past behaves exactly like a key that was never seen, and is dropped by the periodic sweep. If live keys
+ * alone exceed {@code maxKeys}, the keys closest to expiring (the least recently limited ones) are dropped too.
+ */
 @Component
-public class GcraRateLimiter {
+public class GcraRateLimiter implements MeterBinder {
 
-    final ConcurrentHashMap<String, AtomicLong> lastTheoreticalArrivalTime = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, RateLimiterConfig> rateLimiterConfigs = new ConcurrentHashMap<>();
-    private final Object configLock = new Object(); // Lock for config updates to ensure thread safety during configuration
+    static final int DEFAULT_MAX_KEYS = 100_000;
+    static final int DEFAULT_SLOTS_PER_LIMITER = 16_384;
+    private static final long EVICTED = Long.MIN_VALUE; // TAT of an entry that has been removed from the map
+    private static final int SAMPLE_SIZE = 1024;
 
-    public RateLimiterConfig getRateLimiterConfig(String key) {
-        return rateLimiterConfigs.get(key); // Simple getter
+    final ConcurrentHashMap<String, Entry> lastTheoreticalArrivalTime = new ConcurrentHashMap<>();
+    private final List<LimiterHandle> handles = new CopyOnWriteArrayList<>();
+
+    private final int maxKeys;
+    private final int slotsPerLimiter;
+    private final AtomicBoolean sweeping = new AtomicBoolean(false);
+    private final LongAdder expiredEvictions = new LongAdder();
+    private final LongAdder capacityEvictions = new LongAdder();
+
+    public GcraRateLimiter() {
+        this(DEFAULT_MAX_KEYS);
     }
 
-    public void configureRateLimiter(String key, double permitsPerSecond, Duration tolerance) {
-        if (permitsPerSecond <= 0) {
-            throw new IllegalArgumentException("Permits per second must be positive.");
+    public GcraRateLimiter(int maxKeys) {
+        this(maxKeys, DEFAULT_SLOTS_PER_LIMITER);
+    }
+
+    @Autowired
+    public GcraRateLimiter(@Value("${application.ratelimit.max-keys:100000}") int maxKeys,
+                           @Value("${application.ratelimit.slots-per-limiter:16384}") int slotsPerLimiter) {
+        if (maxKeys <= 0) {
+            throw new IllegalArgumentException("Max keys must be positive.");
         }
-        if (tolerance.isNegative()) {
-            throw new IllegalArgumentException("Tolerance must be non-negative.");
+        if (slotsPerLimiter <= 0) {
+            throw new IllegalArgumentException("Slots per limiter must be positive.");
         }
+        this.maxKeys = maxKeys;
+        this.slotsPerLimiter = slotsPerLimiter;
+    }
 
-        long emissionIntervalNanos = (long) (1_000_000_000.0 / permitsPerSecond);
-        RateLimiterConfig newConfig = new RateLimiterConfig(emissionIntervalNanos, tolerance.toNanos(), permitsPerSecond);
+    /**
+     * Creates a limiter for one rate limit declaration. Resolve it once (e.g. per annotated method) and reuse it;
+     * each handle holds up to {@code slotsPerLimiter} callers.
+     */
+    public LimiterHandle newHandle(RateLimiterConfig config) {
+        LimiterHandle handle = new LimiterHandle(config, slotsPerLimiter, expiredEvictions, capacityEvictions);
+        handles.add(handle);
+        return handle;
+    }
 
-        // Synchronize configuration updates to avoid race conditions if multiple threads try to configure the same key concurrently
-        synchronized (configLock) {
-            RateLimiterConfig existingConfig = rateLimiterConfigs.get(key);
-            if (existingConfig == null || !existingConfig.equals(newConfig)) {
-                rateLimiterConfigs.put(key, newConfig);
-                lastTheoreticalArrivalTime.computeIfAbsent(key, k -> new AtomicLong(0L)); // Initialize TAT if new key or config changed
-            }
+    public RateLimiterConfig getRateLimiterConfig(String key) {
+        Entry entry = lastTheoreticalArrivalTime.get(key);
+        return entry == null ? null : entry.config; // Simple getter
+    }
+
+    public void configureRateLimiter(String key, double permitsPerSecond, Duration tolerance) {
+        RateLimiterConfig newConfig = RateLimiterConfig.of(permitsPerSecond, tolerance);
+
+        // No global lock: insert() is an atomic merge, and a config change is a single volatile write
+        Entry existing = lastTheoreticalArrivalTime.get(key);
+        if (existing == null || existing.get() == EVICTED) {
+            insert(key, newConfig); // Initialize TAT if new key
+        } else if (!existing.config.equals(newConfig)) {
+            existing.config = newConfig; // Keep the TAT, only the rate changes
         }
     }
 
     public boolean allowRequest(String key) {
-        RateLimiterConfig config = rateLimiterConfigs.get(key);
-        if (config == null) {
+        Entry entry = lastTheoreticalArrivalTime.get(key);
+        if (entry == null) {
             throw new IllegalStateException("Rate limiter not configured for key: " + key);
         }
+        return allow(key, entry);
+    }
 
-        long now = System.nanoTime();
-        AtomicLong tatRef = lastTheoreticalArrivalTime.get(key);
-        long currentTAT = tatRef.get();
-        long earliestTime = currentTAT - config.toleranceNanos;
+    /**
+     * Configures (if needed) and checks in one step. Unlike {@link #allowRequest(String)}, this cannot fail when
+     * the key was swept between configuring and checking.
+     */
+    public boolean allowRequest(String key, RateLimiterConfig config) {
+        Entry entry = lastTheoreticalArrivalTime.get(key);
+        if (entry == null) {
+            entry = insert(key, config);
+        } else if (!entry.config.equals(config)) {
+            entry.config = config;
+        }
+        return allow(key, entry);
+    }
 
-        if (now > earliestTime) {
+    private boolean allow(String key, Entry entry) {
+        long now = System.nanoTime();
+        while (true) {
+            long currentTAT = entry.get();
+            if (currentTAT == EVICTED) {
+                // Swept between configure and here; the key had expired, so a fresh entry is equivalent
+                entry = revive(key, entry);
+                now = System.nanoTime(); // the new entry's TAT was taken after our 'now'
+                continue;
+            }
+            RateLimiterConfig config = entry.config;
+            long earliestTime = currentTAT - config.toleranceNanos;
+            if (now <= earliestTime) {
+                return false;
+            }
             long nextTAT;
             if (now > currentTAT) {
                 nextTAT = now + config.emissionIntervalNanos;
             } else {
                 nextTAT = currentTAT + config.emissionIntervalNanos;
             }
+            if (entry.compareAndSet(currentTAT, nextTAT)) {
+                return true;
+            }
+        }
+    }
 
-            while (!tatRef.compareAndSet(currentTAT, nextTAT)) {
-                currentTAT = tatRef.get();
-                earliestTime = currentTAT - config.toleranceNanos;
-                if (now <= earliestTime) {
-                    return false;
-                }
-                if (now > currentTAT) {
-                    nextTAT = now + config.emissionIntervalNanos;
-                } else {
-                    nextTAT = currentTAT + config.emissionIntervalNanos;
+    public int size() {
+        int size = lastTheoreticalArrivalTime.size();
+        for (LimiterHandle handle : handles) {
+            size += handle.size();
+        }
+        return size;
+    }
+
+    /**
+     * Drops every key whose TAT is in the past. Runs periodically, and inline when an insert pushes the store
+     * over {@code maxKeys}.
+     */
+    @Scheduled(fixedDelayString = "${application.ratelimit.sweep-interval:10s}")
+    public void sweep() {
+        if (!sweeping.compareAndSet(false, true)) {
+            return; // another thread is already sweeping
+        }
+        try {
+            long now = System.nanoTime();
+            boolean overCapacity = lastTheoreticalArrivalTime.size() > maxKeys;
+            for (Map.Entry<String, Entry> e : lastTheoreticalArrivalTime.entrySet()) {
+                if (evictIf(e.getKey(), e.getValue(), now)) {
+                    expiredEvictions.increment();
                 }
             }
-            return true;
-        } else {
+            if (overCapacity) {
+                evictOldest(now); // down to 90% even if expiry alone got below the cap, so this doesn't rerun per insert
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("subsync.ratelimit.keys", this, GcraRateLimiter::size)
+                .description("Keys held by the in-memory rate limiter")
+                .register(registry);
+        Gauge.builder("subsync.ratelimit.capacity", this, GcraRateLimiter::capacity)
+                .description("Upper bound on keys held by the in-memory rate limiter")
+                .register(registry);
+        FunctionCounter.builder("subsync.ratelimit.evictions", expiredEvictions, LongAdder::sum)
+                .tag("reason", "expired")
+                .register(registry);
+        FunctionCounter.builder("subsync.ratelimit.evictions", capacityEvictions, LongAdder::sum)
+                .tag("reason", "capacity")
+                .register(registry);
+    }
+
+    int capacity() {
+        int capacity = maxKeys;
+        for (LimiterHandle handle : handles) {
+            capacity += handle.capacity();
+        }
+        return capacity;
+    }
+
+    long evictionCount() {
+        return expiredEvictions.sum() + capacityEvictions.sum();
+    }
+
+    private Entry insert(String key, RateLimiterConfig config) {
+        Entry created = new Entry(System.nanoTime() - 1, config); // already in the past = fresh
+        Entry entry = lastTheoreticalArrivalTime.merge(key, created,
+                (old, fresh) -> old.get() == EVICTED ? fresh : old);
+        if (lastTheoreticalArrivalTime.size() > maxKeys) {
+            sweep();
+        }
+        return entry;
+    }
+
+    private Entry revive(String key, Entry evicted) {
+        lastTheoreticalArrivalTime.remove(key, evicted);
+        return insert(key, evicted.config);
+    }
+
+    // 살아있는 키만으로도 넘치면 TAT 가 가장 이른 (가장 오래 전에 제한된) 키부터 정리한다.
+    // 정렬 대신 표본으로 기준값을 잡아서 한 번 더 훑는다.
+    private void evictOldest(long now) {
+        int size = lastTheoreticalArrivalTime.size();
+        int target = maxKeys - maxKeys / 10; // leave headroom so the next inserts don't sweep again right away
+        int excess = size - target;
+        if (excess <= 0) {
+            return;
+        }
+
+        long[] sample = new long[Math.min(SAMPLE_SIZE, size)];
+        int n = 0;
+        int stride = Math.max(1, size / sample.length);
+        int i = 0;
+        for (Entry entry : lastTheoreticalArrivalTime.values()) {
+            long tat = entry.get();
+            if (i++ % stride == 0 && n < sample.length && tat != EVICTED) {
+                sample[n++] = tat - now;
+            }
+        }
+        if (n == 0) {
+            return;
+        }
+        Arrays.sort(sample, 0, n);
+        long threshold = now + sample[Math.min(n - 1, (int) ((long) n * excess / size))];
+
+        for (Map.Entry<String, Entry> e : lastTheoreticalArrivalTime.entrySet()) {
+            if (excess <= 0) {
+                break;
+            }
+            if (evictIf(e.getKey(), e.getValue(), threshold + 1)) { // inclusive, in case many keys share the threshold
+                capacityEvictions.increment();
+                excess--;
+            }
+        }
+    }
+
+    // TAT 를 EVICTED 로 바꾼 스레드만 지운다. 그 사이에 요청이 TAT 를 갱신했다면 CAS 가 실패해서 남는다.
+    private boolean evictIf(String key, Entry entry, long tatBefore) {
+        long tat = entry.get();
+        if (tat == EVICTED || tat - tatBefore >= 0 || !entry.compareAndSet(tat, EVICTED)) {
             return false;
         }
+        lastTheoreticalArrivalTime.remove(key, entry);
+        return true;
+    }
+
+    /**
+     * Per-key state: the TAT itself, plus the config it is limited with.
+     */
+    static final class Entry extends AtomicLong {
+        volatile RateLimiterConfig config;
+
+        Entry(long tat, RateLimiterConfig config) {
+            super(tat);
+            this.config = config;
+        }
     }
 
     public record RateLimiterConfig(long emissionIntervalNanos, long toleranceNanos, double permitsPerSecond) {
+
+        public static RateLimiterConfig of(double permitsPerSecond, Duration tolerance) {
+            if (permitsPerSecond <= 0) {
+                throw new IllegalArgumentException("Permits per second must be positive.");
+            }
+            if (tolerance.isNegative()) {
+                throw new IllegalArgumentException("Tolerance must be non-negative.");
+            }
+
+            long emissionIntervalNanos = (long) (1_000_000_000.0 / permitsPerSecond);
+            return new RateLimiterConfig(emissionIntervalNanos, tolerance.toNanos(), permitsPerSecond);
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) return true;
@@ -92,4 +309,4 @@ public class GcraRateLimiter {
             return Objects.hash(emissionIntervalNanos, toleranceNanos, permitsPerSecond);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,155 @@
+package csw.subsync.common.config.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A GCRA limiter for one {@code @RateLimit} declaration, resolved once and reused for every call.
+ * <p>
+ * Per-caller state is keyed by a primitive {@code long} (user id or IP hash) and kept in a fixed-size,
+ * 4-way set-associative table of cells. A caller that has been seen before costs a few array reads and one CAS:
+ * no locks, no allocation. A new caller takes the cell in its set with the earliest TAT, which is either an
+ * expired caller (equivalent to a fresh one) or the least recently limited one, so the table never grows.
+ * <p>
+ * Created through {@link GcraRateLimiter#newHandle(GcraRateLimiter.RateLimiterConfig)}.
+ */
+public final class LimiterHandle {
+
+    private static final int WAYS = 4;
+    private static final long EVICTED = Long.MIN_VALUE;
+
+    private final GcraRateLimiter.RateLimiterConfig config;
+    private final long emissionIntervalNanos;
+    private final long toleranceNanos;
+    private final AtomicReferenceArray<Cell> cells;
+    private final int setMask;
+    private final LongAdder expiredEvictions;
+    private final LongAdder capacityEvictions;
+
+    LimiterHandle(GcraRateLimiter.RateLimiterConfig config, int slots,
+                  LongAdder expiredEvictions, LongAdder capacityEvictions) {
+        int sets = Integer.highestOneBit(Math.max(1, slots / WAYS));
+        this.config = config;
+        this.emissionIntervalNanos = config.emissionIntervalNanos();
+        this.toleranceNanos = config.toleranceNanos();
+        this.cells = new AtomicReferenceArray<>(sets * WAYS);
+        this.setMask = sets - 1;
+        this.expiredEvictions = expiredEvictions;
+        this.capacityEvictions = capacityEvictions;
+    }
+
+    public GcraRateLimiter.RateLimiterConfig config() {
+        return config;
+    }
+
+    public boolean tryAcquire(long caller) {
+        int base = (int) (mix(caller) & setMask) * WAYS;
+        long now = System.nanoTime();
+        while (true) {
+            Cell cell = find(base, caller);
+            if (cell == null) {
+                cell = claim(base, caller); // first request from this caller (or it was evicted)
+                now = System.nanoTime();
+                if (cell == null) {
+                    continue; // lost a race for the slot, look again
+                }
+            }
+
+            long currentTAT = cell.get();
+            if (currentTAT == EVICTED) {
+                continue;
+            }
+            if (now <= currentTAT - toleranceNanos) {
+                return false;
+            }
+            long nextTAT = (now > currentTAT ? now : currentTAT) + emissionIntervalNanos;
+            if (cell.compareAndSet(currentTAT, nextTAT)) {
+                return true;
+            }
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (int i = 0; i < cells.length(); i++) {
+            Cell cell = cells.get(i);
+            if (cell != null && cell.get() != EVICTED) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    int capacity() {
+        return cells.length();
+    }
+
+    private Cell find(int base, long caller) {
+        for (int i = base; i < base + WAYS; i++) {
+            Cell cell = cells.get(i);
+            if (cell != null && cell.key == caller) {
+                return cell;
+            }
+        }
+        return null;
+    }
+
+    private Cell claim(int base, long caller) {
+        int victimIndex = base;
+        Cell victim = cells.get(base);
+        long victimTAT = victim == null ? EVICTED : victim.get();
+        for (int i = base + 1; i < base + WAYS && victim != null; i++) {
+            Cell cell = cells.get(i);
+            long tat = cell == null ? EVICTED : cell.get();
+            if (cell == null || tat < victimTAT) {
+                victimIndex = i;
+                victim = cell;
+                victimTAT = tat;
+            }
+        }
+
+        long now = System.nanoTime();
+        if (victim != null && victimTAT != EVICTED) { // an EVICTED victim is already on its way out, just replace it
+            // 요청 중인 스레드가 있으면 CAS 가 실패하고, 그 스레드는 EVICTED 를 보고 다시 찾는다
+            if (!victim.compareAndSet(victimTAT, EVICTED)) {
+                return null;
+            }
+            (victimTAT - now < 0 ? expiredEvictions : capacityEvictions).increment();
+        }
+
+        Cell created = new Cell(caller, now - 1); // already in the past = fresh
+        if (!cells.compareAndSet(victimIndex, victim, created)) {
+            return null;
+        }
+
+        // Two threads can claim two cells for the same new caller; everyone settles on the first one in the set
+        Cell first = find(base, caller);
+        if (first != created && created.compareAndSet(now - 1, EVICTED)) {
+            cells.compareAndSet(victimIndex, created, null);
+        }
+        return first;
+    }
+
+    // murmur3 fmix64: user ids are sequential, spread them over the sets
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /**
+     * One caller's TAT. {@link #EVICTED} once the cell has been handed to another caller.
+     */
+    static final class Cell extends AtomicLong {
+        final long key;
+
+        Cell(long key, long tat) {
+            super(tat);
+            this.key = key;
+        }
+    }
+}
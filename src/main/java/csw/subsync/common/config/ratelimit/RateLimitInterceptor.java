@@ -4,6 +4,7 @@ import csw.subsync.common.annotation.RateLimit;
 import csw.subsync.user.model.User;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -20,46 +21,64 @@ import org.springframework.web.server.ResponseStatusException;
 import java.lang.reflect.Method;
 import java.time.Duration;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Applies {@link RateLimit} to annotated methods.
+ * <p>
+ * Each annotated method is resolved once to a {@link LimiterHandle} (rate, tolerance and its own per-caller table).
+ * After that, a call costs a map lookup on the {@link Method}, a primitive caller id, and one CAS; nothing is
+ * allocated and no lock is taken unless the request is rejected.
+ */
+@Slf4j
 @Aspect
 @Configuration
 public class RateLimitInterceptor {
 
+    private static final long IP_KEY_FLAG = Long.MIN_VALUE; // keeps IP hashes apart from (positive) user ids
+
     private final GcraRateLimiter gcraRateLimiter;
+    private final RedisGcraRateLimiter redisGcraRateLimiter;
+    private final ConcurrentHashMap<Method, LimiterHandle> handles = new ConcurrentHashMap<>();
 
     @Autowired
-    public RateLimitInterceptor(GcraRateLimiter gcraRateLimiter) {
+    public RateLimitInterceptor(GcraRateLimiter gcraRateLimiter, RedisGcraRateLimiter redisGcraRateLimiter) {
         this.gcraRateLimiter = gcraRateLimiter;
+        this.redisGcraRateLimiter = redisGcraRateLimiter;
     }
 
     @Around("@annotation(rateLimit)") // Intercept methods with @RateLimit annotation
     public Object intercept(ProceedingJoinPoint joinPoint, RateLimit rateLimit) throws Throwable {
-        String baseKey = rateLimit.key();
-        double permitsPerSecond = rateLimit.permitsPerSecond();
-        Duration tolerance = Duration.of(rateLimit.tolerance(), rateLimit.toleranceUnit());
-
-        // *** Dynamic Key Generation for Per-User Rate Limiting ***
-        String userId = getCurrentUserId();
-        String dynamicKey = baseKey + "_" + userId; // e.g., "register_123"
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        LimiterHandle handle = handles.get(method);
+        if (handle == null) {
+            handle = handles.computeIfAbsent(method, m -> gcraRateLimiter.newHandle(GcraRateLimiter.RateLimiterConfig.of(
+                    rateLimit.permitsPerSecond(), Duration.of(rateLimit.tolerance(), rateLimit.toleranceUnit()))));
+        }
 
-        // Configure rate limiter if not already configured or if configuration changed (optional, for dynamic updates)
-        gcraRateLimiter.configureRateLimiter(dynamicKey, permitsPerSecond, tolerance);
+        // *** Per-user (or per-IP) rate limiting ***
+        long caller = currentCallerKey();
+        boolean allowed;
+        if (rateLimit.backend() == RateLimit.Backend.REDIS) {
+            // Shared across instances; state lives in Redis (a network call anyway, so the key string is fine here)
+            allowed = redisGcraRateLimiter.allowRequest(rateLimit.key() + "_" + caller, handle.config());
+        } else {
+            allowed = handle.tryAcquire(caller);
+        }
 
-        if (gcraRateLimiter.allowRequest(dynamicKey)) {
+        if (allowed) {
             return joinPoint.proceed(); // Proceed with the method execution
         } else {
-            MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-            Method method = signature.getMethod();
             String methodName = method.getDeclaringClass().getSimpleName() + "." + method.getName();
-            System.out.println("Rate limit exceeded for: " + methodName + ", key: " + dynamicKey); // Logging rate limiting
+            log.debug("Rate limit exceeded for: {}, key: {}_{}", methodName, rateLimit.key(), caller);
 
+            GcraRateLimiter.RateLimiterConfig config = handle.config();
             // *** Add custom headers to the 429 response ***
             ServletRequestAttributes requestAttributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
             if (requestAttributes != null) {
                 HttpServletResponse response = requestAttributes.getResponse();
                 if (response != null) {
-                    GcraRateLimiter.RateLimiterConfig config = gcraRateLimiter.getRateLimiterConfig(dynamicKey);
                     if (config != null) {
                         response.setHeader("X-RateLimit-Limit", String.valueOf(config.permitsPerSecond())); // Or calculate based on interval
 
@@ -77,14 +96,24 @@ public class RateLimitInterceptor {
         }
     }
 
-    private String getCurrentUserId() {
+    // user id for authenticated users, otherwise a hash of the client IP
+    private long currentCallerKey() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication != null && authentication.getPrincipal() instanceof User) {
-            return ((User) authentication.getPrincipal()).getId().toString();
+        if (authentication != null && authentication.getPrincipal() instanceof User user) {
+            return user.getId();
         }
 
         HttpServletRequest request = ((ServletRequestAttributes) Objects.requireNonNull(RequestContextHolder.getRequestAttributes())).getRequest();
-        String ipAddress = request.getRemoteAddr();
-        return "user_" + ipAddress.hashCode();
+        return ipKey(request.getRemoteAddr());
+    }
+
+    static long ipKey(String ipAddress) {
+        // FNV-1a over the chars; no byte[] / substring allocation
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < ipAddress.length(); i++) {
+            hash ^= ipAddress.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash | IP_KEY_FLAG;
     }
 }
\ No newline at end of file
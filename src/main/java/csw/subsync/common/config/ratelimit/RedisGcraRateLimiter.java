@@ -0,0 +1,123 @@
+package csw.subsync.common.config.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GCRA rate limiter whose theoretical arrival time (TAT) lives in Redis, so the limit holds across all instances.
+ * <p>
+ * The whole check-and-update runs as one Lua script, which Redis executes atomically. The script reads the clock
+ * from Redis ({@code TIME}) rather than trusting the caller, so instances with skewed clocks still agree.
+ * <p>
+ * Two things keep Redis off the hot path when it does not need to be there:
+ * <ul>
+ *     <li>When Redis rejects a request it also says how long until the next one can pass. Until then, requests
+ *         for that key are rejected locally without a network hop. The TAT only ever moves forward, so this
+ *         never rejects a request that Redis would have allowed.</li>
+ *     <li>If Redis is unreachable, the request is checked against the local {@link GcraRateLimiter} instead, so
+ *         a Redis outage degrades to per-instance limits rather than failing (or fully opening) the endpoint.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class RedisGcraRateLimiter {
+
+    static final String KEY_PREFIX = "ratelimit:";
+    static final int MAX_REJECT_ENTRIES = 10_000;
+
+    // KEYS[1] = key, ARGV[1] = emission interval (us), ARGV[2] = tolerance (us)
+    // returns {1, 0} when allowed, {0, wait (us)} when rejected
+    private static final RedisScript<List> GCRA_SCRIPT = new DefaultRedisScript<>("""
+            redis.replicate_commands()
+            local emission = tonumber(ARGV[1])
+            local tolerance = tonumber(ARGV[2])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local tat = tonumber(redis.call('GET', KEYS[1]))
+            if tat == nil or tat < now then
+                tat = now
+            end
+            local allowAt = tat - tolerance
+            if now < allowAt then
+                return {0, allowAt - now}
+            end
+            local newTat = tat + emission
+            redis.call('SET', KEYS[1], string.format('%.0f', newTat), 'PX', math.ceil((newTat - now) / 1000) + 1)
+            return {1, 0}
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final GcraRateLimiter localFallback;
+
+    // key -> System.nanoTime() before which Redis is known to reject; each entry expires at its own deadline
+    // and the size is capped, so keys that never come back cost nothing to forget
+    final Cache<String, Long> rejectUntil;
+
+    public RedisGcraRateLimiter(StringRedisTemplate redisTemplate, GcraRateLimiter localFallback) {
+        this.redisTemplate = redisTemplate;
+        this.localFallback = localFallback;
+        this.rejectUntil = Caffeine.newBuilder()
+                .maximumSize(MAX_REJECT_ENTRIES)
+                .expireAfter(new UntilDeadline())
+                .build();
+    }
+
+    public boolean allowRequest(String key, GcraRateLimiter.RateLimiterConfig config) {
+        Long until = rejectUntil.getIfPresent(key);
+        if (until != null && System.nanoTime() - until < 0) {
+            return false; // fast path: still inside the window Redis already rejected
+        }
+
+        List<?> result;
+        try {
+            result = redisTemplate.execute(GCRA_SCRIPT, List.of(KEY_PREFIX + key),
+                    String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toMicros(config.emissionIntervalNanos()))),
+                    String.valueOf(TimeUnit.NANOSECONDS.toMicros(config.toleranceNanos())));
+        } catch (RuntimeException e) {
+            log.warn("Redis rate limiter unavailable, using local limiter for {}: {}", key, e.getMessage());
+            return allowLocally(key, config);
+        }
+        if (result == null || result.size() < 2) {
+            return allowLocally(key, config);
+        }
+
+        if (((Number) result.get(0)).longValue() == 1L) {
+            return true;
+        }
+        long waitMicros = ((Number) result.get(1)).longValue();
+        rejectUntil.put(key, System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(waitMicros));
+        return false;
+    }
+
+    private boolean allowLocally(String key, GcraRateLimiter.RateLimiterConfig config) {
+        return localFallback.allowRequest(key, config);
+    }
+
+    // Caffeine's default ticker is System.nanoTime(), the same clock the deadlines are stored in
+    private static final class UntilDeadline implements Expiry<String, Long> {
+
+        @Override
+        public long expireAfterCreate(String key, Long until, long currentTime) {
+            return Math.max(0, until - currentTime);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Long until, long currentTime, long currentDuration) {
+            return Math.max(0, until - currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Long until, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package csw.subsync.common.config.security;
 
 
 import csw.subsync.user.model.User;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -23,6 +24,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
 
     @Override
     protected void doFilterInternal(
@@ -42,10 +44,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
         jwt = authHeader.substring(7);
-        userEmail = jwtService.extractUsername(jwt);
+        // 한 번만 검증하고 (캐시됨) 그 결과를 재사용한다
+        JwtService.VerifiedToken token;
+        try {
+            token = jwtService.verify(jwt);
+        } catch (JwtException e) {
+            // 인증 없이 넘기면 보호된 경로는 AuthenticationEntryPoint 에서 401 로 끝난다
+            filterChain.doFilter(request, response);
+            return;
+        }
+        userEmail = token.username();
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            User userDetails = (User) this.userDetailsService.loadUserByUsername(userEmail);
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            // stateless 모드에서는 토큰 클레임으로 principal 을 만들고 DB 조회를 건너뛴다
+            User userDetails = principalCache.principalFor(token,
+                    username -> (User) this.userDetailsService.loadUserByUsername(username));
+            if (token.isValidFor(userDetails)) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
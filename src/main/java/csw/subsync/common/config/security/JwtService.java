@@ -1,7 +1,11 @@
 package csw.subsync.common.config.security;
 
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import csw.subsync.user.model.User;
+import csw.subsync.user.model.role.Role;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -9,29 +13,77 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
-import java.security.Key;
+import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
 
+/**
+ * Issues and verifies access/refresh tokens.
+ * <p>
+ * The signing key and parser are built once. {@link #verify(String)} checks a token with a single parse and
+ * remembers the result until the token's {@code exp}, keyed by a SHA-256 of the token, so a client reusing its
+ * token skips the HMAC and JSON work on every request after the first.
+ */
 @Component
 public class JwtService {
 
-    @Value("${application.security.jwt.secret-key}")
-    private String secretKey;
-    @Value("${application.security.jwt.expiration}")
-    private long jwtExpiration;
-    @Value("${application.security.jwt.refresh-token.expiration}")
-    private long refreshExpiration;
+    private final long jwtExpiration;
+    private final long refreshExpiration;
+    private final SecretKey signInKey;
+    private final JwtParser parser;
+    private final Cache<TokenHash, VerifiedToken> verifiedTokens; // null when disabled
+
+    public JwtService(@Value("${application.security.jwt.secret-key}") String secretKey,
+                      @Value("${application.security.jwt.expiration}") long jwtExpiration,
+                      @Value("${application.security.jwt.refresh-token.expiration}") long refreshExpiration,
+                      @Value("${application.security.jwt.cache-size:10000}") int cacheSize) {
+        this.jwtExpiration = jwtExpiration;
+        this.refreshExpiration = refreshExpiration;
+        this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.parser = Jwts.parser().verifyWith(signInKey).build();
+        this.verifiedTokens = cacheSize <= 0 ? null : Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new UntilTokenExpiry())
+                .build();
+    }
+
+    /**
+     * Verifies the signature and expiry of {@code token} and returns its claims.
+     *
+     * @throws JwtException (one of the nested subclasses) if the token is expired, malformed or not signed by us
+     */
+    public VerifiedToken verify(String token) {
+        if (verifiedTokens == null) {
+            return parse(token);
+        }
+        TokenHash hash = TokenHash.of(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(hash);
+        if (cached != null) {
+            if (cached.isExpired()) { // expiry eviction is lazy; never hand out an expired token
+                verifiedTokens.invalidate(hash);
+                throw new JwtTokenExpiredException("JWT expired");
+            }
+            return cached;
+        }
+        VerifiedToken verified = parse(token);
+        verifiedTokens.put(hash, verified);
+        return verified;
+    }
 
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).username();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+        return claimsResolver.apply(verify(token).claims());
     }
 
     public String generateToken(User userDetails) {
@@ -57,36 +109,46 @@ public class JwtService {
             long expiration
     ) {
         extraClaims.put("userId", userDetails.getId());
+        if (userDetails.getRole() != null) {
+            extraClaims.put("role", userDetails.getRole().name()); // lets PrincipalCache skip the user lookup
+        }
         return Jwts
                 .builder()
                 .setClaims(extraClaims)
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return verify(token).isValidFor(userDetails);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private VerifiedToken parse(String token) {
+        Claims claims = extractAllClaims(token);
+        if (claims.getExpiration() == null) {
+            throw new JwtValidationException("Invalid token"); // we never issue tokens without exp
+        }
+        String role = claims.get("role", String.class);
+        if (role != null) {
+            try {
+                Role.of(role);
+            } catch (IllegalArgumentException e) {
+                throw new JwtValidationException("Invalid token"); // PrincipalCache would build a principal from it
+            }
+        }
+        return new VerifiedToken(claims.getSubject(), claims.get("userId", Long.class), role,
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : Instant.EPOCH,
+                claims.getExpiration().toInstant(), claims);
     }
 
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts.parser()
-                    .setSigningKey(getSignInKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            return parser
+                    .parseSignedClaims(token)
+                    .getPayload();
         } catch (ExpiredJwtException ex) {
             throw new JwtTokenExpiredException("JWT expired");
         } catch (MalformedJwtException ex) {
@@ -98,13 +160,54 @@ public class JwtService {
         }
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public Long extractUserId(String token) {
+        return verify(token).userId();
     }
 
-    public Long extractUserId(String token) {
-        return extractClaim(token, claims -> claims.get("userId", Long.class));
+    /**
+     * A token whose signature and expiry have been checked.
+     */
+    public record VerifiedToken(String username, Long userId, String role, Instant issuedAt, Instant expiresAt,
+                                Claims claims) {
+        public boolean isExpired() {
+            return !Instant.now().isBefore(expiresAt);
+        }
+
+        public boolean isValidFor(UserDetails userDetails) {
+            return username.equals(userDetails.getUsername()) && !isExpired();
+        }
+    }
+
+    // 토큰의 exp 시점에 캐시에서도 사라진다 (읽기/갱신으로 연장되지 않음)
+    private static final class UntilTokenExpiry implements Expiry<TokenHash, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(TokenHash key, VerifiedToken value, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), value.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(TokenHash key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(TokenHash key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    // SHA-256 of the token as four longs: the cache never holds the bearer token itself,
+    // and a forged token cannot collide with a verified one
+    record TokenHash(long a, long b, long c, long d) {
+        static TokenHash of(String token) {
+            try {
+                ByteBuffer digest = ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                        .digest(token.getBytes(StandardCharsets.US_ASCII)));
+                return new TokenHash(digest.getLong(), digest.getLong(), digest.getLong(), digest.getLong());
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 algorithm not available", e);
+            }
+        }
     }
 
     public static class JwtTokenExpiredException extends JwtException {
@@ -0,0 +1,109 @@
+package csw.subsync.common.config.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import csw.subsync.user.model.User;
+import csw.subsync.user.model.role.Role;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+
+/**
+ * Resolves the authenticated {@link User} for a verified token without hitting the database on every request.
+ * <p>
+ * In stateless mode ({@code application.security.jwt.stateless}) the principal is built from the token's
+ * {@code userId}, {@code sub} and {@code role} claims and kept for a short TTL. Such a principal only carries
+ * id, username and role; code that needs anything else (email, Stripe ids) loads the user itself.
+ * <p>
+ * Nothing changes a user's role yet. Whatever code starts doing so must call {@link #invalidate(Long)}. That call
+ * drops the cached principal and writes a marker to Redis, so every instance sees it, saying that tokens issued
+ * before now are stale. Those tokens fall back to the database lookup until they expire or the client refreshes.
+ * Other instances pick up the marker once their cached entry expires, so the TTL bounds how long a change can go
+ * unnoticed.
+ */
+@Slf4j
+@Component
+public class PrincipalCache {
+
+    static final String STALE_KEY_PREFIX = "auth:stale-before:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final boolean stateless;
+    private final Duration markerTtl;
+    private final Cache<Long, User> principals;
+
+    public PrincipalCache(StringRedisTemplate redisTemplate,
+                          @Value("${application.security.jwt.stateless:true}") boolean stateless,
+                          @Value("${application.security.jwt.principal-cache.ttl:30s}") Duration ttl,
+                          @Value("${application.security.jwt.principal-cache.size:10000}") int size,
+                          @Value("${application.security.jwt.expiration}") long jwtExpiration) {
+        this.redisTemplate = redisTemplate;
+        this.stateless = stateless;
+        this.markerTtl = Duration.ofMillis(jwtExpiration); // after that every token issued before the marker has expired
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(size)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * @param loader loads the user from the database by username; used when stateless mode is off, the token
+     *               predates the claims we need, or the token was issued before the user was invalidated
+     */
+    public User principalFor(JwtService.VerifiedToken token, Function<String, User> loader) {
+        if (!stateless || token.userId() == null || token.role() == null) {
+            return loader.apply(token.username());
+        }
+
+        User cached = principals.getIfPresent(token.userId());
+        if (cached != null && cached.getUsername().equals(token.username())) {
+            return cached;
+        }
+
+        User principal;
+        if (isStale(token)) {
+            principal = loader.apply(token.username()); // claims may be outdated, trust the database
+        } else {
+            principal = User.builder()
+                    .id(token.userId())
+                    .username(token.username())
+                    .role(Role.of(token.role()))
+                    .build();
+        }
+        principals.put(token.userId(), principal);
+        return principal;
+    }
+
+    /**
+     * Call after changing anything about the user that a token or cached principal carries, i.e. the role.
+     * There are no callers yet; it is the hook for a future role-update path.
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        principals.invalidate(userId);
+        try {
+            redisTemplate.opsForValue().set(STALE_KEY_PREFIX + userId,
+                    String.valueOf(Instant.now().toEpochMilli()), markerTtl);
+        } catch (RuntimeException e) {
+            log.warn("Could not publish principal invalidation for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    private boolean isStale(JwtService.VerifiedToken token) {
+        String marker;
+        try {
+            marker = redisTemplate.opsForValue().get(STALE_KEY_PREFIX + token.userId());
+        } catch (RuntimeException e) {
+            return true; // can't tell, so don't trust the claims
+        }
+        // iat has second precision, so a token from the same second as the marker counts as stale
+        return marker != null && token.issuedAt().toEpochMilli() <= Long.parseLong(marker);
+    }
+}
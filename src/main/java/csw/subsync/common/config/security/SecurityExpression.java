@@ -1,7 +1,7 @@
 package csw.subsync.common.config.security;
 
-import csw.subsync.subscription.model.SubscriptionGroup;
-import csw.subsync.subscription.repository.SubscriptionGroupRepository;
+import csw.subsync.subscription.cache.GroupSummaryCache;
+import csw.subsync.subscription.dto.GroupSummary;
 import csw.subsync.user.model.User;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
@@ -10,7 +10,7 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 @Component("securityExpression")
 public class SecurityExpression {
-    private final SubscriptionGroupRepository subscriptionGroupRepo;
+    private final GroupSummaryCache groupSummaryCache;
 
     /**
      * Check if the current user can remove a given group.
@@ -27,9 +27,9 @@ public class SecurityExpression {
             return true;
         }
 
-        // Or if user is the group owner
-        SubscriptionGroup group = subscriptionGroupRepo.findByIdAndActiveTrueWithMemberships(groupId);
-        return group != null && group.getOwner().getId().equals(principalUser.getId());
+        // Or if user is the group owner (served from the group cache; removeGroup re-reads the row under lock)
+        GroupSummary group = groupSummaryCache.get(groupId);
+        return group != null && group.active() && group.isOwnedBy(principalUser.getId());
     }
 
     /**
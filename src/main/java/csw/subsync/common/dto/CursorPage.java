@@ -0,0 +1,31 @@
+package csw.subsync.common.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset(커서) 페이지. 다음 페이지는 {@code nextCursor} 를 그대로 {@code cursor} 파라미터로 넘겨 요청한다.
+ * OFFSET 과 달리 앞 페이지를 건너뛰느라 읽는 행이 없어서 뒤쪽 페이지도 첫 페이지와 비용이 같다.
+ */
+public record CursorPage<T>(
+        @Schema(description = "이번 페이지 항목")
+        List<T> content,
+        @Schema(description = "다음 페이지 요청에 넘길 커서 (마지막 페이지면 null)", example = "42")
+        Long nextCursor,
+        @Schema(description = "다음 페이지 존재 여부", example = "true")
+        boolean hasNext) {
+
+    /**
+     * @param fetched  {@code size + 1} 개까지 조회한 결과 (한 개 더 읽어서 다음 페이지가 있는지 판단)
+     * @param cursorOf 항목의 정렬 키 (마지막 항목의 키가 다음 커서)
+     */
+    public static <T> CursorPage<T> of(List<T> fetched, int size, Function<T, Long> cursorOf) {
+        if (fetched.size() <= size) {
+            return new CursorPage<>(fetched, null, false);
+        }
+        List<T> content = fetched.subList(0, size);
+        return new CursorPage<>(List.copyOf(content), cursorOf.apply(content.get(size - 1)), true);
+    }
+}
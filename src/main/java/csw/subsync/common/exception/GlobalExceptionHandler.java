@@ -72,6 +72,13 @@ public class GlobalExceptionHandler {
         return Collections.singletonMap("error", ex.getMessage());
     }
 
+    // Stripe 호출 슬롯 부족 (bulkhead) - 잠시 후 재시도 가능
+    @ExceptionHandler(StripeUnavailableException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public Map<String, String> handleStripeUnavailable(StripeUnavailableException ex) {
+        return Collections.singletonMap("error", ex.getMessage());
+    }
+
     // 기타 모든 예외 처리
     @ExceptionHandler(Exception.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -0,0 +1,11 @@
+package csw.subsync.common.exception;
+
+/**
+ * Thrown by the Stripe gateway itself (full bulkhead, shutting down) before anything reaches Stripe, so it says
+ * nothing about Stripe's health.
+ */
+public class StripeCallRejectedException extends StripeUnavailableException {
+    public StripeCallRejectedException(String message) {
+        super(message);
+    }
+}
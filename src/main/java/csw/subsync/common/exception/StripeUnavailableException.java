@@ -0,0 +1,14 @@
+package csw.subsync.common.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class StripeUnavailableException extends PaymentException {
+    public StripeUnavailableException(String message) {
+        super(message);
+    }
+    public StripeUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,27 @@
+package csw.subsync.common.outbox;
+
+import java.time.Instant;
+
+/**
+ * A row of an outbox-style table ({@code charge_jobs}, {@code stripe_webhook_events}): claimed with
+ * {@code FOR UPDATE SKIP LOCKED}, retried with backoff and given up after a number of attempts.
+ * See {@link OutboxPolicy}.
+ */
+public interface OutboxEntry {
+
+    int getAttempts();
+
+    void setAttempts(int attempts);
+
+    void setLockedAt(Instant lockedAt);
+
+    void setAvailableAt(Instant availableAt);
+
+    void setLastError(String lastError);
+
+    void markPending();
+
+    void markRunning();
+
+    void markFailed();
+}
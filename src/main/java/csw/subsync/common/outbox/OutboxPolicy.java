@@ -0,0 +1,73 @@
+package csw.subsync.common.outbox;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Claim and retry rules shared by the outbox tables.
+ * <p>
+ * A claimed entry is {@code RUNNING} with a lease; if its worker dies the lease goes stale and the entry is claimed
+ * again. A failed attempt goes back to {@code PENDING} after {@code backoff × 2^(attempts - 1)}, and to
+ * {@code FAILED} once {@code maxAttempts} is reached.
+ */
+public final class OutboxPolicy {
+
+    public static final int MAX_ERROR_LENGTH = 500; // last_error column
+
+    private final int maxAttempts;
+    private final Duration lease;
+    private final Duration backoff;
+
+    public OutboxPolicy(int maxAttempts, Duration lease, Duration backoff) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("Max attempts must be positive.");
+        }
+        this.maxAttempts = maxAttempts;
+        this.lease = lease;
+        this.backoff = backoff;
+    }
+
+    /**
+     * Entries still {@code RUNNING} with a lock older than this belong to a dead worker and may be claimed again.
+     */
+    public Instant staleBefore(Instant now) {
+        return now.minus(lease);
+    }
+
+    /**
+     * Marks entries just locked by a {@code lockNextBatch} query as claimed; each claim counts as an attempt.
+     */
+    public <T extends OutboxEntry> List<T> claimed(List<T> locked, Instant now) {
+        for (T entry : locked) {
+            entry.markRunning();
+            entry.setLockedAt(now);
+            entry.setAttempts(entry.getAttempts() + 1);
+        }
+        return locked;
+    }
+
+    /**
+     * Releases a failed attempt for a retry after backoff, or gives up on it.
+     *
+     * @return {@code true} if the entry is now {@code FAILED}
+     */
+    public boolean fail(OutboxEntry entry, String error, Instant now) {
+        entry.setLockedAt(null);
+        entry.setLastError(truncate(error));
+        if (entry.getAttempts() >= maxAttempts) {
+            entry.markFailed();
+            return true;
+        }
+        entry.markPending();
+        entry.setAvailableAt(now.plus(backoff.multipliedBy(1L << Math.min(entry.getAttempts() - 1, 20))));
+        return false;
+    }
+
+    public static String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,96 @@
+package csw.subsync.common.outbox;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Drains an outbox table with a fixed number of units of work in flight, each on its own virtual thread.
+ * <p>
+ * Only one thread claims at a time; the others return right away, since the claiming thread keeps going until the
+ * table is empty or every slot is busy. A finished unit frees its slot and drains again if more may be waiting.
+ * Subclasses decide what a unit is (one job, a batch of events) and wire up the triggers: a periodic poll and a
+ * {@link #wakeUp()} after the enqueuing transaction commits.
+ *
+ * @param <W> unit of work
+ */
+@Slf4j
+public abstract class OutboxWorker<W> {
+
+    private final String name;
+    private final Semaphore slots;
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    protected OutboxWorker(String name, int workers) {
+        this.name = name;
+        this.slots = new Semaphore(workers);
+    }
+
+    /**
+     * Claims at most {@code free} units of work.
+     */
+    protected abstract List<W> claim(int free);
+
+    /**
+     * Runs one claimed unit; failures are recorded by the subclass.
+     *
+     * @return {@code true} if more work may be waiting
+     */
+    protected abstract boolean process(W unit);
+
+    /**
+     * Drains on another thread, so the caller (a request thread) is not held up.
+     */
+    protected void wakeUp() {
+        executor.execute(this::drain);
+    }
+
+    public void drain() {
+        if (!draining.compareAndSet(false, true)) {
+            return; // another thread is already claiming
+        }
+        try {
+            int free;
+            while ((free = slots.availablePermits()) > 0) {
+                List<W> units = claim(free);
+                if (units.isEmpty()) {
+                    return;
+                }
+                for (W unit : units) {
+                    slots.acquireUninterruptibly();
+                    executor.execute(() -> run(unit));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to claim {}: {}", name, e.getMessage());
+        } finally {
+            draining.set(false);
+        }
+    }
+
+    private void run(W unit) {
+        boolean more;
+        try {
+            more = process(unit);
+        } catch (RuntimeException e) {
+            log.error("Unhandled failure processing {}: {}", name, e.getMessage());
+            more = false;
+        } finally {
+            slots.release();
+        }
+        if (more) {
+            drain(); // pick up whatever queued while this unit held a slot
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
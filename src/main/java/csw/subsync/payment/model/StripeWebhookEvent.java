@@ -0,0 +1,75 @@
+package csw.subsync.payment.model;
+
+import csw.subsync.common.outbox.OutboxEntry;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+// 서명 검증을 통과한 Stripe 웹훅을 그대로 적재해두는 inbox: 컨트롤러는 적재 후 바로 200, 워커가 나중에 처리한다
+@Entity
+@Table(
+        name = "stripe_webhook_events",
+        indexes = {
+                @Index(name = "idx_stripe_webhook_events_status_available_at", columnList = "status, available_at")
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StripeWebhookEvent implements OutboxEntry {
+    // Stripe event id (evt_...): 같은 이벤트가 재전송되면 PK 충돌로 한 번만 적재된다
+    @Id
+    @Column(name = "event_id", length = 255)
+    private String eventId;
+
+    @Column(length = 100, nullable = false)
+    private String type;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private Status status;
+
+    private int attempts;
+
+    @Column(name = "available_at", nullable = false)
+    private Instant availableAt; // not picked up before this instant (retry backoff)
+
+    @Column(name = "locked_at")
+    private Instant lockedAt;
+
+    @Column(name = "received_at", nullable = false)
+    private Instant receivedAt;
+
+    @Column(name = "processed_at")
+    private Instant processedAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Override
+    public void markPending() {
+        status = Status.PENDING;
+    }
+
+    @Override
+    public void markRunning() {
+        status = Status.RUNNING;
+    }
+
+    @Override
+    public void markFailed() {
+        status = Status.FAILED;
+    }
+
+    public enum Status {
+        PENDING, RUNNING, DONE, FAILED
+    }
+}
@@ -0,0 +1,48 @@
+package csw.subsync.payment.repository;
+
+import csw.subsync.payment.model.StripeWebhookEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StripeWebhookEventRepository extends JpaRepository<StripeWebhookEvent, String> {
+
+    // 재전송된 이벤트는 무시 (0 이면 이미 받은 이벤트)
+    @Modifying
+    @Query(value = "INSERT INTO stripe_webhook_events " +
+            "(event_id, type, payload, status, attempts, available_at, received_at) " +
+            "VALUES (:eventId, :type, :payload, 'PENDING', 0, :now, :now) " +
+            "ON CONFLICT (event_id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("eventId") String eventId,
+                       @Param("type") String type,
+                       @Param("payload") String payload,
+                       @Param("now") Instant now);
+
+    // charge_jobs 와 같은 방식: 여러 워커가 동시에 가져가도 겹치지 않도록 SKIP LOCKED
+    @Query(value = "SELECT * FROM stripe_webhook_events " +
+            "WHERE (status = 'PENDING' AND available_at <= :now) " +
+            "   OR (status = 'RUNNING' AND locked_at < :staleBefore) " +
+            "ORDER BY available_at " +
+            "LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<StripeWebhookEvent> lockNextBatch(@Param("now") Instant now,
+                                           @Param("staleBefore") Instant staleBefore,
+                                           @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE StripeWebhookEvent e SET e.status = csw.subsync.payment.model.StripeWebhookEvent.Status.DONE, e.lockedAt = null, e.lastError = null, " +
+            "e.processedAt = :now WHERE e.eventId IN :eventIds")
+    int markDone(@Param("eventIds") Collection<String> eventIds, @Param("now") Instant now);
+
+    // 재전송 중복 제거는 Stripe 재시도 기간(3일)만 커버하면 된다
+    @Modifying
+    @Query("DELETE FROM StripeWebhookEvent e WHERE e.status = csw.subsync.payment.model.StripeWebhookEvent.Status.DONE AND e.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") Instant before);
+}
@@ -7,7 +7,6 @@ import com.stripe.model.SetupIntent;
 import csw.subsync.common.exception.PaymentException;
 import csw.subsync.subscription.model.Membership;
 import csw.subsync.subscription.model.SubscriptionGroup;
-import csw.subsync.subscription.repository.MembershipRepository;
 import csw.subsync.user.model.User;
 import csw.subsync.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -17,7 +16,6 @@ import org.springframework.stereotype.Service;
 import java.util.Currency;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
 
 @Slf4j
 @Service
@@ -26,7 +24,7 @@ public class PaymentService {
 
     private final StripeService stripeService;
     private final UserRepository userRepository;
-    private final MembershipRepository membershipRepository;
+    private final StripeCircuitBreaker circuitBreaker;
 
     private String fetchStripePaymentMethodId(User user) {
         // retrieve from user's payment info in the DB
@@ -48,16 +46,16 @@ public class PaymentService {
             userRepository.save(user);
         }
 
-        Map<String, Object> params = new HashMap<>();
-        params.put("customer", user.getStripeCustomerId());
-        params.put("usage", "off_session");
-        params.put("metadata", Map.of("user_id", user.getId()));
-
-
-        SetupIntent setupIntent = SetupIntent.create(params);
+        SetupIntent setupIntent = stripeService.createSetupIntent(user.getStripeCustomerId(), user.getId());
         return setupIntent.getClientSecret();
     }
 
+    /**
+     * Creates (and confirms) the PaymentIntent for one membership through {@link StripeCircuitBreaker}.
+     *
+     * @throws csw.subsync.common.exception.StripeUnavailableException when Stripe is unhealthy; the charge should be
+     *                                                                 retried later, the membership has not failed
+     */
     public PaymentIntent initiateSubscriptionPayment(Membership membership) throws StripeException {
         User user = membership.getUser();
         String customerId = user.getStripeCustomerId();
@@ -67,28 +65,23 @@ public class PaymentService {
 
         SubscriptionGroup group = membership.getSubscriptionGroup();
 
-        // Generate a unique order_id if it doesn't already exist
-        if (membership.getStripeOrderId() == null || membership.getStripeOrderId().isBlank()) {
-            String newOrderId = UUID.randomUUID().toString();
-            membership.setStripeOrderId(newOrderId);
-            membershipRepository.save(membership);
-        }
-
         Map<String, String> metadata = new HashMap<>();
         metadata.put("membership_id", membership.getId().toString());
         metadata.put("group_id", group.getId().toString());
-        metadata.put("order_id", membership.getStripeOrderId()); // Use the persisted order ID
+        metadata.put("order_id", membership.getStripeOrderId().toString()); // assigned on insert, NOT NULL
 
-        return stripeService.createPaymentIntent(
-                calculateAmount(group),
+        // 재시도해도 metadata(order_id) 가 같으니 idempotency key 도 같다
+        int amount = calculateAmount(group);
+        return circuitBreaker.execute("payment_intents.create", () -> stripeService.createPaymentIntent(
+                amount,
                 "JPY",
                 user.getStripeCustomerId(),
                 user.getPaymentMethodId(),
                 metadata
-        );
+        ));
     }
 
-    private int calculateAmount(SubscriptionGroup group) {
+    int calculateAmount(SubscriptionGroup group) { // package-private for benchmarks
         int amount = switch (group.getPricingModel()) {
             case FIXED -> group.getPriceAmount();
             case PER_MEMBER -> group.getPriceAmount() * group.getMemberships().size();
@@ -0,0 +1,293 @@
+package csw.subsync.payment.service;
+
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.ApiException;
+import com.stripe.exception.IdempotencyException;
+import com.stripe.exception.RateLimitException;
+import com.stripe.exception.StripeException;
+import csw.subsync.common.exception.StripeCallRejectedException;
+import csw.subsync.common.exception.StripeUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Circuit breaker and retry policy for Stripe calls made in bulk (charge runs).
+ * <p>
+ * The breaker looks at the last {@code window-size} calls. Once at least {@code min-calls} are recorded, it opens
+ * when the share of transient failures reaches {@code failure-rate-threshold} or the share of calls slower than
+ * {@code slow-call-threshold} reaches {@code slow-call-rate-threshold}. While open, calls are refused without
+ * touching Stripe. After {@code open-duration} it lets {@code half-open-calls} probes through: all of them succeeding
+ * closes it, any failure opens it again.
+ * <p>
+ * Transient failures (connection errors, 5xx, 429, idempotency conflicts) are retried with exponential backoff and
+ * full jitter, up to {@code stripe.retry.max-attempts}, but only while the breaker is closed: during a brownout
+ * retries would only add load. The caller re-runs the same {@link StripeOperation}, so a
+ * PaymentIntent retry carries the same idempotency key. When the call still doesn't go through, {@link #execute}
+ * throws {@link StripeUnavailableException}, which means "try again later", not "payment failed". Card errors and
+ * other 4xx responses are passed through untouched and count as healthy calls.
+ * <p>
+ * Outcomes that say nothing about Stripe's health stay out of the window: a full gateway bulkhead
+ * ({@link StripeCallRejectedException}) is retried like a transient failure but left out of the window, and any other
+ * runtime exception (a bug on our side) is rethrown. Both hand back their half-open permit.
+ */
+@Slf4j
+@Component
+public class StripeCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int windowSize;
+    private final int minCalls;
+    private final double failureRateThreshold;
+    private final Duration slowCallThreshold;
+    private final double slowCallRateThreshold;
+    private final Duration openDuration;
+    private final int halfOpenCalls;
+
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    private final Clock clock;
+    private final Sleeper sleeper;
+
+    // 최근 windowSize 건의 결과 (ring buffer)
+    private final boolean[] failures;
+    private final boolean[] slowCalls;
+    private int recorded;
+    private int next;
+    private int failureCount;
+    private int slowCount;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    private final Counter retryCounter;
+    private final Counter rejectedCounter;
+
+    @Autowired
+    public StripeCircuitBreaker(@Value("${stripe.circuit-breaker.window-size:50}") int windowSize,
+                                @Value("${stripe.circuit-breaker.min-calls:20}") int minCalls,
+                                @Value("${stripe.circuit-breaker.failure-rate-threshold:0.5}") double failureRateThreshold,
+                                @Value("${stripe.circuit-breaker.slow-call-threshold:5s}") Duration slowCallThreshold,
+                                @Value("${stripe.circuit-breaker.slow-call-rate-threshold:0.8}") double slowCallRateThreshold,
+                                @Value("${stripe.circuit-breaker.open-duration:30s}") Duration openDuration,
+                                @Value("${stripe.circuit-breaker.half-open-calls:5}") int halfOpenCalls,
+                                @Value("${stripe.retry.max-attempts:3}") int maxAttempts,
+                                @Value("${stripe.retry.initial-backoff:200ms}") Duration initialBackoff,
+                                @Value("${stripe.retry.max-backoff:5s}") Duration maxBackoff,
+                                MeterRegistry meterRegistry) {
+        this(windowSize, minCalls, failureRateThreshold, slowCallThreshold, slowCallRateThreshold, openDuration,
+                halfOpenCalls, maxAttempts, initialBackoff, maxBackoff, meterRegistry, Clock.systemUTC(), Thread::sleep);
+    }
+
+    StripeCircuitBreaker(int windowSize, int minCalls, double failureRateThreshold, Duration slowCallThreshold,
+                         double slowCallRateThreshold, Duration openDuration, int halfOpenCalls, int maxAttempts,
+                         Duration initialBackoff, Duration maxBackoff, MeterRegistry meterRegistry,
+                         Clock clock, Sleeper sleeper) {
+        if (windowSize <= 0 || minCalls <= 0 || minCalls > windowSize || halfOpenCalls <= 0 || maxAttempts <= 0) {
+            throw new IllegalArgumentException("Circuit breaker window, min calls, half-open calls and retry attempts "
+                    + "must be positive, and min calls must fit in the window.");
+        }
+        this.windowSize = windowSize;
+        this.minCalls = minCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallThreshold = slowCallThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openDuration = openDuration;
+        this.halfOpenCalls = halfOpenCalls;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.clock = clock;
+        this.sleeper = sleeper;
+        this.failures = new boolean[windowSize];
+        this.slowCalls = new boolean[windowSize];
+
+        this.retryCounter = Counter.builder("subsync.stripe.retries")
+                .description("Stripe calls retried after a transient failure")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("subsync.stripe.circuit.rejected")
+                .description("Stripe calls refused because the circuit was open")
+                .register(meterRegistry);
+        Gauge.builder("subsync.stripe.circuit.state", this, breaker -> breaker.state().ordinal())
+                .description("0 = closed, 1 = open, 2 = half-open")
+                .register(meterRegistry);
+    }
+
+    public <T> T execute(String operation, StripeOperation<T> call) throws StripeException {
+        for (int attempt = 1; ; attempt++) {
+            if (!tryAcquirePermission()) {
+                rejectedCounter.increment();
+                throw new StripeUnavailableException("Stripe circuit is open, deferring " + operation);
+            }
+
+            long started = clock.millis();
+            try {
+                T result = call.run();
+                onResult(false, clock.millis() - started);
+                return result;
+            } catch (StripeException | StripeUnavailableException e) {
+                boolean transientFailure;
+                if (e instanceof StripeCallRejectedException) {
+                    releasePermission(); // 게이트웨이 bulkhead 가 거절: Stripe 는 호출되지 않았으니 창에 넣지 않는다
+                    transientFailure = true;
+                } else {
+                    transientFailure = isTransient(e);
+                    onResult(transientFailure, clock.millis() - started);
+                }
+                if (!transientFailure) {
+                    throw e;
+                }
+                if (attempt >= maxAttempts || state() != State.CLOSED) {
+                    throw new StripeUnavailableException(
+                            operation + " failed after " + attempt + " attempt(s): " + e.getMessage(), e);
+                }
+                retryCounter.increment();
+                log.debug("Retrying {} after transient failure (attempt {}): {}", operation, attempt, e.getMessage());
+                if (!pause(backoff(attempt))) {
+                    throw new StripeUnavailableException("Interrupted while retrying " + operation, e);
+                }
+            } catch (RuntimeException e) {
+                releasePermission(); // 우리 쪽 버그 (잘못된 인자 등): Stripe 상태와 무관, half-open 허가만 돌려준다
+                throw e;
+            }
+        }
+    }
+
+    public synchronized State state() {
+        if (state == State.OPEN && clock.millis() - openedAt >= openDuration.toMillis()) {
+            return State.HALF_OPEN; // 다음 호출에서 실제로 전환된다
+        }
+        return state;
+    }
+
+    static boolean isTransient(Exception e) {
+        return e instanceof ApiConnectionException
+                || e instanceof ApiException
+                || e instanceof RateLimitException
+                || e instanceof IdempotencyException;
+    }
+
+    // full jitter: [0, min(max, initial * 2^(attempt-1))]
+    Duration backoff(int attempt) {
+        long cap = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(attempt - 1, 20));
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(cap + 1));
+    }
+
+    private synchronized boolean tryAcquirePermission() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (clock.millis() - openedAt < openDuration.toMillis()) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                halfOpenPermits = halfOpenCalls;
+                halfOpenSuccesses = 0;
+                log.info("Stripe circuit half-open, probing with {} calls", halfOpenCalls);
+                // fall through
+            case HALF_OPEN:
+            default:
+                if (halfOpenPermits == 0) {
+                    return false;
+                }
+                halfOpenPermits--;
+                return true;
+        }
+    }
+
+    // 결과 없이 끝난 호출의 half-open 허가를 반납한다. 그 사이 새 half-open 회차가 시작됐어도 한도는 넘지 않는다
+    private synchronized void releasePermission() {
+        if (state == State.HALF_OPEN && halfOpenPermits + halfOpenSuccesses < halfOpenCalls) {
+            halfOpenPermits++;
+        }
+    }
+
+    private synchronized void onResult(boolean failure, long elapsedMillis) {
+        boolean slow = elapsedMillis >= slowCallThreshold.toMillis();
+        if (state == State.HALF_OPEN) {
+            if (failure || slow) {
+                open("probe " + (failure ? "failed" : "was slow"));
+            } else if (++halfOpenSuccesses >= halfOpenCalls) {
+                close();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            return; // 열리기 전에 시작한 호출
+        }
+
+        if (recorded == windowSize) {
+            failureCount -= failures[next] ? 1 : 0;
+            slowCount -= slowCalls[next] ? 1 : 0;
+        } else {
+            recorded++;
+        }
+        failures[next] = failure;
+        slowCalls[next] = slow;
+        failureCount += failure ? 1 : 0;
+        slowCount += slow ? 1 : 0;
+        next = (next + 1) % windowSize;
+
+        if (recorded < minCalls) {
+            return;
+        }
+        double failureRate = (double) failureCount / recorded;
+        double slowRate = (double) slowCount / recorded;
+        if (failureRate >= failureRateThreshold) {
+            open(String.format("failure rate %.0f%% over %d calls", failureRate * 100, recorded));
+        } else if (slowRate >= slowCallRateThreshold) {
+            open(String.format("slow call rate %.0f%% over %d calls", slowRate * 100, recorded));
+        }
+    }
+
+    private void open(String reason) {
+        state = State.OPEN;
+        openedAt = clock.millis();
+        log.warn("Stripe circuit opened for {}: {}", openDuration, reason);
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        recorded = 0;
+        next = 0;
+        failureCount = 0;
+        slowCount = 0;
+        log.info("Stripe circuit closed");
+    }
+
+    private boolean pause(Duration duration) {
+        try {
+            sleeper.sleep(duration.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @FunctionalInterface
+    public interface StripeOperation<T> {
+        T run() throws StripeException;
+    }
+
+    @FunctionalInterface
+    interface Sleeper {
+        void sleep(long millis) throws InterruptedException;
+    }
+}
@@ -0,0 +1,268 @@
+package csw.subsync.payment.service;
+
+import com.stripe.Stripe;
+import com.stripe.StripeClient;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.StripeException;
+import com.stripe.net.Authenticator;
+import com.stripe.net.BearerTokenAuthenticator;
+import com.stripe.net.LiveStripeResponseGetter;
+import com.stripe.net.StripeResponseGetterOptions;
+import csw.subsync.common.exception.StripeCallRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.PasswordAuthentication;
+import java.net.Proxy;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The only way out to the Stripe API.
+ * <p>
+ * Every call runs on a virtual thread through one shared {@link StripeClient}, whose transport
+ * ({@link StripeHttpClient}) pools keep-alive connections. Two limits keep a slow Stripe from spreading:
+ * <ul>
+ *     <li>a bulkhead of {@code stripe.client.max-concurrent-calls} in-flight calls per node. A caller that can't get
+ *     a slot within {@code stripe.client.acquire-timeout} fails with {@link StripeCallRejectedException} instead of
+ *     queueing;</li>
+ *     <li>{@code stripe.client.call-timeout} bounds a whole call, including the SDK's network retries. Each attempt
+ *     is bounded by {@code stripe.client.connect-timeout} / {@code read-timeout}.</li>
+ * </ul>
+ * Callers parked on a call are virtual threads themselves (request threads with {@code spring.threads.virtual},
+ * charge pipeline workers), so waiting here doesn't hold a platform thread.
+ */
+@Slf4j
+@Component
+public class StripeGateway implements DisposableBean {
+
+    private final StripeClient client;
+    private final Semaphore bulkhead;
+    private final Duration acquireTimeout;
+    private final Duration callTimeout;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final MeterRegistry meterRegistry;
+    private final Counter rejectedCounter;
+
+    @Autowired
+    public StripeGateway(@Value("${stripe.secret-key}") String secretKey,
+                         @Value("${stripe.client.api-base:" + Stripe.LIVE_API_BASE + "}") String apiBase,
+                         @Value("${stripe.client.connect-timeout:2s}") Duration connectTimeout,
+                         @Value("${stripe.client.read-timeout:10s}") Duration readTimeout,
+                         @Value("${stripe.client.max-network-retries:2}") int maxNetworkRetries,
+                         @Value("${stripe.client.call-timeout:30s}") Duration callTimeout,
+                         @Value("${stripe.client.max-concurrent-calls:64}") int maxConcurrentCalls,
+                         @Value("${stripe.client.acquire-timeout:500ms}") Duration acquireTimeout,
+                         MeterRegistry meterRegistry) {
+        this(buildClient(secretKey, apiBase, connectTimeout, readTimeout, maxNetworkRetries),
+                maxConcurrentCalls, acquireTimeout, callTimeout, meterRegistry);
+    }
+
+    StripeGateway(StripeClient client, int maxConcurrentCalls, Duration acquireTimeout, Duration callTimeout,
+                  MeterRegistry meterRegistry) {
+        if (maxConcurrentCalls <= 0) {
+            throw new IllegalArgumentException("Max concurrent Stripe calls must be positive.");
+        }
+        this.client = client;
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.acquireTimeout = acquireTimeout;
+        this.callTimeout = callTimeout;
+        this.meterRegistry = meterRegistry;
+
+        this.rejectedCounter = Counter.builder("subsync.stripe.rejected")
+                .description("Stripe calls rejected because the bulkhead was full")
+                .register(meterRegistry);
+        Gauge.builder("subsync.stripe.in_flight", bulkhead, b -> maxConcurrentCalls - b.availablePermits())
+                .description("Stripe calls currently in flight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param operation metric tag and log label, e.g. {@code payment_intents.create}
+     * @throws StripeCallRejectedException when no slot frees up within the acquire timeout
+     * @throws ApiConnectionException     when the call doesn't finish within the call timeout
+     */
+    public <T> T call(String operation, StripeCall<T> call) throws StripeException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        if (!acquire()) {
+            rejectedCounter.increment();
+            sample.stop(timer(operation, "rejected"));
+            throw new StripeCallRejectedException("Too many concurrent Stripe calls, rejected " + operation);
+        }
+
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                try {
+                    return call.execute(client);
+                } finally {
+                    bulkhead.release(); // 타임아웃으로 먼저 돌아가도 슬롯은 실제 호출이 끝날 때 반납
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            bulkhead.release();
+            sample.stop(timer(operation, "rejected"));
+            throw new StripeCallRejectedException("Stripe gateway is shutting down, rejected " + operation);
+        }
+
+        String outcome = "error";
+        try {
+            T result = future.get(callTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            outcome = "success";
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            outcome = "timeout";
+            throw new ApiConnectionException("Stripe " + operation + " did not complete within " + callTimeout, e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ApiConnectionException("Interrupted while waiting for Stripe " + operation, e);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } finally {
+            sample.stop(timer(operation, outcome));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private boolean acquire() {
+        try {
+            return bulkhead.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return Timer.builder("subsync.stripe.call")
+                .description("Time spent in Stripe API calls, including the wait for a bulkhead slot")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static StripeException unwrap(Throwable cause) {
+        if (cause instanceof StripeException stripeException) {
+            return stripeException;
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new ApiConnectionException("Stripe call failed: " + cause.getMessage(), cause);
+    }
+
+    static StripeClient buildClient(String secretKey, String apiBase, Duration connectTimeout, Duration readTimeout,
+                                    int maxNetworkRetries) {
+        GatewayOptions options = new GatewayOptions(new BearerTokenAuthenticator(secretKey), apiBase,
+                (int) connectTimeout.toMillis(), (int) readTimeout.toMillis(), maxNetworkRetries);
+        return new StripeClient(new LiveStripeResponseGetter(options,
+                new StripeHttpClient(connectTimeout, readTimeout)));
+    }
+
+    @FunctionalInterface
+    public interface StripeCall<T> {
+        T execute(StripeClient client) throws StripeException;
+    }
+
+    // StripeClient.builder() 로는 HttpClient 를 바꿀 수 없어서 옵션을 직접 구성한다
+    private static final class GatewayOptions extends StripeResponseGetterOptions {
+        private final Authenticator authenticator;
+        private final String apiBase;
+        private final int connectTimeout;
+        private final int readTimeout;
+        private final int maxNetworkRetries;
+
+        private GatewayOptions(Authenticator authenticator, String apiBase, int connectTimeout, int readTimeout,
+                               int maxNetworkRetries) {
+            this.authenticator = authenticator;
+            this.apiBase = apiBase;
+            this.connectTimeout = connectTimeout;
+            this.readTimeout = readTimeout;
+            this.maxNetworkRetries = maxNetworkRetries;
+        }
+
+        @Override
+        public Authenticator getAuthenticator() {
+            return authenticator;
+        }
+
+        @Override
+        public String getClientId() {
+            return null;
+        }
+
+        @Override
+        public int getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        @Override
+        public Proxy getConnectionProxy() {
+            return null;
+        }
+
+        @Override
+        public int getMaxNetworkRetries() {
+            return maxNetworkRetries;
+        }
+
+        @Override
+        public PasswordAuthentication getProxyCredential() {
+            return null;
+        }
+
+        @Override
+        public String getApiBase() {
+            return apiBase;
+        }
+
+        @Override
+        public String getFilesBase() {
+            return Stripe.UPLOAD_API_BASE;
+        }
+
+        @Override
+        public String getConnectBase() {
+            return Stripe.CONNECT_API_BASE;
+        }
+
+        @Override
+        public String getMeterEventsBase() {
+            return Stripe.METER_EVENTS_API_BASE;
+        }
+
+        @Override
+        public int getReadTimeout() {
+            return readTimeout;
+        }
+
+        @Override
+        public String getStripeContext() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package csw.subsync.payment.service;
+
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.StripeException;
+import com.stripe.net.HttpContent;
+import com.stripe.net.HttpHeaders;
+import com.stripe.net.StripeRequest;
+import com.stripe.net.StripeResponse;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * Stripe SDK transport on top of the JDK {@link HttpClient}.
+ * <p>
+ * The SDK's default client opens an {@code HttpURLConnection} per request. The JDK client is shared by every call on
+ * the node and keeps its connections alive between requests (one multiplexed connection when the server speaks
+ * HTTP/2, a keep-alive pool otherwise), so a charge run doesn't pay a TLS handshake per member.
+ * <p>
+ * The connect timeout is fixed per client; the read timeout comes from the request options and applies per attempt.
+ */
+class StripeHttpClient extends com.stripe.net.HttpClient {
+
+    private final HttpClient client;
+    private final Duration defaultReadTimeout;
+
+    StripeHttpClient(Duration connectTimeout, Duration defaultReadTimeout) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.defaultReadTimeout = defaultReadTimeout;
+    }
+
+    @Override
+    public StripeResponse request(StripeRequest request) throws StripeException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .timeout(readTimeout(request))
+                .header("User-Agent", buildUserAgentString(request))
+                .header("X-Stripe-Client-User-Agent", buildXStripeClientUserAgentString());
+        try {
+            builder.uri(request.url().toURI());
+        } catch (URISyntaxException e) {
+            throw new ApiConnectionException("Invalid Stripe request URL: " + request.url(), e);
+        }
+        request.headers().map().forEach((name, values) -> values.forEach(value -> builder.header(name, value)));
+
+        HttpContent content = request.content();
+        if (content == null) {
+            builder.method(request.method().name(), HttpRequest.BodyPublishers.noBody());
+        } else {
+            builder.header("Content-Type", content.contentType());
+            builder.method(request.method().name(), HttpRequest.BodyPublishers.ofByteArray(content.byteArrayContent()));
+        }
+
+        try {
+            HttpResponse<String> response = client.send(builder.build(),
+                    HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            return new StripeResponse(response.statusCode(), HttpHeaders.of(response.headers().map()), response.body());
+        } catch (IOException e) {
+            // SDK 는 ApiConnectionException 만 network retry 대상으로 본다
+            throw new ApiConnectionException(String.format(
+                    "IOException during API request to Stripe (%s): %s", request.url().getHost(), e.getMessage()), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiConnectionException("Interrupted during API request to Stripe", e);
+        }
+    }
+
+    private Duration readTimeout(StripeRequest request) {
+        Integer millis = request.options() == null ? null : request.options().getReadTimeout();
+        return millis == null || millis <= 0 ? defaultReadTimeout : Duration.ofMillis(millis);
+    }
+}
@@ -1,38 +1,50 @@
 package csw.subsync.payment.service;
 
-import com.stripe.Stripe;
 import com.stripe.exception.StripeException;
 import com.stripe.model.Customer;
 import com.stripe.model.Event;
 import com.stripe.model.PaymentIntent;
+import com.stripe.model.SetupIntent;
+import com.stripe.model.StripeObject;
+import com.stripe.net.ApiResource;
 import com.stripe.net.RequestOptions;
 import com.stripe.net.Webhook;
-import jakarta.annotation.PostConstruct;
-import org.springframework.beans.factory.annotation.Value;
+import com.stripe.param.CustomerCreateParams;
+import com.stripe.param.CustomerUpdateParams;
+import com.stripe.param.PaymentIntentCreateParams;
+import com.stripe.param.SetupIntentCreateParams;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Stripe API calls used by the app. All of them go through {@link StripeGateway}, so they share its connection pool,
+ * timeouts and bulkhead; nothing here touches the SDK's static {@code Stripe.apiKey} client.
+ */
 @Service
+@RequiredArgsConstructor
 public class StripeService {
 
-    @Value("${stripe.secret-key}")
-    private String secretKey;
+    private final StripeGateway gateway;
 
-    @PostConstruct
-    public void init() {
-        // Initialize Stripe with our secret key
-        Stripe.apiKey = secretKey;
+    public Customer createCustomer(String email) throws StripeException {
+        CustomerCreateParams params = CustomerCreateParams.builder()
+                .setEmail(email)
+                .build();
+        return gateway.call("customers.create", client -> client.customers().create(params));
     }
 
-    public Customer createCustomer(String email) throws StripeException {
-        Map<String, Object> params = new HashMap<>();
-        params.put("email", email);
-        return Customer.create(params);
+    public SetupIntent createSetupIntent(String customerId, Long userId) throws StripeException {
+        SetupIntentCreateParams params = SetupIntentCreateParams.builder()
+                .setCustomer(customerId)
+                .setUsage(SetupIntentCreateParams.Usage.OFF_SESSION)
+                .putMetadata("user_id", String.valueOf(userId))
+                .build();
+        return gateway.call("setup_intents.create", client -> client.setupIntents().create(params));
     }
 
     /**
@@ -41,40 +53,47 @@ public class StripeService {
      */
     public PaymentIntent createPaymentIntent(long amount, String currency, String customerId,
                                              String paymentMethodId, Map<String, String> metadata) throws StripeException {
-        Map<String, Object> params = new HashMap<>();
-        params.put("amount", amount);
-        params.put("currency", currency.toLowerCase());
-        params.put("customer", customerId);
-        params.put("payment_method", paymentMethodId);
-        params.put("confirm", true);
-        params.put("metadata", metadata);
-        params.put("automatic_payment_methods", Map.of(
-                "enabled", true,
-                "allow_redirects", "never"
-        ));
+        PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
+                .setAmount(amount)
+                .setCurrency(currency.toLowerCase())
+                .setCustomer(customerId)
+                .setPaymentMethod(paymentMethodId)
+                .setConfirm(true)
+                .putAllMetadata(metadata)
+                .setAutomaticPaymentMethods(PaymentIntentCreateParams.AutomaticPaymentMethods.builder()
+                        .setEnabled(true)
+                        .setAllowRedirects(PaymentIntentCreateParams.AutomaticPaymentMethods.AllowRedirects.NEVER)
+                        .build())
+                .build();
 
         // Use a unique idempotency key
         RequestOptions requestOptions = RequestOptions.builder()
                 .setIdempotencyKey(generateUniqueKeyForPaymentIntent(metadata))
                 .build();
 
-        return PaymentIntent.create(params, requestOptions);
+        return gateway.call("payment_intents.create",
+                client -> client.paymentIntents().create(params, requestOptions));
     }
 
     public void setDefaultPaymentMethod(String customerId, String paymentMethodId)
             throws StripeException {
-        Map<String, Object> params = new HashMap<>();
-        params.put("invoice_settings", Map.of(
-                "default_payment_method", paymentMethodId
-        ));
-        Customer customer = Customer.retrieve(customerId);
-        customer.update(params);
+        CustomerUpdateParams params = CustomerUpdateParams.builder()
+                .setInvoiceSettings(CustomerUpdateParams.InvoiceSettings.builder()
+                        .setDefaultPaymentMethod(paymentMethodId)
+                        .build())
+                .build();
+        gateway.call("customers.update", client -> client.customers().update(customerId, params));
     }
 
     public Event constructWebhookEvent(String payload, String sigHeader, String webhookSecret) throws StripeException {
         return Webhook.constructEvent(payload, sigHeader, webhookSecret);
     }
 
+    // inbox 에 적재된(이미 서명 검증된) payload 를 다시 Event 로 (Webhook.constructEvent 와 같은 역직렬화)
+    public Event parseEvent(String payload) {
+        return StripeObject.deserializeStripeObject(payload, Event.class, ApiResource.getGlobalResponseGetter());
+    }
+
     /**
      * Generates a secure idempotency key for PaymentIntent operations.
      *
@@ -101,7 +120,7 @@ public class StripeService {
         return sha256Hex(rawKey);
     }
 
-    private String sha256Hex(String input) {
+    static String sha256Hex(String input) { // package-private for benchmarks
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
             byte[] hash = digest.digest(input.getBytes(StandardCharsets.UTF_8));
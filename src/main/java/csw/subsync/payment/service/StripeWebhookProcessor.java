@@ -0,0 +1,132 @@
+package csw.subsync.payment.service;
+
+import com.stripe.exception.StripeException;
+import com.stripe.model.Event;
+import com.stripe.model.PaymentIntent;
+import com.stripe.model.SetupIntent;
+import csw.subsync.payment.model.StripeWebhookEvent;
+import csw.subsync.subscription.model.Membership;
+import csw.subsync.subscription.repository.MembershipBatchRepository.PaymentResult;
+import csw.subsync.subscription.service.MembershipService;
+import csw.subsync.user.model.User;
+import csw.subsync.user.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Applies a batch of inbox events.
+ * <p>
+ * Payment intent events are grouped by membership and only the newest one per membership (by Stripe's
+ * {@code created}) is applied; the older ones in the batch are superseded and simply marked done. The surviving
+ * results for the whole batch are then written with {@link MembershipService#applyPaymentResults} in JDBC batches,
+ * so a burst after a large group charge costs a few round trips instead of one transaction per event. Across
+ * batches the same rule holds in the database: the membership keeps the {@code created} of the last event applied
+ * and an older one is not written.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StripeWebhookProcessor {
+
+    public static final String PAYMENT_SUCCEEDED = "payment_intent.succeeded";
+    public static final String PAYMENT_FAILED = "payment_intent.payment_failed";
+    public static final String SETUP_SUCCEEDED = "setup_intent.succeeded";
+
+    // 이 외의 타입은 inbox 에 넣지 않는다
+    public static final Set<String> HANDLED_TYPES = Set.of(PAYMENT_SUCCEEDED, PAYMENT_FAILED, SETUP_SUCCEEDED);
+
+    private final StripeService stripeService;
+    private final MembershipService membershipService;
+    private final UserRepository userRepository;
+
+    public BatchResult process(List<StripeWebhookEvent> batch) {
+        List<String> done = new ArrayList<>();
+        Map<String, String> failed = new LinkedHashMap<>();
+        Map<Long, List<Event>> paymentsByMembership = new LinkedHashMap<>();
+
+        for (StripeWebhookEvent stored : batch) {
+            try {
+                Event event = stripeService.parseEvent(stored.getPayload());
+                switch (event.getType()) {
+                    case PAYMENT_SUCCEEDED, PAYMENT_FAILED -> paymentsByMembership
+                            .computeIfAbsent(membershipId(event), id -> new ArrayList<>())
+                            .add(event);
+                    case SETUP_SUCCEEDED -> {
+                        handleSetupIntentSuccess(event);
+                        done.add(event.getId());
+                    }
+                    default -> done.add(event.getId()); // 예전에 적재된 타입: 할 일 없음
+                }
+            } catch (StripeException | RuntimeException e) {
+                failed.put(stored.getEventId(), e.getMessage());
+            }
+        }
+
+        List<PaymentResult> results = new ArrayList<>(paymentsByMembership.size());
+        List<Event> applied = new ArrayList<>(paymentsByMembership.size());
+        paymentsByMembership.forEach((membershipId, events) -> {
+            Event latest = Collections.max(events, Comparator.comparing(Event::getCreated));
+            events.stream().filter(other -> other != latest).forEach(other -> done.add(other.getId()));
+            results.add(toResult(membershipId, latest));
+            applied.add(latest);
+        });
+        try {
+            List<Long> skipped = membershipService.applyPaymentResults(results);
+            if (!skipped.isEmpty()) {
+                log.info("Payment events for memberships {} ignored (unknown, or a newer event was applied)", skipped);
+            }
+            applied.forEach(e -> done.add(e.getId()));
+        } catch (RuntimeException e) {
+            applied.forEach(event -> failed.put(event.getId(), e.getMessage()));
+        }
+
+        return new BatchResult(done, failed);
+    }
+
+    private static PaymentResult toResult(Long membershipId, Event event) {
+        PaymentIntent intent = (PaymentIntent) event.getData().getObject();
+        Instant created = Instant.ofEpochSecond(event.getCreated());
+        if (PAYMENT_SUCCEEDED.equals(event.getType())) {
+            return new PaymentResult(membershipId, Membership.PaymentStatus.SUCCEEDED, intent.getId(), created);
+        }
+        log.warn("Payment failed for membership {}: {}", membershipId,
+                intent.getLastPaymentError() != null ? intent.getLastPaymentError().getMessage() : null);
+        return new PaymentResult(membershipId, Membership.PaymentStatus.FAILED, intent.getId(), created);
+    }
+
+    private static Long membershipId(Event event) {
+        PaymentIntent intent = (PaymentIntent) event.getData().getObject();
+        return Long.parseLong(intent.getMetadata().get("membership_id"));
+    }
+
+    private void handleSetupIntentSuccess(Event event) throws StripeException {
+        SetupIntent setupIntent = (SetupIntent) event.getData().getObject();
+        String userId = setupIntent.getMetadata().get("user_id");
+
+        User user = userRepository.findById(Long.parseLong(userId))
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        // Verify the payment method is attached to our customer
+        if (setupIntent.getCustomer() == null ||
+                !setupIntent.getCustomer().equals(user.getStripeCustomerId())) {
+            log.warn("Invalid customer for setup intent: {}", setupIntent.getId());
+            return;
+        }
+
+        // Set as default payment method
+        stripeService.setDefaultPaymentMethod(
+                user.getStripeCustomerId(),
+                setupIntent.getPaymentMethod()
+        );
+
+        user.setPaymentMethodId(setupIntent.getPaymentMethod());
+        userRepository.save(user);
+    }
+
+    public record BatchResult(List<String> doneEventIds, Map<String, String> failedEventIds) {
+    }
+}
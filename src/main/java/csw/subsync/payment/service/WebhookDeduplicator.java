@@ -0,0 +1,93 @@
+package csw.subsync.payment.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Drops redelivered Stripe events before they reach the database.
+ * <p>
+ * Checks a bounded in-memory LRU first, then a Redis marker ({@code stripe:event:{id}}) shared by all nodes.
+ * The marker is only written once the event is safely in the inbox ({@link #remember}), never before: a claim
+ * taken ahead of a failed insert would make Stripe's retry look like a duplicate and lose the event. Two
+ * concurrent deliveries can therefore both get through here; the inbox primary key catches that.
+ * <p>
+ * Counters: {@code subsync.webhook.dedup{result=local_hit|redis_hit|miss}}.
+ */
+@Slf4j
+@Component
+public class WebhookDeduplicator {
+
+    static final String KEY_PREFIX = "stripe:event:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+    private final Cache<String, Boolean> recent;
+
+    private final Counter localHits;
+    private final Counter redisHits;
+    private final Counter misses;
+
+    public WebhookDeduplicator(StringRedisTemplate redisTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${application.webhook.dedup.ttl:3d}") Duration ttl,
+                               @Value("${application.webhook.dedup.local-size:100000}") int localSize) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(localSize)
+                .expireAfterWrite(ttl)
+                .build();
+
+        this.localHits = counter(meterRegistry, "local_hit");
+        this.redisHits = counter(meterRegistry, "redis_hit");
+        this.misses = counter(meterRegistry, "miss");
+    }
+
+    /**
+     * @return {@code true} if the event was already accepted by this or another node
+     */
+    public boolean seen(String eventId) {
+        if (recent.getIfPresent(eventId) != null) {
+            localHits.increment();
+            return true;
+        }
+        try {
+            if (Boolean.TRUE.equals(redisTemplate.hasKey(KEY_PREFIX + eventId))) {
+                recent.put(eventId, Boolean.TRUE);
+                redisHits.increment();
+                return true;
+            }
+        } catch (RuntimeException e) {
+            log.debug("Redis unavailable for webhook dedup, relying on the inbox: {}", e.getMessage());
+        }
+        misses.increment();
+        return false;
+    }
+
+    /**
+     * Call after the event has been committed to the inbox.
+     */
+    public void remember(String eventId) {
+        recent.put(eventId, Boolean.TRUE);
+        try {
+            redisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + eventId, "1", ttl);
+        } catch (RuntimeException e) {
+            log.debug("Could not record Stripe event {} in Redis: {}", eventId, e.getMessage());
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("subsync.webhook.dedup")
+                .description("Stripe webhook deliveries checked against the dedup store")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
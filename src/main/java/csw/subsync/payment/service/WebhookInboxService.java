@@ -0,0 +1,89 @@
+package csw.subsync.payment.service;
+
+import csw.subsync.common.outbox.OutboxPolicy;
+import csw.subsync.payment.model.StripeWebhookEvent;
+import csw.subsync.payment.repository.StripeWebhookEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Durable inbox of verified Stripe webhook events, stored in {@code stripe_webhook_events}.
+ * <p>
+ * The webhook endpoint only {@link #append appends} and acknowledges; {@code StripeWebhookWorker} claims batches
+ * with {@code FOR UPDATE SKIP LOCKED} and applies them. The Stripe event id is the primary key, so a redelivered
+ * event is dropped at insert time.
+ */
+@Slf4j
+@Service
+public class WebhookInboxService {
+
+    private final StripeWebhookEventRepository eventRepo;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final OutboxPolicy policy;
+    private final Duration retention;
+
+    public WebhookInboxService(StripeWebhookEventRepository eventRepo,
+                               ApplicationEventPublisher eventPublisher,
+                               @Value("${application.webhook.max-attempts:8}") int maxAttempts,
+                               @Value("${application.webhook.lease:5m}") Duration lease,
+                               @Value("${application.webhook.retention:7d}") Duration retention) {
+        this.eventRepo = eventRepo;
+        this.eventPublisher = eventPublisher;
+        this.policy = new OutboxPolicy(maxAttempts, lease, Duration.ofSeconds(10)); // 10s, 20s, 40s ...
+        this.retention = retention;
+    }
+
+    /**
+     * @return {@code false} if the event was already received
+     */
+    @Transactional
+    public boolean append(String eventId, String type, String payload) {
+        if (eventRepo.insertIfAbsent(eventId, type, payload, Instant.now()) == 0) {
+            log.debug("Stripe event {} already received", eventId);
+            return false;
+        }
+        // 커밋 이후에 워커를 깨운다 (StripeWebhookWorker 의 @TransactionalEventListener)
+        eventPublisher.publishEvent(new EventReceived(eventId));
+        return true;
+    }
+
+    @Transactional
+    public List<StripeWebhookEvent> claim(int limit) {
+        Instant now = Instant.now();
+        return policy.claimed(eventRepo.lockNextBatch(now, policy.staleBefore(now), limit), now);
+    }
+
+    @Transactional
+    public void complete(Collection<String> eventIds) {
+        if (!eventIds.isEmpty()) {
+            eventRepo.markDone(eventIds, Instant.now());
+        }
+    }
+
+    @Transactional
+    public void fail(String eventId, String error) {
+        eventRepo.findById(eventId).ifPresent(event -> {
+            if (policy.fail(event, error, Instant.now())) {
+                log.error("Stripe event {} ({}) gave up after {} attempts: {}",
+                        eventId, event.getType(), event.getAttempts(), error);
+            }
+        });
+    }
+
+    @Transactional
+    public int purgeProcessed() {
+        return eventRepo.deleteProcessedBefore(Instant.now().minus(retention));
+    }
+
+    public record EventReceived(String eventId) {
+    }
+}
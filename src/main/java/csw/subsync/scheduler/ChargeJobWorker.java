@@ -0,0 +1,92 @@
+package csw.subsync.scheduler;
+
+import csw.subsync.common.outbox.OutboxWorker;
+import csw.subsync.subscription.model.ChargeJob;
+import csw.subsync.subscription.service.ChargeQueueService;
+import csw.subsync.subscription.service.MembershipChargePipeline;
+import csw.subsync.subscription.service.SubscriptionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Drains the charge job queue with a fixed number of concurrent charge runs, one job per slot.
+ * <p>
+ * Jobs are picked up right after the enqueuing transaction commits, and by a periodic poll that covers
+ * retries, jobs from other nodes and anything missed while the app was down. While a run is in progress its lease is
+ * renewed every {@code heartbeat}, so only jobs of a dead node are reclaimed.
+ */
+@Slf4j
+@Component
+public class ChargeJobWorker extends OutboxWorker<ChargeJob> {
+    private final ChargeQueueService chargeQueue;
+    private final SubscriptionService subscriptionService;
+
+    private final Set<Long> running = ConcurrentHashMap.newKeySet(); // jobs whose lease this node renews
+
+    public ChargeJobWorker(ChargeQueueService chargeQueue,
+                           SubscriptionService subscriptionService,
+                           @Value("${application.charge.queue.workers:4}") int workers) {
+        super("charge jobs", workers);
+        this.chargeQueue = chargeQueue;
+        this.subscriptionService = subscriptionService;
+    }
+
+    @Scheduled(fixedDelayString = "${application.charge.queue.poll-interval:1s}")
+    public void poll() {
+        drain();
+    }
+
+    @Scheduled(fixedDelayString = "${application.charge.queue.heartbeat:1m}")
+    public void renewLeases() {
+        try {
+            chargeQueue.renewLeases(Set.copyOf(running));
+        } catch (RuntimeException e) {
+            log.warn("Failed to renew charge job leases: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener
+    public void onEnqueued(ChargeQueueService.JobEnqueued event) {
+        // 가입 요청 스레드를 붙잡지 않도록 바로 넘긴다
+        wakeUp();
+    }
+
+    @Override
+    protected List<ChargeJob> claim(int free) {
+        return chargeQueue.claim(free);
+    }
+
+    @Override
+    protected boolean process(ChargeJob job) {
+        running.add(job.getId());
+        try {
+            MembershipChargePipeline.ChargeReport report =
+                    subscriptionService.chargeMembers(job.getGroupId(), job.getDeferredMemberIds());
+            if (report.deferredCount() > 0) {
+                // Stripe 장애: 실패 처리하지 않고 남은 멤버만 나중에 다시
+                chargeQueue.defer(job.getId(), report.deferredIds(),
+                        report.deferredCount() + " member(s) deferred, Stripe unavailable");
+                log.info("Charge job {} for group {} deferred {} member(s)",
+                        job.getId(), job.getGroupId(), report.deferredCount());
+            } else {
+                chargeQueue.complete(job.getId());
+            }
+            log.debug("Charge job {} done: {} processing, {} failed, {} deferred", job.getId(),
+                    report.processingCount(), report.failedCount(), report.deferredCount());
+        } catch (RuntimeException e) {
+            log.warn("Charge job {} for group {} failed (attempt {}): {}",
+                    job.getId(), job.getGroupId(), job.getAttempts(), e.getMessage());
+            chargeQueue.fail(job.getId(), e.getMessage());
+        } finally {
+            running.remove(job.getId());
+        }
+        return true;
+    }
+}
@@ -0,0 +1,94 @@
+package csw.subsync.scheduler;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Runs a scheduled job once across the cluster, split into shards that replicas work on in parallel.
+ * <p>
+ * Each shard is guarded by a Postgres session advisory lock keyed by (job name, shard index). A node walks all
+ * shards starting at a random offset and skips any shard another node holds, so N replicas finish the nightly
+ * batch roughly N times faster instead of running it N times. The lock lives on a dedicated connection and goes
+ * away with it, so a crashed node never leaves a stale lease behind. The jobs themselves are idempotent
+ * (they only touch rows still matching their predicate), so no fencing token is needed.
+ */
+@Slf4j
+@Component
+public class ClusterJobLock {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int shardCount;
+
+    public ClusterJobLock(JdbcTemplate jdbcTemplate,
+                          @Value("${application.scheduler.shards:8}") int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive.");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardCount = shardCount;
+    }
+
+    /**
+     * @return number of shards this node processed
+     */
+    public int forEachShard(String jobName, Consumer<Shard> work) {
+        int jobKey = jobName.hashCode();
+        int offset = ThreadLocalRandom.current().nextInt(shardCount);
+        int processed = 0;
+        for (int i = 0; i < shardCount; i++) {
+            Shard shard = new Shard((offset + i) % shardCount, shardCount);
+            if (runLocked(jobKey, shard, work)) {
+                processed++;
+            } else {
+                log.debug("{} shard {} is held by another node", jobName, shard.index());
+            }
+        }
+        log.info("{}: processed {} of {} shards on this node", jobName, processed, shardCount);
+        return processed;
+    }
+
+    private boolean runLocked(int jobKey, Shard shard, Consumer<Shard> work) {
+        // 작업 자체는 별도 커넥션(청크 트랜잭션)에서 돌고, 이 커넥션은 락만 붙잡고 있는다
+        Boolean ran = jdbcTemplate.execute((ConnectionCallback<Boolean>) con -> {
+            if (!advisory(con, "SELECT pg_try_advisory_lock(?, ?)", jobKey, shard.index())) {
+                return false;
+            }
+            try {
+                work.accept(shard);
+                return true;
+            } finally {
+                if (!advisory(con, "SELECT pg_advisory_unlock(?, ?)", jobKey, shard.index())) {
+                    log.warn("Advisory lock ({}, {}) was not held at unlock", jobKey, shard.index());
+                }
+            }
+        });
+        return Boolean.TRUE.equals(ran);
+    }
+
+    private static boolean advisory(Connection con, String sql, int jobKey, int shard) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setInt(1, jobKey);
+            ps.setInt(2, shard);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    /**
+     * Rows with {@code id % count = index} belong to this shard.
+     */
+    public record Shard(int index, int count) {
+        public static final Shard ALL = new Shard(0, 1);
+    }
+}
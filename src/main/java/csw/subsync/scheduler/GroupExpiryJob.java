@@ -0,0 +1,161 @@
+package csw.subsync.scheduler;
+
+import csw.subsync.subscription.cache.GroupSummaryCache;
+import csw.subsync.subscription.repository.SubscriptionGroupBatchRepository;
+import csw.subsync.subscription.service.GroupExpiryQueue;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Deactivates expired groups.
+ * <p>
+ * {@link #expireDue(Instant)} is the normal path: it drains {@link GroupExpiryQueue} in small batches every few
+ * seconds, so a group goes inactive shortly after its end date instead of at the next nightly scan.
+ * <p>
+ * {@link #run(LocalDate, ClusterJobLock.Shard)} is the reconciliation sweep for anything the queue missed (Redis
+ * outage, groups created before the queue existed). It works in keyset-ordered chunks, one short transaction per
+ * chunk. Rows another transaction holds a lock on are skipped ({@code SKIP LOCKED}) rather than waited for, so
+ * the sweep keeps going until a chunk comes back empty and then makes one more pass from the start for whatever it
+ * skipped; only rows that are still due match, so that pass is cheap.
+ * Progress lives in the rows themselves: a committed chunk is {@code active = false} and drops out of the
+ * predicate, so a run that dies halfway is finished by the next one. Cache entries are evicted after each
+ * commit with one {@code UNLINK}; if the process dies in between, those entries age out with the cache TTL.
+ */
+@Slf4j
+@Component
+public class GroupExpiryJob {
+
+    private final SubscriptionGroupBatchRepository subscriptionGroupBatchRepo;
+    private final GroupSummaryCache groupSummaryCache;
+    private final GroupExpiryQueue groupExpiryQueue;
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+    private final int queueBatchSize;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private final Timer runTimer;
+    private final Counter expiredCounter;
+    private final Timer lagTimer;
+
+    public GroupExpiryJob(SubscriptionGroupBatchRepository subscriptionGroupBatchRepo,
+                          GroupSummaryCache groupSummaryCache,
+                          GroupExpiryQueue groupExpiryQueue,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${application.subscription.expiry.chunk-size:500}") int chunkSize,
+                          @Value("${application.subscription.expiry.queue-batch-size:100}") int queueBatchSize) {
+        if (chunkSize <= 0 || queueBatchSize <= 0) {
+            throw new IllegalArgumentException("Expiry chunk and batch sizes must be positive.");
+        }
+        this.subscriptionGroupBatchRepo = subscriptionGroupBatchRepo;
+        this.groupSummaryCache = groupSummaryCache;
+        this.groupExpiryQueue = groupExpiryQueue;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.queueBatchSize = queueBatchSize;
+
+        this.runTimer = Timer.builder("subsync.expiry.run")
+                .description("Time taken to deactivate every expired group")
+                .register(meterRegistry);
+        this.expiredCounter = Counter.builder("subsync.expiry.groups")
+                .description("Groups deactivated because their end date passed")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("subsync.expiry.lag")
+                .description("Delay between a queued group's expiry instant and its deactivation")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Pops due groups off the expiry queue and deactivates them, one transaction per batch.
+     *
+     * @return number of groups deactivated
+     */
+    public int expireDue(Instant now) {
+        LocalDate today = LocalDate.ofInstant(now, zone);
+        int expired = 0;
+        while (true) {
+            List<GroupExpiryQueue.DueGroup> due;
+            try {
+                due = groupExpiryQueue.popDue(now, queueBatchSize);
+            } catch (RuntimeException e) {
+                log.debug("Expiry queue unavailable, leaving it to the sweep: {}", e.getMessage());
+                break;
+            }
+            if (due.isEmpty()) {
+                break;
+            }
+
+            List<Long> ids = due.stream().map(GroupExpiryQueue.DueGroup::groupId).toList();
+            List<Long> deactivated;
+            try {
+                deactivated = chunkTransaction.execute(status -> subscriptionGroupBatchRepo.expireByIds(ids, today));
+            } catch (RuntimeException e) {
+                groupExpiryQueue.requeue(due); // 다음 폴링에서 다시 시도
+                throw e;
+            }
+            if (deactivated != null && !deactivated.isEmpty()) {
+                expired += deactivated.size();
+                expiredCounter.increment(deactivated.size());
+                groupSummaryCache.invalidateAll(deactivated);
+            }
+            Instant done = Instant.now();
+            due.forEach(d -> lagTimer.record(Duration.between(d.expiresAt(), done)));
+            if (due.size() < queueBatchSize) {
+                break;
+            }
+        }
+        if (expired > 0) {
+            log.info("Expired {} groups from the expiry queue", expired);
+        }
+        return expired;
+    }
+
+    public ExpiryReport run(LocalDate today, ClusterJobLock.Shard shard) {
+        long started = System.nanoTime();
+        long afterId = 0;
+        boolean rescanned = false;
+        int chunks = 0;
+        int expired = 0;
+        while (true) {
+            long cursor = afterId;
+            List<Long> ids = chunkTransaction.execute(
+                    status -> subscriptionGroupBatchRepo.expireChunk(today, shard.index(), shard.count(), cursor, chunkSize));
+            if (ids == null || ids.isEmpty()) {
+                if (afterId == 0 || rescanned) {
+                    break;
+                }
+                // 잠겨 있어서 건너뛴 행은 커서 뒤에 남아 있다: 처음부터 한 번 더 훑는다
+                rescanned = true;
+                afterId = 0;
+                continue;
+            }
+            chunks++;
+            expired += ids.size();
+            expiredCounter.increment(ids.size()); // 청크마다 올려서 중간에 실패해도 커밋된 만큼은 남는다
+            groupSummaryCache.invalidateAll(ids);
+            afterId = Collections.max(ids);
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+        runTimer.record(elapsed);
+        log.info("Expired {} groups in {} chunks in {} ms (shard {}/{})",
+                expired, chunks, elapsed.toMillis(), shard.index(), shard.count());
+        return new ExpiryReport(expired, chunks, elapsed);
+    }
+
+    public record ExpiryReport(int expiredCount, int chunkCount, Duration elapsed) {
+    }
+}
@@ -0,0 +1,106 @@
+package csw.subsync.scheduler;
+
+import csw.subsync.subscription.cache.GroupSummaryCache;
+import csw.subsync.subscription.repository.MembershipBatchRepository;
+import csw.subsync.subscription.repository.SubscriptionGroupBatchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Deletes memberships whose payment failed long enough ago, in bounded chunks.
+ * <p>
+ * Each chunk is one {@code DELETE ... RETURNING} plus a batched seat release for the affected groups, committed
+ * together so {@code member_count} never disagrees with the rows. Memory and lock time depend on the chunk size,
+ * not on the backlog.
+ */
+@Slf4j
+@Component
+public class InvalidMemberPurgeJob {
+
+    private final MembershipBatchRepository membershipBatchRepo;
+    private final SubscriptionGroupBatchRepository subscriptionGroupBatchRepo;
+    private final GroupSummaryCache groupSummaryCache;
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+
+    private final Timer runTimer;
+    private final Counter deletedCounter;
+
+    public InvalidMemberPurgeJob(MembershipBatchRepository membershipBatchRepo,
+                                 SubscriptionGroupBatchRepository subscriptionGroupBatchRepo,
+                                 GroupSummaryCache groupSummaryCache,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${application.subscription.purge.chunk-size:1000}") int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Purge chunk size must be positive.");
+        }
+        this.membershipBatchRepo = membershipBatchRepo;
+        this.subscriptionGroupBatchRepo = subscriptionGroupBatchRepo;
+        this.groupSummaryCache = groupSummaryCache;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+
+        this.runTimer = Timer.builder("subsync.purge.run")
+                .description("Time taken to delete every stale unpaid membership")
+                .register(meterRegistry);
+        this.deletedCounter = Counter.builder("subsync.purge.members")
+                .description("Unpaid memberships deleted by the nightly purge")
+                .register(meterRegistry);
+    }
+
+    public PurgeReport run(LocalDate failedBefore, ClusterJobLock.Shard shard) {
+        long started = System.nanoTime();
+        int chunks = 0;
+        int deleted = 0;
+        int groups = 0;
+        while (true) {
+            Map<Long, Integer> seatsByGroup = new HashMap<>();
+            Integer count = chunkTransaction.execute(status -> {
+                List<Long> groupIds = membershipBatchRepo.deleteInvalidChunk(
+                        failedBefore, shard.index(), shard.count(), chunkSize);
+                groupIds.stream()
+                        .filter(Objects::nonNull)
+                        .forEach(groupId -> seatsByGroup.merge(groupId, 1, Integer::sum));
+                if (!seatsByGroup.isEmpty()) {
+                    subscriptionGroupBatchRepo.releaseSeats(seatsByGroup, chunkSize);
+                }
+                return groupIds.size();
+            });
+            if (count == null || count == 0) {
+                break;
+            }
+            chunks++;
+            deleted += count;
+            groups += seatsByGroup.size();
+            deletedCounter.increment(count);
+            groupSummaryCache.invalidateAll(seatsByGroup.keySet());
+            if (count < chunkSize) {
+                break;
+            }
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+        runTimer.record(elapsed);
+        log.info("Purged {} unpaid memberships from {} groups in {} chunks in {} ms (shard {}/{})",
+                deleted, groups, chunks, elapsed.toMillis(), shard.index(), shard.count());
+        return new PurgeReport(deleted, groups, chunks, elapsed);
+    }
+
+    // groupCount 는 청크별 합계라 여러 청크에 걸친 그룹은 중복해서 센다
+    public record PurgeReport(int deletedCount, int groupCount, int chunkCount, Duration elapsed) {
+    }
+}
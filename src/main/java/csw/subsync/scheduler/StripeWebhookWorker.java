@@ -0,0 +1,78 @@
+package csw.subsync.scheduler;
+
+import csw.subsync.common.outbox.OutboxWorker;
+import csw.subsync.payment.model.StripeWebhookEvent;
+import csw.subsync.payment.service.StripeWebhookProcessor;
+import csw.subsync.payment.service.WebhookInboxService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Drains the Stripe webhook inbox in batches, with a fixed number of batches in flight.
+ * <p>
+ * Same shape as {@link ChargeJobWorker}: woken right after an event is appended, plus a periodic poll for retries,
+ * other nodes' events and anything left over from a restart.
+ */
+@Slf4j
+@Component
+public class StripeWebhookWorker extends OutboxWorker<List<StripeWebhookEvent>> {
+    private final WebhookInboxService inbox;
+    private final StripeWebhookProcessor processor;
+
+    private final int batchSize;
+
+    public StripeWebhookWorker(WebhookInboxService inbox,
+                               StripeWebhookProcessor processor,
+                               @Value("${application.webhook.workers:2}") int workers,
+                               @Value("${application.webhook.batch-size:50}") int batchSize) {
+        super("Stripe events", workers);
+        this.inbox = inbox;
+        this.processor = processor;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${application.webhook.poll-interval:1s}")
+    public void poll() {
+        drain();
+    }
+
+    @TransactionalEventListener
+    public void onReceived(WebhookInboxService.EventReceived event) {
+        // 웹훅 요청 스레드는 바로 돌려보낸다
+        wakeUp();
+    }
+
+    @Scheduled(cron = "${application.webhook.purge-cron:0 15 4 * * ?}")
+    public void purge() {
+        int purged = inbox.purgeProcessed();
+        log.info("Purged {} processed Stripe events from the inbox", purged);
+    }
+
+    // 슬롯 하나에 배치 하나
+    @Override
+    protected List<List<StripeWebhookEvent>> claim(int free) {
+        List<StripeWebhookEvent> batch = inbox.claim(batchSize);
+        return batch.isEmpty() ? List.of() : List.of(batch);
+    }
+
+    @Override
+    protected boolean process(List<StripeWebhookEvent> batch) {
+        try {
+            StripeWebhookProcessor.BatchResult result = processor.process(batch);
+            inbox.complete(result.doneEventIds());
+            result.failedEventIds().forEach((eventId, error) -> {
+                log.warn("Stripe event {} failed: {}", eventId, error);
+                inbox.fail(eventId, error);
+            });
+        } catch (RuntimeException e) {
+            log.error("Stripe event batch of {} failed: {}", batch.size(), e.getMessage());
+            batch.forEach(event -> inbox.fail(event.getEventId(), e.getMessage()));
+        }
+        return batch.size() == batchSize; // more may be waiting
+    }
+}
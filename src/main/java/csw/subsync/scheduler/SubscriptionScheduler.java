@@ -1,64 +1,63 @@
 package csw.subsync.scheduler;
 
-import csw.subsync.subscription.model.Membership;
-import csw.subsync.subscription.model.SubscriptionGroup;
-import csw.subsync.subscription.repository.MembershipRepository;
-import csw.subsync.subscription.repository.SubscriptionGroupRepository;
+import csw.subsync.subscription.cache.GroupSummaryCache;
+import csw.subsync.subscription.dto.GroupSummary;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDate;
-import java.util.List;
 
 @Slf4j
 @RequiredArgsConstructor
 @Component
 public class SubscriptionScheduler {
-    private final SubscriptionGroupRepository subscriptionGroupRepo;
-    private final MembershipRepository membershipRepo;
-    private final RedisTemplate<Object, Object> redisTemplate;
+    private final GroupSummaryCache groupSummaryCache;
+    private final GroupExpiryJob groupExpiryJob;
+    private final InvalidMemberPurgeJob invalidMemberPurgeJob;
+    private final ClusterJobLock clusterJobLock;
 
     /**
      * 1) 만료된 그룹 자동 비활성화
-     * 매일 새벽 0시(예시)마다 endDate < 오늘인 그룹 중 active=true인 그룹 찾아서 inactive 처리
+     * 만료 큐(Redis ZSET)를 몇 초마다 폴링해서 만료 시각이 지난 그룹을 inactive 처리
      */
-    // 만료된 그룹 자동 비활성화: 트랜잭션 범위 유지
-    @Scheduled(cron = "0 0 0 * * ?")
-    @Transactional
+    @Scheduled(fixedDelayString = "${application.subscription.expiry.poll-interval:5s}")
+    public void expireDueGroups() {
+        groupExpiryJob.expireDue(Instant.now());
+    }
+
+    /**
+     * 1-1) 만료 보정 스윕
+     * 하루 한 번 endDate < 오늘인데 아직 active=true인 그룹(큐에서 빠진 것)을 찾아서 inactive 처리
+     */
+    // 청크 단위로 커밋 (GroupExpiryJob 참고), 샤드는 노드끼리 나눠 처리
+    @Scheduled(cron = "${application.subscription.expiry.sweep-cron:0 30 3 * * ?}")
     public void expireGroups() {
         LocalDate today = LocalDate.now();
-        List<SubscriptionGroup> expiredGroups = subscriptionGroupRepo.findExpiredGroups(today);
-
-        for (SubscriptionGroup group : expiredGroups) {
-            group.setActive(false);
-            subscriptionGroupRepo.save(group);
-            redisTemplate.delete("subscription:" + group.getId());
-            // TODO: 추가 작업 가능 (예: 알림 전송)
-        }
+        clusterJobLock.forEachShard("expire-groups", shard -> groupExpiryJob.run(today, shard));
+        // TODO: 추가 작업 가능 (예: 알림 전송)
     }
 
     /**
      * 2) 결제 실패 후 3일 지난 Membership 제거
      * 매일 새벽 1시(예시)마다 valid=false & paid=false & 실패일자 3일 이상 지난 멤버 제거
      */
-    // 결제 실패 후 3일 지난 Membership 제거: 트랜잭션 유지
+    // 결제 실패 후 3일 지난 Membership 제거: 청크 단위 DELETE + 좌석 반환 (InvalidMemberPurgeJob 참고)
     @Scheduled(cron = "0 0 1 * * ?")
-    @Transactional
     public void removeInvalidMembers() {
         LocalDate threeDaysAgo = LocalDate.now().minusDays(3);
-        List<Membership> invalidMembers = membershipRepo.findAllInvalidMembersOlderThan(threeDaysAgo);
-
-        membershipRepo.deleteAll(invalidMembers);
+        clusterJobLock.forEachShard("remove-invalid-members", shard -> invalidMemberPurgeJob.run(threeDaysAgo, shard));
     }
 
 
+    // 캐시된 요약을 반환 (멤버십이 필요하면 repository 를 직접 사용), 캐시 miss 는 replica 에서 읽는다
     @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
-    public SubscriptionGroup getGroupById(Long groupId) {
-        return subscriptionGroupRepo.findByIdAndActiveTrueWithMemberships(groupId);
+    public GroupSummary getGroupById(Long groupId) {
+        GroupSummary summary = groupSummaryCache.get(groupId);
+        return summary != null && summary.active() ? summary : null;
     }
 }
@@ -0,0 +1,144 @@
+package csw.subsync.subscription.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import csw.subsync.subscription.dto.GroupSummary;
+import csw.subsync.subscription.repository.SubscriptionGroupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Read-through cache of {@link GroupSummary}: a per-node Caffeine near cache in front of Redis
+ * ({@code subscription:{id}}), falling back to a single-row projection query.
+ * <p>
+ * Anything that changes a group's owner, seat count or active flag must call {@link #invalidate(Long)}. Inside a
+ * transaction the entry is dropped after commit, so a concurrent reader cannot put the pre-commit row back.
+ * Redis is shared; the near cache of other nodes is not told, so their copy can lag by up to
+ * {@code application.subscription.group-cache.near-ttl}. Ownership never changes, so permission checks are
+ * unaffected; code that needs an exact seat count or active flag re-checks in the database.
+ */
+@Slf4j
+@Component
+public class GroupSummaryCache {
+
+    static final String KEY_PREFIX = "subscription:";
+
+    private final SubscriptionGroupRepository subscriptionGroupRepo;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration redisTtl;
+    private final Cache<Long, GroupSummary> near;
+
+    public GroupSummaryCache(SubscriptionGroupRepository subscriptionGroupRepo,
+                             StringRedisTemplate redisTemplate,
+                             ObjectMapper objectMapper,
+                             @Value("${application.subscription.group-cache.near-ttl:10s}") Duration nearTtl,
+                             @Value("${application.subscription.group-cache.near-size:10000}") int nearSize,
+                             @Value("${application.subscription.group-cache.redis-ttl:1h}") Duration redisTtl) {
+        this.subscriptionGroupRepo = subscriptionGroupRepo;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.redisTtl = redisTtl;
+        this.near = Caffeine.newBuilder()
+                .maximumSize(nearSize)
+                .expireAfterWrite(nearTtl)
+                .build();
+    }
+
+    /**
+     * @return the summary, or {@code null} if the group does not exist (inactive groups are returned with
+     * {@code active = false})
+     */
+    public GroupSummary get(Long groupId) {
+        if (groupId == null) {
+            return null;
+        }
+        GroupSummary summary = near.getIfPresent(groupId);
+        if (summary != null) {
+            return summary;
+        }
+
+        summary = readRedis(groupId);
+        if (summary == null) {
+            summary = subscriptionGroupRepo.findSummaryById(groupId);
+            if (summary == null) {
+                return null; // 없는 그룹은 캐싱하지 않음
+            }
+            writeRedis(summary);
+        }
+        near.put(groupId, summary);
+        return summary;
+    }
+
+    public void invalidate(Long groupId) {
+        if (groupId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(groupId); // 롤백돼도 지워서 손해 볼 것은 없다
+                }
+            });
+        } else {
+            evict(groupId);
+        }
+    }
+
+    /**
+     * Evicts many groups at once, e.g. after a committed batch update: one {@code UNLINK} for all Redis keys.
+     * Not deferred to commit, so call it after the transaction that changed the rows.
+     */
+    public void invalidateAll(Collection<Long> groupIds) {
+        if (groupIds.isEmpty()) {
+            return;
+        }
+        near.invalidateAll(groupIds);
+        try {
+            redisTemplate.unlink(groupIds.stream().map(id -> KEY_PREFIX + id).toList());
+        } catch (RuntimeException e) {
+            log.warn("Could not evict {} groups from Redis: {}", groupIds.size(), e.getMessage());
+        }
+    }
+
+    private void evict(Long groupId) {
+        near.invalidate(groupId);
+        try {
+            redisTemplate.delete(KEY_PREFIX + groupId);
+        } catch (RuntimeException e) {
+            // 다른 노드는 redis-ttl 동안 옛 값을 볼 수 있다
+            log.warn("Could not evict group {} from Redis: {}", groupId, e.getMessage());
+        }
+    }
+
+    private GroupSummary readRedis(Long groupId) {
+        try {
+            String json = redisTemplate.opsForValue().get(KEY_PREFIX + groupId);
+            return json == null ? null : objectMapper.readValue(json, GroupSummary.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Dropping unreadable cache entry for group {}: {}", groupId, e.getMessage());
+            return null;
+        } catch (RuntimeException e) {
+            log.debug("Redis unavailable, reading group {} from the database: {}", groupId, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeRedis(GroupSummary summary) {
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + summary.id(), objectMapper.writeValueAsString(summary), redisTtl);
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.debug("Could not cache group {} in Redis: {}", summary.id(), e.getMessage());
+        }
+    }
+}
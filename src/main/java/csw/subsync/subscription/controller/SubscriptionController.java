@@ -1,7 +1,9 @@
 package csw.subsync.subscription.controller;
 
 import csw.subsync.common.annotation.ApiV1;
+import csw.subsync.common.dto.CursorPage;
 import csw.subsync.subscription.doc.SubscriptionControllerDoc;
+import csw.subsync.subscription.dto.GroupSummary;
 import csw.subsync.subscription.dto.SubscriptionCreateRequest;
 import csw.subsync.subscription.dto.SubscriptionGroupDto;
 import csw.subsync.subscription.dto.SubscriptionJoinRequest;
@@ -77,6 +79,23 @@ public class SubscriptionController implements SubscriptionControllerDoc {
         return ResponseEntity.ok(toDto(group));
     }
 
+    @Override
+    public ResponseEntity<GroupSummary> getGroup(Long groupId) {
+        return ResponseEntity.ok(subscriptionService.getGroupSummary(groupId));
+    }
+
+    @Override
+    public ResponseEntity<CursorPage<SubscriptionGroupDto>> getMyGroups(Long cursor, int size) {
+        User user = (User) SecurityContextHolder.getContext()
+                .getAuthentication().getPrincipal();
+        return ResponseEntity.ok(subscriptionService.getMyGroups(user.getId(), cursor, size));
+    }
+
+    @Override
+    public ResponseEntity<CursorPage<SubscriptionGroupDto>> getOpenGroups(Long cursor, int size) {
+        return ResponseEntity.ok(subscriptionService.getOpenGroups(cursor, size));
+    }
+
     @Override
     public ResponseEntity<Void> remove(Long groupId) {
 //        User user = userRepository.findById(userId)
@@ -91,9 +110,9 @@ public class SubscriptionController implements SubscriptionControllerDoc {
 
     @Override
     public ResponseEntity<Void> charge(Long groupId) {
-        subscriptionService.chargeAllMembers(groupId);
-        // 성공 시 200 OK (Body 없음)
-        return ResponseEntity.ok().build();
+        // 요청 스레드에서 Stripe 를 호출하지 않는다: ChargeJobWorker 가 처리 (deferred 재시도, 동시 실행 방지 포함)
+        subscriptionService.requestCharge(groupId);
+        return ResponseEntity.accepted().build();
     }
 
     @Override
@@ -108,6 +127,7 @@ public class SubscriptionController implements SubscriptionControllerDoc {
                 group.getId(),
                 group.getTitle(),
                 group.getMaxMembers(),
+                group.getMemberCount(),
                 group.getDurationDays(),
                 group.getStartDate(),
                 group.getEndDate(),
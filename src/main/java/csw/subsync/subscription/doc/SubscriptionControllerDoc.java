@@ -1,5 +1,7 @@
 package csw.subsync.subscription.doc;
 
+import csw.subsync.common.dto.CursorPage;
+import csw.subsync.subscription.dto.GroupSummary;
 import csw.subsync.subscription.dto.SubscriptionCreateRequest;
 import csw.subsync.subscription.dto.SubscriptionGroupDto;
 import csw.subsync.subscription.dto.SubscriptionJoinRequest;
@@ -70,6 +72,70 @@ public interface SubscriptionControllerDoc {
     ResponseEntity<SubscriptionGroupDto> join(@RequestBody @Valid SubscriptionJoinRequest request);
 
 
+    /**
+     * 구독 그룹 요약 조회 API
+     *
+     * @param groupId 조회할 구독 그룹 ID (쿼리 파라미터)
+     * @return ResponseEntity<GroupSummary> 그룹 요약(소유자, 정원, 인원, 상태, 기간)과 200 OK 응답
+     */
+    @Operation(
+            summary = "구독 그룹 요약 조회",
+            description = "구독 그룹의 소유자, 정원, 현재 인원, 활성 상태와 기간을 조회합니다. 캐시에서 제공되므로 인원 수는 몇 초 늦을 수 있습니다.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "구독 그룹 요약 조회 성공",
+                            content = @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = GroupSummary.class))),
+                    @ApiResponse(responseCode = "401", description = "인증 실패"),
+                    @ApiResponse(responseCode = "404", description = "구독 그룹을 찾을 수 없음",
+                            content = @Content(mediaType = "application/json", schema = @Schema(example = "{\"error\": \"Group not found\"}")))
+            }
+    )
+    @GetMapping("/group")
+    ResponseEntity<GroupSummary> getGroup(@Parameter(description = "조회할 구독 그룹 ID") @RequestParam Long groupId);
+
+
+    /**
+     * 내 구독 그룹 목록 API
+     *
+     * @param cursor 이전 페이지 응답의 nextCursor (첫 페이지는 생략)
+     * @param size   페이지 크기 (최대 100)
+     * @return ResponseEntity<CursorPage<SubscriptionGroupDto>> 내가 소유하거나 참여한 그룹 목록과 200 OK 응답
+     */
+    @Operation(
+            summary = "내 구독 그룹 목록",
+            description = "내가 소유하거나 참여 중인 구독 그룹을 최신순으로 조회합니다. 다음 페이지는 응답의 nextCursor 를 cursor 로 넘겨 요청합니다.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "내 구독 그룹 목록 조회 성공"),
+                    @ApiResponse(responseCode = "401", description = "인증 실패")
+            }
+    )
+    @GetMapping("/my")
+    ResponseEntity<CursorPage<SubscriptionGroupDto>> getMyGroups(
+            @Parameter(description = "이전 페이지의 nextCursor (첫 페이지는 생략)") @RequestParam(required = false) Long cursor,
+            @Parameter(description = "페이지 크기 (최대 100)") @RequestParam(defaultValue = "20") int size);
+
+
+    /**
+     * 참여 가능한 구독 그룹 목록 API
+     *
+     * @param cursor 이전 페이지 응답의 nextCursor (첫 페이지는 생략)
+     * @param size   페이지 크기 (최대 100)
+     * @return ResponseEntity<CursorPage<SubscriptionGroupDto>> 빈 자리가 있는 활성 그룹 목록과 200 OK 응답
+     */
+    @Operation(
+            summary = "참여 가능한 구독 그룹 목록",
+            description = "빈 자리가 남아 있는 활성 구독 그룹을 최신순으로 조회합니다. 다음 페이지는 응답의 nextCursor 를 cursor 로 넘겨 요청합니다.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "참여 가능한 구독 그룹 목록 조회 성공"),
+                    @ApiResponse(responseCode = "401", description = "인증 실패")
+            }
+    )
+    @GetMapping("/open")
+    ResponseEntity<CursorPage<SubscriptionGroupDto>> getOpenGroups(
+            @Parameter(description = "이전 페이지의 nextCursor (첫 페이지는 생략)") @RequestParam(required = false) Long cursor,
+            @Parameter(description = "페이지 크기 (최대 100)") @RequestParam(defaultValue = "20") int size);
+
+
     /**
      * 구독 그룹 삭제 API
      *
@@ -95,18 +161,17 @@ public interface SubscriptionControllerDoc {
      * 멤버 요금 청구 API
      *
      * @param groupId 요금을 청구할 구독 그룹 ID (쿼리 파라미터)
-     * @return ResponseEntity<Void> 성공 시 200 OK 응답
+     * @return ResponseEntity<Void> 청구 작업이 큐에 등록되면 202 Accepted 응답
      */
     @Operation(
             summary = "멤버 요금 청구",
-            description = "구독 그룹의 모든 멤버에게 요금을 청구합니다. 그룹 소유자 또는 관리자만 실행할 수 있습니다.",
+            description = "구독 그룹의 모든 멤버에 대한 청구 작업을 큐에 등록합니다. 실제 청구는 워커가 비동기로 처리하며, " +
+                    "이미 대기 중이거나 실행 중인 청구 작업이 있으면 새로 등록하지 않습니다. 그룹 소유자 또는 관리자만 실행할 수 있습니다.",
             responses = {
-                    @ApiResponse(responseCode = "200", description = "멤버 요금 청구 성공"),
+                    @ApiResponse(responseCode = "202", description = "청구 작업 등록됨"),
                     @ApiResponse(responseCode = "404", description = "구독 그룹을 찾을 수 없음",
                             content = @Content(mediaType = "application/json", schema = @Schema(example = "{\"error\": \"Group not found\"}"))),
-                    @ApiResponse(responseCode = "403", description = "권한 없음 (그룹 소유자 또는 관리자만 실행 가능)"),
-                    @ApiResponse(responseCode = "500", description = "요금 청구 실패 (서버 에러)",
-                            content = @Content(mediaType = "application/json", schema = @Schema(example = "{\"error\": \"Payment processing error\"}")))
+                    @ApiResponse(responseCode = "403", description = "권한 없음 (그룹 소유자 또는 관리자만 실행 가능)")
             }
     )
     @PostMapping("/charge")
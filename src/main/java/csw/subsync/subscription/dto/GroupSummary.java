@@ -0,0 +1,23 @@
+package csw.subsync.subscription.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+
+/**
+ * 그룹의 읽기 전용 요약 (멤버십 컬렉션 없이 소유자/정원/상태만). {@code GroupSummaryCache} 가 캐싱한다.
+ */
+public record GroupSummary(
+        @Schema(description = "Subscription 그룹의 식별자", example = "1") Long id,
+        @Schema(description = "Subscription 그룹의 소유자 ID", example = "123") Long ownerId,
+        @Schema(description = "그룹 내 최대 가입 가능 인원 수", example = "10") int maxMembers,
+        @Schema(description = "현재 가입 인원 수 (소유자 포함)", example = "4") int memberCount,
+        @Schema(description = "현재 활성 상태 여부", example = "true") boolean active,
+        @Schema(description = "Subscription 시작일", example = "2025-02-01") LocalDate startDate,
+        @Schema(description = "Subscription 종료일", example = "2025-02-14") LocalDate endDate
+) {
+
+    public boolean isOwnedBy(Long userId) {
+        return ownerId != null && ownerId.equals(userId);
+    }
+}
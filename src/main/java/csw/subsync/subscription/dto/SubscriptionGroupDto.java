@@ -20,6 +20,9 @@ public class SubscriptionGroupDto {
     @Schema(description = "그룹 내 최대 가입 가능 인원 수", example = "10")
     private int maxMembers;
 
+    @Schema(description = "현재 가입 인원 수", example = "3")
+    private int memberCount;
+
     @Schema(description = "유효 기간(일 단위)", example = "14")
     private int durationDays;
 
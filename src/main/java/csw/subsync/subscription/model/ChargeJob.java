@@ -0,0 +1,77 @@
+package csw.subsync.subscription.model;
+
+import csw.subsync.common.outbox.OutboxEntry;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+import java.util.List;
+
+// 그룹 결제 요청을 DB에 먼저 기록해두고 (outbox), 워커가 나중에 꺼내서 처리한다
+@Entity
+@Table(
+        name = "charge_jobs",
+        indexes = {
+                @Index(name = "idx_charge_jobs_status_available_at", columnList = "status, available_at"),
+                @Index(name = "idx_charge_jobs_group_id", columnList = "group_id")
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChargeJob implements OutboxEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private Status status;
+
+    private int attempts;
+
+    @Column(name = "available_at", nullable = false)
+    private Instant availableAt; // not picked up before this instant (retry backoff)
+
+    @Column(name = "locked_at")
+    private Instant lockedAt; // when a worker claimed it; stale locks are reclaimed
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    // null 이면 그룹 전체를 청구; Stripe 장애로 미뤄진 실행은 남은 멤버십 id 만 다시 청구한다
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "deferred_member_ids")
+    private List<Long> deferredMemberIds;
+
+    @Override
+    public void markPending() {
+        status = Status.PENDING;
+    }
+
+    @Override
+    public void markRunning() {
+        status = Status.RUNNING;
+    }
+
+    @Override
+    public void markFailed() {
+        status = Status.FAILED;
+    }
+
+    public enum Status {
+        PENDING, RUNNING, DONE, FAILED
+    }
+}
@@ -1,6 +1,7 @@
 package csw.subsync.subscription.model;
 
 
+import csw.subsync.common.util.OrderIds;
 import csw.subsync.user.model.User;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -8,7 +9,9 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.UUID;
 
 @Entity
 @Table(
@@ -17,7 +20,10 @@ import java.time.LocalDate;
                 @Index(name = "idx_memberships_user_id", columnList = "user_id"),
                 @Index(name = "idx_memberships_subscription_group_id", columnList = "subscription_group_id")
         },
-        uniqueConstraints = @UniqueConstraint(columnNames = "stripe_order_id")
+        uniqueConstraints = {
+                @UniqueConstraint(columnNames = "stripe_order_id"),
+                @UniqueConstraint(name = "uk_memberships_user_group", columnNames = {"user_id", "subscription_group_id"})
+        }
 )
 @Getter
 @Setter
@@ -25,7 +31,9 @@ import java.time.LocalDate;
 @AllArgsConstructor
 public class Membership {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // pooled 시퀀스: 50개씩 미리 할당해서 INSERT 를 JDBC 배치로 묶을 수 있다 (IDENTITY 는 배치 불가)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "memberships_seq")
+    @SequenceGenerator(name = "memberships_seq", sequenceName = "memberships_seq", allocationSize = 50) // schema.sql 의 INCREMENT BY 와 같아야 함
     private Long id;
 
     @Version
@@ -33,9 +41,11 @@ public class Membership {
 
     private boolean paid;
     private boolean valid; // if user is kicked out or not
-    private LocalDate failedDate; // if user failed to pay, this date is set
+    // if user failed to pay, this date is set (부분 인덱스 idx_memberships_purge 는 schema.sql 참고: @Index 로는 WHERE 를 못 건다)
+    private LocalDate failedDate;
 
-    @ManyToOne
+    // 청구 경로는 SubscriptionGroup.GRAPH_CHARGE 로 함께 읽는다
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
@@ -49,8 +59,21 @@ public class Membership {
     @Column(name = "stripe_payment_intent_id")
     private String stripePaymentIntentId;
 
-    @Column(name = "stripe_order_id", length = 255, nullable = false, unique = true)
-    private String stripeOrderId;
+    // 마지막으로 반영한 결제 웹훅 이벤트의 Stripe created: 이보다 오래된 이벤트는 늦게 도착해도 무시된다
+    @Column(name = "last_payment_event_at")
+    private Instant lastPaymentEventAt;
+
+    // 네이티브 uuid (16바이트), 시간순 UUIDv7 이라 유니크 인덱스에 순서대로 쌓인다 (OrderIds 참고)
+    @Column(name = "stripe_order_id", nullable = false, unique = true)
+    private UUID stripeOrderId;
+
+    @PrePersist
+    void assignOrderId() {
+        // stripe_order_id is NOT NULL; PaymentService keeps it stable across retries
+        if (stripeOrderId == null) {
+            stripeOrderId = OrderIds.next();
+        }
+    }
 
     public enum PaymentStatus {
         PROCESSING, SUCCEEDED, FAILED
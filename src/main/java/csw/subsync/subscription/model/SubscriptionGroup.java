@@ -13,6 +13,15 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@NamedEntityGraph( // 청구: 멤버별 Stripe customer / payment method 가 필요하다
+        name = SubscriptionGroup.GRAPH_CHARGE,
+        attributeNodes = @NamedAttributeNode(value = "memberships", subgraph = "membership-user"),
+        subgraphs = @NamedSubgraph(name = "membership-user", attributeNodes = @NamedAttributeNode("user"))
+)
+@NamedEntityGraph( // 삭제: 멤버십만 (user_id 는 FK 라 User 를 읽지 않고도 비교할 수 있다)
+        name = SubscriptionGroup.GRAPH_MEMBERSHIPS,
+        attributeNodes = @NamedAttributeNode("memberships")
+)
 @Table(
         name = "subscription_groups",
         indexes = {
@@ -25,14 +34,23 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 public class SubscriptionGroup {
+    public static final String GRAPH_CHARGE = "SubscriptionGroup.charge";
+    public static final String GRAPH_MEMBERSHIPS = "SubscriptionGroup.memberships";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "subscription_groups_seq")
+    @SequenceGenerator(name = "subscription_groups_seq", sequenceName = "subscription_groups_seq", allocationSize = 50)
     private Long id;
 
     @Column(length = 100, nullable = false)
     private String title;
 
     private int maxMembers;
+
+    // 좌석 카운터: joinGroup 은 멤버십 컬렉션을 읽지 않고 이 값만 조건부 UPDATE 한다
+    @Column(name = "member_count", nullable = false)
+    private int memberCount;
+
     private int durationDays; // 1–30
 
     private LocalDate startDate;
@@ -40,7 +58,8 @@ public class SubscriptionGroup {
 
     private boolean active; // indicates if subscription is active
 
-    @ManyToOne
+    // 필요한 경로만 엔티티 그래프로 가져온다 (owner.getId() 는 프록시에서 바로 나온다)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id")
     private User owner;
 
@@ -0,0 +1,36 @@
+package csw.subsync.subscription.repository;
+
+import csw.subsync.subscription.model.ChargeJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ChargeJobRepository extends JpaRepository<ChargeJob, Long> {
+
+    List<ChargeJob> findByGroupIdAndStatusIn(Long groupId, Collection<ChargeJob.Status> statuses);
+
+    // 여러 워커(노드)가 동시에 폴링해도 같은 작업을 가져가지 않도록 SKIP LOCKED 사용
+    // RUNNING 상태로 lease 가 지난 작업은 워커가 죽은 것으로 보고 다시 가져온다
+    @Query(value = "SELECT * FROM charge_jobs " +
+            "WHERE (status = 'PENDING' AND available_at <= :now) " +
+            "   OR (status = 'RUNNING' AND locked_at < :staleBefore) " +
+            "ORDER BY available_at " +
+            "LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<ChargeJob> lockNextBatch(@Param("now") Instant now,
+                                  @Param("staleBefore") Instant staleBefore,
+                                  @Param("limit") int limit);
+
+    // 실행 중인 작업의 lease 연장 (heartbeat): 오래 걸리는 청구가 lease 를 넘겨 다른 워커에 회수되지 않도록
+    @Modifying
+    @Query("UPDATE ChargeJob j SET j.lockedAt = :now " +
+            "WHERE j.id IN :ids AND j.status = csw.subsync.subscription.model.ChargeJob.Status.RUNNING")
+    int renewLeases(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+}
@@ -0,0 +1,110 @@
+package csw.subsync.subscription.repository;
+
+import csw.subsync.subscription.model.Membership;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Set-based writes for memberships that go through plain JDBC batches instead of one entity save per row.
+ * Every statement bumps {@code version} so entities loaded elsewhere still fail their optimistic check.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MembershipBatchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // 웹훅이 이미 같은 intent 로 결과를 기록했다면 PROCESSING 으로 되돌리지 않는다
+    public void markProcessing(List<PaymentIntentRef> refs, int batchSize) {
+        jdbcTemplate.batchUpdate(
+                "UPDATE memberships SET payment_status = 'PROCESSING', stripe_payment_intent_id = ?, version = version + 1 " +
+                        "WHERE id = ? AND (stripe_payment_intent_id IS DISTINCT FROM ? OR payment_status = 'PROCESSING')",
+                refs, batchSize,
+                (ps, ref) -> {
+                    ps.setString(1, ref.paymentIntentId());
+                    ps.setLong(2, ref.membershipId());
+                    ps.setString(3, ref.paymentIntentId());
+                });
+    }
+
+    public void markFailed(List<Long> membershipIds, LocalDate failedDate, int batchSize) {
+        jdbcTemplate.batchUpdate(
+                "UPDATE memberships SET paid = false, payment_status = 'FAILED', failed_date = ?, valid = false, " +
+                        "version = version + 1 WHERE id = ?",
+                membershipIds, batchSize,
+                (ps, id) -> {
+                    ps.setDate(1, Date.valueOf(failedDate));
+                    ps.setLong(2, id);
+                });
+    }
+
+    /**
+     * Records webhook payment outcomes, one JDBC batch per {@code batchSize} rows. The webhook is the authority on
+     * the payment result, so rows are overwritten without an expected version; bumping it makes any entity loaded
+     * elsewhere fail its own optimistic check instead of writing the old state back. Ordering between results comes
+     * from Stripe instead: a row is only written if the event is newer than the last one applied to it, so a
+     * redelivered or late event from an earlier batch cannot overwrite a newer outcome.
+     *
+     * @return update count per result, in input order (0 means the membership no longer exists or already has a
+     * newer event)
+     */
+    public int[] applyPaymentResults(List<PaymentResult> results, LocalDate failedDate, int batchSize) {
+        int[][] counts = jdbcTemplate.batchUpdate(
+                "UPDATE memberships SET paid = ?, valid = ?, payment_status = ?, failed_date = ?, " +
+                        "stripe_payment_intent_id = COALESCE(?, stripe_payment_intent_id), last_payment_event_at = ?, " +
+                        "version = version + 1 " +
+                        "WHERE id = ? AND (last_payment_event_at IS NULL OR last_payment_event_at < ?)",
+                results, batchSize,
+                (ps, r) -> {
+                    boolean succeeded = r.status() == Membership.PaymentStatus.SUCCEEDED;
+                    ps.setBoolean(1, succeeded);
+                    ps.setBoolean(2, succeeded);
+                    ps.setString(3, r.status().name());
+                    ps.setDate(4, succeeded ? null : Date.valueOf(failedDate));
+                    ps.setString(5, r.paymentIntentId());
+                    ps.setTimestamp(6, Timestamp.from(r.eventCreatedAt()));
+                    ps.setLong(7, r.membershipId());
+                    ps.setTimestamp(8, Timestamp.from(r.eventCreatedAt()));
+                });
+        int[] flat = new int[results.size()];
+        int i = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                flat[i++] = count;
+            }
+        }
+        return flat;
+    }
+
+    /**
+     * Deletes up to {@code limit} memberships (with {@code id % shardCount = shardIndex}) whose payment failed before
+     * {@code failedBefore} and returns the group
+     * id of each deleted row (so callers can give the seats back). Walks {@code idx_memberships_purge}; rows locked
+     * by a concurrent writer are skipped, and the outer predicate is re-checked in case one was paid meanwhile.
+     */
+    public List<Long> deleteInvalidChunk(LocalDate failedBefore, int shardIndex, int shardCount, int limit) {
+        return jdbcTemplate.queryForList(
+                "DELETE FROM memberships WHERE id IN (SELECT id FROM memberships " +
+                        "WHERE valid = false AND paid = false AND failed_date < ? AND id % ? = ? " +
+                        "ORDER BY failed_date LIMIT ? FOR UPDATE SKIP LOCKED) " +
+                        "AND valid = false AND paid = false " +
+                        "RETURNING subscription_group_id",
+                Long.class,
+                Date.valueOf(failedBefore), shardCount, shardIndex, limit);
+    }
+
+    public record PaymentIntentRef(Long membershipId, String paymentIntentId) {
+    }
+
+    // status 는 SUCCEEDED 또는 FAILED, eventCreatedAt 은 Stripe 이벤트의 created
+    public record PaymentResult(Long membershipId, Membership.PaymentStatus status, String paymentIntentId,
+                                Instant eventCreatedAt) {
+    }
+}
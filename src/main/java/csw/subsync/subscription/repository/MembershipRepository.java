@@ -23,6 +23,7 @@ public interface MembershipRepository extends JpaRepository<Membership, Long> {
 
     // 실패 일자를 저장하려면, Membership 엔티티에 failedDate 등의 필드가 필요
     // 여기서는 간단히 valid=false 이면서 3일 지난 멤버를 찾는다고 가정
+    // 삭제 대상이라 User 는 필요 없다 (user 가 LAZY 라 멤버마다 User 를 읽지 않는다)
     @Query("SELECT m FROM Membership m " +
             "WHERE m.valid = false AND m.paid = false " +
             "AND m.failedDate < :threeDaysAgo")
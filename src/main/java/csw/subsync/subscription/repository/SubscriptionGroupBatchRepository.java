@@ -0,0 +1,66 @@
+package csw.subsync.subscription.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Set-based writes for subscription groups that run as a single statement instead of loading and saving entities.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SubscriptionGroupBatchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Deactivates the given groups if they are still active and past their end date; returns the ids it changed.
+     */
+    public List<Long> expireByIds(List<Long> ids, LocalDate today) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        Object[] args = Stream.concat(ids.stream(), Stream.of(Date.valueOf(today))).toArray();
+        return jdbcTemplate.queryForList(
+                "UPDATE subscription_groups SET active = false " +
+                        "WHERE id IN (" + placeholders + ") AND active = true AND end_date < ? " +
+                        "RETURNING id",
+                Long.class, args);
+    }
+
+    // 좌석 반환: 그룹별 반환 수를 한 번의 JDBC 배치로 (member_count >= ? 조건으로 0 아래로 내려가지 않게)
+    public void releaseSeats(Map<Long, Integer> seatsByGroup, int batchSize) {
+        jdbcTemplate.batchUpdate(
+                "UPDATE subscription_groups SET member_count = member_count - ? WHERE id = ? AND member_count >= ?",
+                seatsByGroup.entrySet(), batchSize,
+                (ps, e) -> {
+                    ps.setInt(1, e.getValue());
+                    ps.setLong(2, e.getKey());
+                    ps.setInt(3, e.getValue());
+                });
+    }
+
+    /**
+     * Deactivates the next {@code limit} expired groups with an id above {@code afterId} and
+     * {@code id % shardCount = shardIndex}, and returns their ids (in no particular order). Rows locked by a
+     * concurrent run are skipped rather than waited on.
+     */
+    public List<Long> expireChunk(LocalDate today, int shardIndex, int shardCount, long afterId, int limit) {
+        return jdbcTemplate.queryForList(
+                "UPDATE subscription_groups SET active = false " +
+                        "WHERE id IN (SELECT id FROM subscription_groups " +
+                        "WHERE active = true AND end_date < ? AND id % ? = ? AND id > ? " +
+                        "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+                        "RETURNING id",
+                Long.class,
+                Date.valueOf(today), shardCount, shardIndex, afterId, limit);
+    }
+}
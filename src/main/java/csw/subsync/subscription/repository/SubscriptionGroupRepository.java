@@ -1,7 +1,12 @@
 package csw.subsync.subscription.repository;
 
+import csw.subsync.subscription.dto.GroupSummary;
+import csw.subsync.subscription.dto.SubscriptionGroupDto;
 import csw.subsync.subscription.model.SubscriptionGroup;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -14,9 +19,45 @@ public interface SubscriptionGroupRepository extends JpaRepository<SubscriptionG
 
     // 동시성이 높거나 데이터 충돌 가능성이 크면 비관적 락 사용 (안전성 확보)
 //    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("SELECT g FROM SubscriptionGroup g LEFT JOIN FETCH g.memberships WHERE g.id = :id AND g.active = true")
+    // 청구용: 멤버십과 각 멤버의 User 까지 한 번의 SELECT 로 (파이프라인은 트랜잭션 밖에서 user 를 읽는다)
+    @EntityGraph(SubscriptionGroup.GRAPH_CHARGE)
+    @Query("SELECT g FROM SubscriptionGroup g WHERE g.id = :id AND g.active = true")
+    SubscriptionGroup findForChargeById(@Param("id") Long id);
+
+    // 삭제용: 멤버십만 (User 는 읽지 않는다)
+    @EntityGraph(SubscriptionGroup.GRAPH_MEMBERSHIPS)
+    @Query("SELECT g FROM SubscriptionGroup g WHERE g.id = :id AND g.active = true")
     SubscriptionGroup findByIdAndActiveTrueWithMemberships(@Param("id") Long id);
 
+    // 캐시 적재용: 멤버십을 로딩하지 않고 한 행만 읽는다 (owner.id 는 FK 컬럼이라 조인 없음)
+    @Query("SELECT new csw.subsync.subscription.dto.GroupSummary(g.id, g.owner.id, g.maxMembers, g.memberCount, " +
+            "g.active, g.startDate, g.endDate) FROM SubscriptionGroup g WHERE g.id = :id")
+    GroupSummary findSummaryById(@Param("id") Long id);
+
+    boolean existsByIdAndActiveTrue(Long id);
+
+    // 목록 조회용 DTO 프로젝션: 엔티티/멤버십/소유자를 하이드레이트하지 않고 응답에 필요한 컬럼만 읽는다
+    // 탈퇴/결제 실패로 무효화된 멤버십(valid=false)은 제외. 페이징은 keyset(id 내림차순, id < cursor) 이라 OFFSET 처럼 앞 페이지 행을 읽고 버리지 않는다
+    @Query("SELECT new csw.subsync.subscription.dto.SubscriptionGroupDto(g.id, g.title, g.maxMembers, g.memberCount, " +
+            "g.durationDays, g.startDate, g.endDate, g.active, g.owner.id) " +
+            "FROM Membership m JOIN m.subscriptionGroup g " +
+            "WHERE m.user.id = :userId AND m.valid = true AND g.id < :cursor ORDER BY g.id DESC")
+    List<SubscriptionGroupDto> findMyGroups(@Param("userId") Long userId, @Param("cursor") long cursor, Limit limit);
+
+    // 빈 자리가 있는 활성 그룹 (schema.sql 의 부분 인덱스 idx_sub_groups_open 참고)
+    @Query("SELECT new csw.subsync.subscription.dto.SubscriptionGroupDto(g.id, g.title, g.maxMembers, g.memberCount, " +
+            "g.durationDays, g.startDate, g.endDate, g.active, g.owner.id) " +
+            "FROM SubscriptionGroup g " +
+            "WHERE g.active = true AND g.memberCount < g.maxMembers AND g.id < :cursor ORDER BY g.id DESC")
+    List<SubscriptionGroupDto> findOpenGroups(@Param("cursor") long cursor, Limit limit);
+
+    // 좌석 예약: 정원 확인과 증가를 조건부 UPDATE 한 번으로 처리 (0 이면 가득 찼거나 비활성 그룹)
+    // 동시에 들어온 UPDATE 는 행 잠금을 기다린 뒤 WHERE 를 다시 평가하므로 초과 예약이 생기지 않는다
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE SubscriptionGroup g SET g.memberCount = g.memberCount + 1 " +
+            "WHERE g.id = :id AND g.active = true AND g.memberCount < g.maxMembers")
+    int reserveSeat(@Param("id") Long id);
+
     // 만료된(기간 지난) + 아직 active=true인 그룹 찾기
     @Query("SELECT g FROM SubscriptionGroup g WHERE g.active = true AND g.endDate < :today")
     List<SubscriptionGroup> findExpiredGroups(@Param("today") LocalDate today);
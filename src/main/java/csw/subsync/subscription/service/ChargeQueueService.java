@@ -0,0 +1,155 @@
+package csw.subsync.subscription.service;
+
+import csw.subsync.common.outbox.OutboxPolicy;
+import csw.subsync.subscription.model.ChargeJob;
+import csw.subsync.subscription.repository.ChargeJobRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Durable queue of group charge jobs, stored in the {@code charge_jobs} table.
+ * <p>
+ * {@link #enqueue(Long)} joins the caller's transaction, so a job only becomes visible if the join that
+ * filled the group commits. Workers claim jobs with {@code FOR UPDATE SKIP LOCKED}, which lets any number of
+ * worker threads or nodes drain the table without handing out the same job twice.
+ * <p>
+ * A job charges every member of its group, except a run re-queued by {@link #defer}, which charges only the members
+ * Stripe's outage left behind.
+ */
+@Slf4j
+@Service
+public class ChargeQueueService {
+
+    private static final EnumSet<ChargeJob.Status> ACTIVE = EnumSet.of(ChargeJob.Status.PENDING, ChargeJob.Status.RUNNING);
+
+    private final ChargeJobRepository chargeJobRepo;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final OutboxPolicy policy;
+    private final Duration deferDelay;
+    private final Duration deferMaxAge;
+
+    public ChargeQueueService(ChargeJobRepository chargeJobRepo,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${application.charge.queue.max-attempts:5}") int maxAttempts,
+                              @Value("${application.charge.queue.lease:10m}") Duration lease,
+                              @Value("${application.charge.queue.defer-delay:1m}") Duration deferDelay,
+                              @Value("${application.charge.queue.defer-max-age:24h}") Duration deferMaxAge) {
+        this.chargeJobRepo = chargeJobRepo;
+        this.eventPublisher = eventPublisher;
+        this.policy = new OutboxPolicy(maxAttempts, lease, Duration.ofMinutes(1)); // 1m, 2m, 4m, 8m ...
+        this.deferDelay = deferDelay;
+        this.deferMaxAge = deferMaxAge;
+    }
+
+    /**
+     * Queues a charge of every member of the group, unless one is already queued. A waiting deferred run is widened
+     * to the whole group instead of queueing a second job.
+     */
+    @Transactional
+    public void enqueue(Long groupId) {
+        List<ChargeJob> active = chargeJobRepo.findByGroupIdAndStatusIn(groupId, ACTIVE);
+        if (active.stream().anyMatch(job -> job.getDeferredMemberIds() == null)) {
+            log.debug("Charge job for group {} already queued", groupId);
+            return;
+        }
+        for (ChargeJob job : active) {
+            if (job.getStatus() == ChargeJob.Status.PENDING) {
+                job.setDeferredMemberIds(null);
+                log.debug("Deferred charge job {} for group {} widened to every member", job.getId(), groupId);
+                return;
+            }
+        }
+
+        Instant now = Instant.now();
+        ChargeJob job = new ChargeJob();
+        job.setGroupId(groupId);
+        job.setStatus(ChargeJob.Status.PENDING);
+        job.setAvailableAt(now);
+        job.setCreatedAt(now);
+        chargeJobRepo.save(job);
+
+        // 커밋 이후에 워커를 깨운다 (ChargeJobWorker 의 @TransactionalEventListener)
+        eventPublisher.publishEvent(new JobEnqueued(job.getId(), groupId));
+    }
+
+    @Transactional
+    public List<ChargeJob> claim(int limit) {
+        Instant now = Instant.now();
+        return policy.claimed(chargeJobRepo.lockNextBatch(now, policy.staleBefore(now), limit), now);
+    }
+
+    /**
+     * Keeps the lease of jobs this node is still running. A large group can take longer than {@code lease}
+     * (many members × call timeout × retries); without renewal another worker would reclaim the job and charge the same
+     * members concurrently.
+     */
+    @Transactional
+    public int renewLeases(Collection<Long> jobIds) {
+        if (jobIds.isEmpty()) {
+            return 0;
+        }
+        return chargeJobRepo.renewLeases(jobIds, Instant.now());
+    }
+
+    @Transactional
+    public void complete(Long jobId) {
+        chargeJobRepo.findById(jobId).ifPresent(job -> {
+            job.setStatus(ChargeJob.Status.DONE);
+            job.setLockedAt(null);
+            job.setLastError(null);
+        });
+    }
+
+    @Transactional
+    public void fail(Long jobId, String error) {
+        chargeJobRepo.findById(jobId).ifPresent(job -> {
+            if (policy.fail(job, error, Instant.now())) {
+                log.error("Charge job {} for group {} gave up after {} attempts: {}",
+                        jobId, job.getGroupId(), job.getAttempts(), error);
+            }
+        });
+    }
+
+    /**
+     * Puts a run that had to leave members uncharged (Stripe unavailable) back in the queue for just those members,
+     * after {@code defer-delay} (+ up to 20% jitter so deferred groups don't all come back at once). A deferral is not
+     * a failed attempt and doesn't count towards {@code max-attempts}; instead a job still deferring
+     * {@code defer-max-age} after it was queued is failed, so a group whose members can never be charged doesn't
+     * cycle forever.
+     */
+    @Transactional
+    public void defer(Long jobId, Collection<Long> deferredMemberIds, String reason) {
+        chargeJobRepo.findById(jobId).ifPresent(job -> {
+            Instant now = Instant.now();
+            if (job.getCreatedAt().plus(deferMaxAge).isBefore(now)) {
+                job.setStatus(ChargeJob.Status.FAILED);
+                job.setLockedAt(null);
+                job.setLastError(OutboxPolicy.truncate("Still deferred after " + deferMaxAge + ": " + reason));
+                log.error("Charge job {} for group {} gave up, still deferred {} after it was queued: {}",
+                        jobId, job.getGroupId(), deferMaxAge, reason);
+                return;
+            }
+            long jitter = ThreadLocalRandom.current().nextLong(deferDelay.toMillis() / 5 + 1);
+            job.setStatus(ChargeJob.Status.PENDING);
+            job.setLockedAt(null);
+            job.setDeferredMemberIds(List.copyOf(deferredMemberIds));
+            job.setAttempts(Math.max(job.getAttempts() - 1, 0));
+            job.setAvailableAt(now.plus(deferDelay).plusMillis(jitter));
+            job.setLastError(OutboxPolicy.truncate(reason));
+        });
+    }
+
+    public record JobEnqueued(Long jobId, Long groupId) {
+    }
+}
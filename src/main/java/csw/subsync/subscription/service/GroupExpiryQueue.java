@@ -0,0 +1,118 @@
+package csw.subsync.subscription.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Time-ordered queue of upcoming group expiries: a Redis sorted set of group ids scored by the instant the group
+ * expires (the start of the day after {@code endDate}, matching {@code findExpiredGroups}).
+ * <p>
+ * {@link #popDue(Instant, int)} removes and returns due ids in one Lua call, so pollers on several nodes never get
+ * the same id. The queue is best effort: an id lost to a Redis failure or a crash between pop and update is picked
+ * up by the daily reconciliation sweep ({@code GroupExpiryJob.run}).
+ */
+@Slf4j
+@Service
+public class GroupExpiryQueue {
+
+    static final String KEY = "subscription:expiry";
+
+    // KEYS[1] = queue, ARGV[1] = now (epoch ms), ARGV[2] = limit
+    // returns {id, score, id, score, ...} for the removed entries
+    private static final RedisScript<List> POP_DUE_SCRIPT = new DefaultRedisScript<>("""
+            local due = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'WITHSCORES', 'LIMIT', 0, tonumber(ARGV[2]))
+            for i = 1, #due, 2 do
+                redis.call('ZREM', KEYS[1], due[i])
+            end
+            return due
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    public GroupExpiryQueue(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Queues the group once the surrounding transaction (if any) commits.
+     */
+    public void schedule(Long groupId, LocalDate endDate) {
+        afterCommit(() -> {
+            try {
+                redisTemplate.opsForZSet().add(KEY, groupId.toString(), expiresAt(endDate).toEpochMilli());
+            } catch (RuntimeException e) {
+                log.warn("Could not queue expiry of group {}; the daily sweep will expire it: {}", groupId, e.getMessage());
+            }
+        });
+    }
+
+    public void cancel(Long groupId) {
+        afterCommit(() -> {
+            try {
+                redisTemplate.opsForZSet().remove(KEY, groupId.toString());
+            } catch (RuntimeException e) {
+                log.debug("Could not dequeue group {}: {}", groupId, e.getMessage()); // 만료 처리는 어차피 no-op
+            }
+        });
+    }
+
+    /**
+     * Removes and returns up to {@code limit} groups whose expiry instant is at or before {@code now}.
+     */
+    public List<DueGroup> popDue(Instant now, int limit) {
+        List<?> raw = redisTemplate.execute(POP_DUE_SCRIPT, List.of(KEY),
+                String.valueOf(now.toEpochMilli()), String.valueOf(limit));
+        if (raw == null || raw.isEmpty()) {
+            return List.of();
+        }
+        List<DueGroup> due = new ArrayList<>(raw.size() / 2);
+        for (int i = 0; i + 1 < raw.size(); i += 2) {
+            due.add(new DueGroup(Long.valueOf(raw.get(i).toString()),
+                    Instant.ofEpochMilli((long) Double.parseDouble(raw.get(i + 1).toString()))));
+        }
+        return due;
+    }
+
+    /**
+     * Puts popped entries back with their original expiry instant, e.g. after the database update failed.
+     */
+    public void requeue(List<DueGroup> due) {
+        try {
+            due.forEach(d -> redisTemplate.opsForZSet().add(KEY, d.groupId().toString(), d.expiresAt().toEpochMilli()));
+        } catch (RuntimeException e) {
+            log.warn("Could not requeue {} groups; the daily sweep will expire them: {}", due.size(), e.getMessage());
+        }
+    }
+
+    Instant expiresAt(LocalDate endDate) {
+        return endDate.plusDays(1).atStartOfDay(zone).toInstant();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    public record DueGroup(Long groupId, Instant expiresAt) {
+    }
+}
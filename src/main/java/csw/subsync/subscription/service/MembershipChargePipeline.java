@@ -0,0 +1,235 @@
+package csw.subsync.subscription.service;
+
+import com.stripe.exception.StripeException;
+import com.stripe.model.PaymentIntent;
+import csw.subsync.common.exception.StripeUnavailableException;
+import csw.subsync.payment.service.PaymentService;
+import csw.subsync.subscription.model.Membership;
+import csw.subsync.subscription.model.SubscriptionGroup;
+import csw.subsync.subscription.repository.MembershipBatchRepository;
+import csw.subsync.subscription.repository.MembershipBatchRepository.PaymentIntentRef;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Charges every membership of a group in parallel.
+ * <p>
+ * PaymentIntent creation fans out on virtual threads, bounded by {@code application.charge.max-concurrency}
+ * in-flight Stripe calls. Results are written back in JDBC batches as they complete, and a failing member
+ * only produces a FAILED result for that member instead of aborting the rest of the run.
+ * <p>
+ * When Stripe itself is unhealthy ({@link StripeUnavailableException}: circuit open, retries exhausted) the member is
+ * DEFERRED instead: nothing is written, and the caller re-queues the run for just those members
+ * ({@link ChargeReport#deferredIds()}).
+ */
+@Slf4j
+@Service
+public class MembershipChargePipeline {
+
+    private final PaymentService paymentService;
+    private final MembershipBatchRepository membershipBatchRepo;
+
+    private final int maxConcurrency;
+    private final int batchSize;
+
+    private final Timer runTimer;
+    private final Counter processingCounter;
+    private final Counter failedCounter;
+    private final Counter deferredCounter;
+    private final DistributionSummary throughput;
+
+    public MembershipChargePipeline(PaymentService paymentService,
+                                    MembershipBatchRepository membershipBatchRepo,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${application.charge.max-concurrency:16}") int maxConcurrency,
+                                    @Value("${application.charge.batch-size:100}") int batchSize) {
+        if (maxConcurrency <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Charge concurrency and batch size must be positive.");
+        }
+        this.paymentService = paymentService;
+        this.membershipBatchRepo = membershipBatchRepo;
+        this.maxConcurrency = maxConcurrency;
+        this.batchSize = batchSize;
+
+        this.runTimer = Timer.builder("subsync.charge.run")
+                .description("Time taken to charge every member of a group")
+                .register(meterRegistry);
+        this.processingCounter = Counter.builder("subsync.charge.members")
+                .tag("outcome", "processing")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("subsync.charge.members")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+        this.deferredCounter = Counter.builder("subsync.charge.members")
+                .tag("outcome", "deferred")
+                .register(meterRegistry);
+        this.throughput = DistributionSummary.builder("subsync.charge.throughput")
+                .description("Members charged per second in a single run")
+                .baseUnit("members/s")
+                .register(meterRegistry);
+    }
+
+    public ChargeReport charge(SubscriptionGroup group) {
+        return charge(group, null);
+    }
+
+    /**
+     * @param membershipIds the members to charge, or {@code null} for every member of the group
+     */
+    public ChargeReport charge(SubscriptionGroup group, Collection<Long> membershipIds) {
+        Set<Long> only = membershipIds == null ? null : Set.copyOf(membershipIds);
+        List<Membership> memberships = group.getMemberships().stream()
+                .filter(m -> only == null || only.contains(m.getId()))
+                .toList();
+        long started = System.nanoTime();
+
+        List<ChargeResult> results = new ArrayList<>(memberships.size());
+        List<ChargeResult> unflushed = new ArrayList<>(batchSize);
+        Semaphore inFlight = new Semaphore(maxConcurrency);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletionService<ChargeResult> completion = new ExecutorCompletionService<>(executor);
+            for (Membership membership : memberships) {
+                completion.submit(() -> chargeOne(membership, inFlight));
+            }
+
+            for (int i = 0; i < memberships.size(); i++) {
+                ChargeResult result = completion.take().get();
+                results.add(result);
+                unflushed.add(result);
+                if (unflushed.size() >= batchSize) {
+                    flush(unflushed);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Charge run for group {} interrupted after {} of {} members",
+                    group.getId(), results.size(), memberships.size());
+        } catch (ExecutionException e) {
+            // chargeOne() never throws, so this only happens on a bug
+            throw new IllegalStateException("Charge task failed unexpectedly", e.getCause());
+        } finally {
+            flush(unflushed);
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+        ChargeReport report = new ChargeReport(group.getId(), List.copyOf(results), elapsed);
+        record(report);
+        return report;
+    }
+
+    private ChargeResult chargeOne(Membership membership, Semaphore inFlight) throws InterruptedException {
+        inFlight.acquire();
+        try {
+            PaymentIntent intent = paymentService.initiateSubscriptionPayment(membership);
+            return ChargeResult.processing(membership.getId(), intent.getId());
+        } catch (StripeUnavailableException e) {
+            log.debug("Charge for membership {} deferred: {}", membership.getId(), e.getMessage());
+            return ChargeResult.deferred(membership.getId(), e.getMessage());
+        } catch (StripeException | RuntimeException e) {
+            log.error("Payment processing failed for membership {}: {}", membership.getId(), e.getMessage());
+            return ChargeResult.failed(membership.getId(), e.getMessage());
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    private void flush(List<ChargeResult> unflushed) {
+        if (unflushed.isEmpty()) {
+            return;
+        }
+        List<PaymentIntentRef> processing = new ArrayList<>();
+        List<Long> failed = new ArrayList<>();
+        for (ChargeResult result : unflushed) {
+            switch (result.outcome()) {
+                case PROCESSING -> processing.add(new PaymentIntentRef(result.membershipId(), result.paymentIntentId()));
+                case FAILED -> failed.add(result.membershipId());
+                case DEFERRED -> {
+                    // 상태는 그대로 두고, 다시 결제할 멤버는 청구 작업에 기록된다 (ChargeQueueService.defer)
+                }
+            }
+        }
+        if (!processing.isEmpty()) {
+            membershipBatchRepo.markProcessing(processing, batchSize);
+        }
+        if (!failed.isEmpty()) {
+            membershipBatchRepo.markFailed(failed, LocalDate.now(), batchSize);
+        }
+        unflushed.clear();
+    }
+
+    private void record(ChargeReport report) {
+        runTimer.record(report.elapsed());
+        processingCounter.increment(report.processingCount());
+        failedCounter.increment(report.failedCount());
+        deferredCounter.increment(report.deferredCount());
+        throughput.record(report.membersPerSecond());
+
+        log.info("Charged group {}: {} processing, {} failed, {} deferred in {} ms ({} members/s)",
+                report.groupId(), report.processingCount(), report.failedCount(), report.deferredCount(),
+                report.elapsed().toMillis(), String.format("%.1f", report.membersPerSecond()));
+    }
+
+    public record ChargeResult(Long membershipId, Outcome outcome, String paymentIntentId, String error) {
+        static ChargeResult processing(Long membershipId, String paymentIntentId) {
+            return new ChargeResult(membershipId, Outcome.PROCESSING, paymentIntentId, null);
+        }
+
+        static ChargeResult failed(Long membershipId, String error) {
+            return new ChargeResult(membershipId, Outcome.FAILED, null, error);
+        }
+
+        static ChargeResult deferred(Long membershipId, String error) {
+            return new ChargeResult(membershipId, Outcome.DEFERRED, null, error);
+        }
+
+        public boolean succeeded() {
+            return outcome == Outcome.PROCESSING;
+        }
+    }
+
+    public enum Outcome {
+        PROCESSING, FAILED, DEFERRED
+    }
+
+    public record ChargeReport(Long groupId, List<ChargeResult> results, Duration elapsed) {
+        public long processingCount() {
+            return results.stream().filter(ChargeResult::succeeded).count();
+        }
+
+        public long failedCount() {
+            return results.stream().filter(r -> r.outcome() == Outcome.FAILED).count();
+        }
+
+        public long deferredCount() {
+            return results.stream().filter(r -> r.outcome() == Outcome.DEFERRED).count();
+        }
+
+        public List<Long> deferredIds() {
+            return results.stream().filter(r -> r.outcome() == Outcome.DEFERRED).map(ChargeResult::membershipId).toList();
+        }
+
+        public double membersPerSecond() {
+            long nanos = Math.max(elapsed.toNanos(), 1);
+            return results.size() * 1_000_000_000.0 / nanos;
+        }
+    }
+}
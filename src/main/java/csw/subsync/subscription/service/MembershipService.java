@@ -1,71 +1,52 @@
 package csw.subsync.subscription.service;
 
-import com.stripe.exception.StripeException;
-import com.stripe.model.PaymentIntent;
-import csw.subsync.payment.service.PaymentService;
-import csw.subsync.subscription.model.Membership;
-import csw.subsync.subscription.repository.MembershipRepository;
-import lombok.RequiredArgsConstructor;
+import csw.subsync.subscription.repository.MembershipBatchRepository;
+import csw.subsync.subscription.repository.MembershipBatchRepository.PaymentResult;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Statement;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class MembershipService {
 
-    private final MembershipRepository membershipRepo;
-    private final PaymentService paymentService;
+    private final MembershipBatchRepository membershipBatchRepo;
+    private final int batchSize;
 
-    @Transactional
-    public void processMembershipPayment(Membership membership) {
-        try {
-            PaymentIntent intent = paymentService.initiateSubscriptionPayment(membership);
-            membership.setPaymentStatus(Membership.PaymentStatus.PROCESSING);
-            membership.setStripePaymentIntentId(intent.getId());
-            membershipRepo.save(membership);
-        } catch (StripeException e) {
-            handlePaymentError(membership, e);
-        }
+    public MembershipService(MembershipBatchRepository membershipBatchRepo,
+                             @Value("${application.charge.batch-size:100}") int batchSize) {
+        this.membershipBatchRepo = membershipBatchRepo;
+        this.batchSize = batchSize;
     }
 
+    /**
+     * Applies many webhook outcomes in one transaction with JDBC batches instead of a find + save per membership.
+     * Pass at most one result per membership (the newest); results older than the event already applied to a
+     * membership are not written.
+     *
+     * @return ids of memberships that were not updated: they no longer exist or already have a newer event
+     */
     @Transactional
-    public void handleSuccessfulPayment(Long membershipId, String paymentIntentId) {
-        Membership membership = membershipRepo.findById(membershipId)
-                .orElseThrow(() -> new RuntimeException("Membership not found"));
-
-        membership.setPaid(true);
-        membership.setPaymentStatus(Membership.PaymentStatus.SUCCEEDED);
-        membership.setFailedDate(null);
-        membership.setValid(true);
-        membership.setStripePaymentIntentId(paymentIntentId);
-        membershipRepo.save(membership);
-    }
-
-    @Transactional
-    public void handleFailedPayment(Long membershipId, String errorMessage) {
-        Membership membership = membershipRepo.findById(membershipId)
-                .orElseThrow(() -> new RuntimeException("Membership not found"));
-
-        membership.setPaid(false);
-        membership.setPaymentStatus(Membership.PaymentStatus.FAILED);
-        membership.setFailedDate(LocalDate.now());
-        membership.setValid(false);
-        membershipRepo.save(membership);
-
-        log.warn("Payment failed for membership {}: {}", membershipId, errorMessage);
-    }
-
-    private void handlePaymentError(Membership membership, Exception e) {
-        membership.setPaid(false);
-        membership.setPaymentStatus(Membership.PaymentStatus.FAILED);
-        membership.setFailedDate(LocalDate.now());
-        membership.setValid(false);
-        membershipRepo.save(membership);
-
-        log.error("Payment processing failed for membership {}: {}", membership.getId(), e.getMessage());
+    public List<Long> applyPaymentResults(List<PaymentResult> results) {
+        if (results.isEmpty()) {
+            return List.of();
+        }
+        int[] counts = membershipBatchRepo.applyPaymentResults(results, LocalDate.now(), batchSize);
+        List<Long> skipped = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            // SUCCESS_NO_INFO: 드라이버가 건수를 안 알려준 경우는 적용된 것으로 본다
+            if (counts[i] == 0) {
+                skipped.add(results.get(i).membershipId());
+            } else if (counts[i] != Statement.SUCCESS_NO_INFO && counts[i] != 1) {
+                log.warn("Unexpected update count {} for membership {}", counts[i], results.get(i).membershipId());
+            }
+        }
+        return skipped;
     }
 }
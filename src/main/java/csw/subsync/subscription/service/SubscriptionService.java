@@ -1,37 +1,47 @@
 package csw.subsync.subscription.service;
 
+import csw.subsync.common.dto.CursorPage;
 import csw.subsync.common.exception.GroupNotEmptyException;
 import csw.subsync.common.exception.GroupNotFoundException;
+import csw.subsync.subscription.cache.GroupSummaryCache;
+import csw.subsync.subscription.dto.GroupSummary;
+import csw.subsync.subscription.dto.SubscriptionGroupDto;
 import csw.subsync.subscription.model.Membership;
 import csw.subsync.subscription.model.PricingModel;
 import csw.subsync.subscription.model.SubscriptionGroup;
 import csw.subsync.subscription.repository.MembershipRepository;
 import csw.subsync.subscription.repository.SubscriptionGroupRepository;
 import csw.subsync.user.model.User;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.LockModeType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.Lock;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 
 @Slf4j
 @RequiredArgsConstructor
 @Service
 public class SubscriptionService {
+    static final int MAX_PAGE_SIZE = 100;
+
     private final SubscriptionGroupRepository subscriptionGroupRepo;
     private final MembershipRepository membershipRepo;
-    private final MembershipService membershipService;
-
-    private final RedisTemplate<Object, Object> redisTemplate;
+    private final MembershipChargePipeline chargePipeline;
+    private final ChargeQueueService chargeQueueService;
+    private final GroupSummaryCache groupSummaryCache;
+    private final GroupExpiryQueue groupExpiryQueue;
+    private final EntityManager entityManager;
 
     // 그룹 생성: 데이터 변경 작업이므로 트랜잭션 필요
     @Transactional
@@ -51,6 +61,7 @@ public class SubscriptionService {
         group.setPricingModel(pricingModel == null ? PricingModel.FIXED : pricingModel);
         group.setPriceAmount(priceAmount == null ? 0 : priceAmount);
         group.setPriceCurrency((priceCurrency == null || priceCurrency.isEmpty()) ? "USD" : priceCurrency);
+        group.setMemberCount(1); // owner
 
         subscriptionGroupRepo.save(group);
 
@@ -63,36 +74,42 @@ public class SubscriptionService {
         membershipRepo.save(ownerMembership);
         group.getMemberships().add(ownerMembership);
 
-        storeGroupInRedis(group); // Redis 캐싱
+        groupSummaryCache.invalidate(group.getId()); // 다음 조회 때 채워진다
+        groupExpiryQueue.schedule(group.getId(), group.getEndDate());
         return group;
     }
 
-    // 그룹 가입: 동시성 문제 해결을 위해 비관적 락 사용
-    @Transactional(isolation = Isolation.REPEATABLE_READ)
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    // 그룹 가입: 좌석 카운터를 조건부 UPDATE 로 예약 (멤버십 컬렉션을 로딩하지 않음, 비관적 락 불필요)
+    // REPEATABLE_READ 에서는 같은 행을 동시에 UPDATE 하면 직렬화 오류가 나므로 기본(READ_COMMITTED) 사용
+    @Transactional
     public SubscriptionGroup joinGroup(Long groupId, User user) {
-        SubscriptionGroup group = subscriptionGroupRepo.findByIdAndActiveTrueWithMemberships(groupId);
-        if (group == null) {
-            throw new RuntimeException("Group not found or inactive");
-        }
-        if (group.getMemberships().size() >= group.getMaxMembers()) {
-            throw new RuntimeException("Group is full");
-        }
-        if (membershipRepo.existsByUserAndSubscriptionGroup(user, group)) {
-            throw new RuntimeException("Already joined");
+        if (subscriptionGroupRepo.reserveSeat(groupId) == 0) {
+            // 실패한 경우에만 원인을 구분하기 위해 조회
+            boolean active = subscriptionGroupRepo.findById(groupId)
+                    .map(SubscriptionGroup::isActive)
+                    .orElse(false);
+            throw new RuntimeException(active ? "Group is full" : "Group not found or inactive");
         }
+        SubscriptionGroup group = subscriptionGroupRepo.findById(groupId)
+                .orElseThrow(() -> new RuntimeException("Group not found or inactive"));
 
         Membership m = new Membership();
         m.setUser(user);
         m.setSubscriptionGroup(group);
         m.setPaid(false);
         m.setValid(true);
-        membershipRepo.save(m);
+        try {
+            // uk_memberships_user_group 가 중복 가입을 막는다 (예약한 좌석은 롤백으로 반환)
+            membershipRepo.saveAndFlush(m);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("Already joined");
+        }
+        groupSummaryCache.invalidate(groupId); // member_count 변경
 
-        group.getMemberships().add(m);
-        if (group.getMemberships().size() == group.getMaxMembers()) {
+        if (group.getMemberCount() == group.getMaxMembers()) {
             notifyFullGroup(group);
-            chargeAllMembers(group.getId()); // Auto-trigger payments
+            // Stripe 호출은 이 트랜잭션 밖에서: 커밋되면 ChargeJobWorker 가 처리
+            chargeQueueService.enqueue(group.getId());
         }
 
         return group;
@@ -112,49 +129,94 @@ public class SubscriptionService {
 //        }
 
         // Ensure the group is empty or only contains the owner
-        User owner = group.getOwner();
-        if (group.getMemberships().stream().anyMatch(m -> !m.getUser().equals(owner))) {
+        // 프록시의 id 만 비교하므로 User 행은 읽지 않는다
+        Long ownerId = group.getOwner().getId();
+        if (group.getMemberships().stream().anyMatch(m -> !m.getUser().getId().equals(ownerId))) {
             throw new GroupNotEmptyException("Cannot delete group with other members");
         }
 
         membershipRepo.deleteAll(group.getMemberships());
         group.getMemberships().clear();
+        group.setMemberCount(0);
         group.setActive(false);
         subscriptionGroupRepo.save(group);
 
-        deleteGroupFromRedis(groupId); // Redis 캐싱 제거
+        groupSummaryCache.invalidate(groupId);
+        groupExpiryQueue.cancel(groupId);
     }
 
-    // 멤버십 요금 청구: 반복 작업에 대해 트랜잭션 분리
-    public void chargeAllMembers(Long groupId) {
-        SubscriptionGroup group = subscriptionGroupRepo.findByIdAndActiveTrueWithMemberships(groupId);
+    // 수동 청구 요청: joinGroup 이 가득 찬 그룹을 넘기는 것과 같은 charge_jobs 큐로 보낸다
+    @Transactional
+    public void requestCharge(Long groupId) {
+        if (!subscriptionGroupRepo.existsByIdAndActiveTrue(groupId)) {
+            throw new GroupNotFoundException("Group not found or inactive");
+        }
+        chargeQueueService.enqueue(groupId);
+    }
+
+    // 멤버십 요금 청구: Stripe 호출은 병렬로, 상태 저장은 JDBC 배치로 (파이프라인 참고)
+    public MembershipChargePipeline.ChargeReport chargeAllMembers(Long groupId) {
+        return chargeMembers(groupId, null);
+    }
+
+    // membershipIds 가 null 이면 그룹 전체, 아니면 그 멤버만 (앞선 실행에서 Stripe 장애로 미뤄진 멤버)
+    public MembershipChargePipeline.ChargeReport chargeMembers(Long groupId, Collection<Long> membershipIds) {
+        SubscriptionGroup group = subscriptionGroupRepo.findForChargeById(groupId);
         if (group == null) {
             throw new GroupNotFoundException("Group not found or inactive");
         }
+        // 파이프라인은 상태/version 을 JDBC 로 갱신한다. 호출자 트랜잭션 안에서 관리 상태로
+        // 두면 커밋 시 flush 가 낡은 version 으로 UPDATE 하다 낙관적 락 실패가 난다 (Stripe 호출은 이미 나간 뒤)
+        // memberships 는 CascadeType.ALL 이라 함께 분리된다
+        entityManager.detach(group);
 
-        // TODO: batch, if I wanna support more than...1000 members
-        group.getMemberships().forEach(membershipService::processMembershipPayment);
-//        group.getMemberships().forEach(member -> membershipService.chargeMember(member, group));
+        return chargePipeline.charge(group, membershipIds);
     }
 
 
+    // 그룹 요약 조회: near cache -> Redis -> DB 순 (GroupSummaryCache 참고)
+    public GroupSummary getGroupSummary(Long groupId) {
+        GroupSummary summary = groupSummaryCache.get(groupId);
+        if (summary == null) {
+            throw new GroupNotFoundException("Group not found");
+        }
+        return summary;
+    }
+
+    // 내가 속한 그룹 목록 (소유 그룹 포함: 소유자도 멤버십을 가진다), id 내림차순 keyset 페이지
+    @Transactional(readOnly = true)
+    public CursorPage<SubscriptionGroupDto> getMyGroups(Long userId, Long cursor, int size) {
+        int pageSize = clampPageSize(size);
+        return CursorPage.of(
+                subscriptionGroupRepo.findMyGroups(userId, startOf(cursor), Limit.of(pageSize + 1)),
+                pageSize, SubscriptionGroupDto::getId);
+    }
+
+    // 빈 자리가 있는 활성 그룹 목록, id 내림차순 keyset 페이지
+    @Transactional(readOnly = true)
+    public CursorPage<SubscriptionGroupDto> getOpenGroups(Long cursor, int size) {
+        int pageSize = clampPageSize(size);
+        return CursorPage.of(
+                subscriptionGroupRepo.findOpenGroups(startOf(cursor), Limit.of(pageSize + 1)),
+                pageSize, SubscriptionGroupDto::getId);
+    }
+
     // 만료된 그룹 조회: 단순 조회 최적화
     @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<SubscriptionGroup> getExpiredGroups(LocalDate today) {
         return subscriptionGroupRepo.findExpiredGroups(today);
     }
 
-    private void notifyFullGroup(SubscriptionGroup group) {
-        // send mail or push
+    private static int clampPageSize(int size) {
+        return Math.clamp(size, 1, MAX_PAGE_SIZE);
     }
 
-    private void storeGroupInRedis(SubscriptionGroup group) {
-        String key = "subscription:" + group.getId();
-        redisTemplate.opsForValue().set(key, group.getId(), 35, TimeUnit.DAYS); // 35 days expiration
+    // 첫 페이지는 커서 없이 요청한다
+    private static long startOf(Long cursor) {
+        return cursor != null ? cursor : Long.MAX_VALUE;
     }
 
-    private void deleteGroupFromRedis(Long groupId) {
-        String key = "subscription:" + groupId;
-        redisTemplate.delete(key);
+    private void notifyFullGroup(SubscriptionGroup group) {
+        // send mail or push
     }
 }
\ No newline at end of file
@@ -23,7 +23,7 @@ public class AuthController implements AuthControllerDoc {
     }
 
     @Override
-    @RateLimit(key = "register", permitsPerSecond = 1, tolerance = 1000) // 1 req/sec, 1 sec tolerance
+    @RateLimit(key = "register", permitsPerSecond = 1, tolerance = 1000, backend = RateLimit.Backend.REDIS) // 1 req/sec, 1 sec tolerance, shared by all instances
     @PostMapping("/register")
     public ResponseEntity<Void> register(
             @RequestBody UserRegisterRequest request
@@ -16,6 +16,15 @@ public sealed interface Role permits AdminRole, ManagerRole, UserRole {
     String name();
     Set<Permission> permissions();
 
+    static Role of(String name) {
+        return switch (name) {
+            case "ADMIN" -> ADMIN;
+            case "MANAGER" -> MANAGER;
+            case "USER" -> USER;
+            default -> throw new IllegalArgumentException("Unknown role: " + name);
+        };
+    }
+
     default List<SimpleGrantedAuthority> getAuthorities() {
         List<SimpleGrantedAuthority> authorities = new ArrayList<>();
         authorities.add(new SimpleGrantedAuthority("ROLE_" + name()));
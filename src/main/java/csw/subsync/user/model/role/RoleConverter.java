@@ -12,11 +12,6 @@ public class RoleConverter implements AttributeConverter<Role, String> {
 
     @Override
     public Role convertToEntityAttribute(String dbData) {
-        return switch (dbData) {
-            case "ADMIN" -> new AdminRole();
-            case "MANAGER" -> new ManagerRole();
-            case "USER" -> new UserRole();
-            default -> throw new IllegalArgumentException("Unknown role: " + dbData);
-        };
+        return dbData != null ? Role.of(dbData) : null;
     }
 }
\ No newline at end of file
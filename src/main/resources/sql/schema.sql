@@ -1,6 +1,10 @@
+-- ID 는 Hibernate pooled 시퀀스로 할당한다: INCREMENT BY 는 엔티티의 allocationSize(50) 와 같아야 한다
+-- (IDENTITY/BIGSERIAL 은 INSERT 마다 키를 돌려받아야 해서 JDBC 배치가 꺼진다)
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+
 -- Create the "users" table
 CREATE TABLE users (
-                       id BIGSERIAL PRIMARY KEY,
+                       id BIGINT PRIMARY KEY,
                        username VARCHAR(50) NOT NULL,
                        email VARCHAR(100) NOT NULL,
                        password VARCHAR(255) NOT NULL,
@@ -31,10 +35,13 @@ ALTER TABLE users ADD CONSTRAINT uk_users_email UNIQUE (email);
 --  1) subscription_groups
 -- =====================================================================
 
+CREATE SEQUENCE IF NOT EXISTS subscription_groups_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS subscription_groups (
-                                                   id              BIGSERIAL       PRIMARY KEY,
+                                                   id              BIGINT          PRIMARY KEY,
                                                    title           VARCHAR(100)    NOT NULL,
                                                    max_members     INT,
+                                                   member_count    INT             NOT NULL DEFAULT 0,
                                                    duration_days   INT             CHECK (duration_days BETWEEN 1 AND 30),
                                                    start_date      DATE,
                                                    end_date        DATE,
@@ -42,9 +49,15 @@ CREATE TABLE IF NOT EXISTS subscription_groups (
                                                    owner_id        BIGINT,
                                                    price_amount    INT,
                                                    price_currency  VARCHAR(3),
-                                                   pricing_model   VARCHAR(50)
+                                                   pricing_model   VARCHAR(50),
+                                                   CONSTRAINT ck_sub_groups_member_count
+                                                       CHECK (member_count >= 0 AND member_count <= max_members)
 );
 
+-- 기존 DB: member_count 이전에 만든 테이블. 값은 아래 memberships 마이그레이션에서 채우고 CHECK 도 그 뒤에 건다
+ALTER TABLE subscription_groups
+    ADD COLUMN IF NOT EXISTS member_count INT NOT NULL DEFAULT 0;
+
 -- Indexes for subscription_groups
 CREATE INDEX IF NOT EXISTS idx_sub_groups_active
     ON subscription_groups (active);
@@ -52,6 +65,11 @@ CREATE INDEX IF NOT EXISTS idx_sub_groups_active
 CREATE INDEX IF NOT EXISTS idx_sub_groups_owner_id
     ON subscription_groups (owner_id);
 
+-- "빈 자리 있는 그룹" keyset 목록 (id DESC 로 읽고 id < cursor 로 이어감); 가득 찬/비활성 그룹은 인덱스에 없음
+CREATE INDEX IF NOT EXISTS idx_sub_groups_open
+    ON subscription_groups (id DESC)
+    WHERE active AND member_count < max_members;
+
 -- Foreign key to users table (assuming "users(id)" is the PK in your User entity)
 ALTER TABLE subscription_groups
     ADD CONSTRAINT fk_sub_groups_owner
@@ -64,8 +82,10 @@ ALTER TABLE subscription_groups
 --  2) memberships
 -- =====================================================================
 
+CREATE SEQUENCE IF NOT EXISTS memberships_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS memberships (
-                                           id                       BIGSERIAL       PRIMARY KEY,
+                                           id                       BIGINT          PRIMARY KEY,
                                            paid                     BOOLEAN         NOT NULL DEFAULT FALSE,
                                            valid                    BOOLEAN         NOT NULL DEFAULT TRUE,
                                            failed_date              DATE,
@@ -73,7 +93,8 @@ CREATE TABLE IF NOT EXISTS memberships (
                                            subscription_group_id    BIGINT,
                                            payment_status           VARCHAR(50),    -- Alternatively, define a PostgreSQL ENUM type
                                            stripe_payment_intent_id VARCHAR(255),
-                                           stripe_order_id VARCHAR(255) UNIQUE
+                                           stripe_order_id          UUID            NOT NULL UNIQUE,  -- UUIDv7 (OrderIds), time-ordered
+                                           last_payment_event_at    TIMESTAMPTZ                       -- created of the last applied Stripe payment event
 );
 
 -- Indexes for memberships
@@ -83,6 +104,11 @@ CREATE INDEX IF NOT EXISTS idx_memberships_user_id
 CREATE INDEX IF NOT EXISTS idx_memberships_subscription_group_id
     ON memberships (subscription_group_id);
 
+-- Nightly purge of unpaid memberships (InvalidMemberPurgeJob) walks this instead of scanning the table
+CREATE INDEX IF NOT EXISTS idx_memberships_purge
+    ON memberships (failed_date)
+    WHERE valid = false AND paid = false;
+
 -- Foreign keys
 ALTER TABLE memberships
     ADD CONSTRAINT fk_memberships_user
@@ -96,6 +122,94 @@ ALTER TABLE memberships
             REFERENCES subscription_groups (id)
             ON DELETE CASCADE;   -- This ensures memberships are removed if the parent subscription group is deleted
 
+-- One membership per user per group; joinGroup relies on this instead of a pre-check query.
+-- One-shot migration, guarded on the constraint so re-running the script is a no-op:
+--   1. drop duplicate rows left by the old join race (keep the paid one, else the oldest)
+--   2. add the constraint
+--   3. backfill the seat counter for groups created before member_count existed
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_memberships_user_group') THEN
+        DELETE FROM memberships
+        WHERE id IN (SELECT id
+                     FROM (SELECT id,
+                                  row_number() OVER (PARTITION BY user_id, subscription_group_id
+                                                     ORDER BY paid DESC, id) AS rn
+                           FROM memberships) d
+                     WHERE d.rn > 1);
+
+        ALTER TABLE memberships
+            ADD CONSTRAINT uk_memberships_user_group UNIQUE (user_id, subscription_group_id);
+
+        UPDATE subscription_groups g
+        SET member_count = (SELECT count(*) FROM memberships m WHERE m.subscription_group_id = g.id);
+    END IF;
+END $$;
+
+-- Seat counter bounds, added once the counter is backfilled. Groups the old join race overbooked are reported and
+-- their max_members raised to fit, rather than dropping paying members.
+DO $$
+DECLARE
+    g RECORD;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'ck_sub_groups_member_count') THEN
+        FOR g IN SELECT id, member_count, max_members FROM subscription_groups WHERE member_count > max_members LOOP
+            RAISE WARNING 'subscription group % is overbooked: % members, max_members %; raising max_members',
+                g.id, g.member_count, g.max_members;
+        END LOOP;
+
+        UPDATE subscription_groups
+        SET max_members = member_count
+        WHERE member_count > max_members;
+
+        ALTER TABLE subscription_groups
+            ADD CONSTRAINT ck_sub_groups_member_count CHECK (member_count >= 0 AND member_count <= max_members);
+    END IF;
+END $$;
+
+
+-- =====================================================================
+--  3) charge_jobs (outbox for group charges, drained by ChargeJobWorker)
+-- =====================================================================
+
+CREATE TABLE IF NOT EXISTS charge_jobs (
+                                           id              BIGSERIAL       PRIMARY KEY,
+                                           group_id        BIGINT          NOT NULL,
+                                           status          VARCHAR(20)     NOT NULL,
+                                           attempts        INT             NOT NULL DEFAULT 0,
+                                           available_at    TIMESTAMPTZ     NOT NULL,
+                                           locked_at       TIMESTAMPTZ,
+                                           created_at      TIMESTAMPTZ     NOT NULL,
+                                           last_error      VARCHAR(500),
+                                           deferred_member_ids BIGINT[]                     -- NULL: whole group; else only these memberships
+);
+
+-- Workers poll by (status, available_at) with FOR UPDATE SKIP LOCKED
+CREATE INDEX IF NOT EXISTS idx_charge_jobs_status_available_at
+    ON charge_jobs (status, available_at);
+
+CREATE INDEX IF NOT EXISTS idx_charge_jobs_group_id
+    ON charge_jobs (group_id);
+
+-- =====================================================================
+--  4) stripe_webhook_events (inbox for verified webhooks, drained by StripeWebhookWorker)
+-- =====================================================================
+
+CREATE TABLE IF NOT EXISTS stripe_webhook_events (
+                                           event_id        VARCHAR(255)    PRIMARY KEY,   -- Stripe evt_...; redeliveries conflict here
+                                           type            VARCHAR(100)    NOT NULL,
+                                           payload         TEXT            NOT NULL,
+                                           status          VARCHAR(20)     NOT NULL,
+                                           attempts        INT             NOT NULL DEFAULT 0,
+                                           available_at    TIMESTAMPTZ     NOT NULL,
+                                           locked_at       TIMESTAMPTZ,
+                                           received_at     TIMESTAMPTZ     NOT NULL,
+                                           processed_at    TIMESTAMPTZ,
+                                           last_error      VARCHAR(500)
+);
+
+CREATE INDEX IF NOT EXISTS idx_stripe_webhook_events_status_available_at
+    ON stripe_webhook_events (status, available_at);
 
 CREATE TABLE predefined_subscriptions (
                                           id BIGSERIAL PRIMARY KEY,
@@ -107,4 +221,56 @@ CREATE TABLE predefined_subscriptions (
 -- Explicitly creating a unique index on the 'name' column.
 -- While the UNIQUE constraint on 'name' already creates a unique index,
 -- this statement makes it explicit and allows for naming the index.
-CREATE UNIQUE INDEX idx_predefined_subscriptions_name ON predefined_subscriptions (name);
\ No newline at end of file
+CREATE UNIQUE INDEX idx_predefined_subscriptions_name ON predefined_subscriptions (name);
+
+
+-- =====================================================================
+--  5) BIGSERIAL -> pooled 시퀀스 전환 (기존 DB)
+-- =====================================================================
+
+-- 예전 serial 기본값이 남아 있으면 Hibernate 가 할당한 범위와 겹칠 수 있으니 제거
+ALTER TABLE users ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE subscription_groups ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE memberships ALTER COLUMN id DROP DEFAULT;
+
+-- pooled 최적화기는 nextval 값을 범위의 끝으로 쓴다 (nextval - 49 .. nextval): 기존 최대 id 뒤에서 시작하도록 맞춘다
+SELECT setval('users_seq', GREATEST((SELECT MAX(id) FROM users), 1));
+SELECT setval('subscription_groups_seq', GREATEST((SELECT MAX(id) FROM subscription_groups), 1));
+SELECT setval('memberships_seq', GREATEST((SELECT MAX(id) FROM memberships), 1));
+
+
+-- =====================================================================
+--  6) stripe_order_id VARCHAR(255) -> uuid (기존 DB)
+-- =====================================================================
+
+-- 기존 값은 UUID.randomUUID().toString() 이라 그대로 캐스팅된다. 16바이트 고정 폭이라 유니크 인덱스도 절반 이하로 준다.
+-- 새 값은 UUIDv7 이라 인덱스 오른쪽 끝에 쌓인다 (캐스팅이 테이블과 인덱스를 다시 쓰므로 기존 부풀림도 함께 정리된다).
+ALTER TABLE memberships
+    ALTER COLUMN stripe_order_id TYPE uuid USING stripe_order_id::uuid;
+
+-- 예전엔 결제 시점에 채웠으므로 한 번도 청구되지 않은 행은 NULL 이다. 지금은 INSERT 때 발급하니 채운 뒤 NOT NULL 로 막는다
+-- (gen_random_uuid 는 v4 라 시간순이 아니지만 기존 행 한 번뿐이다)
+UPDATE memberships
+SET stripe_order_id = gen_random_uuid()
+WHERE stripe_order_id IS NULL;
+
+ALTER TABLE memberships
+    ALTER COLUMN stripe_order_id SET NOT NULL;
+
+
+-- =====================================================================
+--  7) memberships.last_payment_event_at (기존 DB)
+-- =====================================================================
+
+-- 웹훅 결과는 Stripe 이벤트의 created 가 이것보다 새로울 때만 적용된다 (배치 사이의 순서 뒤바뀜 방지)
+ALTER TABLE memberships
+    ADD COLUMN IF NOT EXISTS last_payment_event_at TIMESTAMPTZ;
+
+
+-- =====================================================================
+--  8) charge_jobs.deferred_member_ids (기존 DB)
+-- =====================================================================
+
+-- Stripe 장애로 미뤄진 실행은 남은 멤버만 다시 청구한다 (NULL 이면 그룹 전체)
+ALTER TABLE charge_jobs
+    ADD COLUMN IF NOT EXISTS deferred_member_ids BIGINT[];
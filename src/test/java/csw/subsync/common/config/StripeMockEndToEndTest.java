@@ -0,0 +1,206 @@
+package csw.subsync.common.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import csw.subsync.payment.controller.StripeWebhookController;
+import csw.subsync.payment.model.StripeWebhookEvent;
+import csw.subsync.payment.repository.StripeWebhookEventRepository;
+import csw.subsync.payment.service.*;
+import csw.subsync.scheduler.StripeWebhookWorker;
+import csw.subsync.subscription.model.Membership;
+import csw.subsync.subscription.model.SubscriptionGroup;
+import csw.subsync.subscription.repository.MembershipBatchRepository;
+import csw.subsync.subscription.service.MembershipChargePipeline;
+import csw.subsync.subscription.service.MembershipChargePipeline.ChargeReport;
+import csw.subsync.subscription.service.MembershipService;
+import csw.subsync.support.H2JpaTest;
+import csw.subsync.support.JpaTestSupport;
+import csw.subsync.support.TestFixtures;
+import csw.subsync.user.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * The whole charge loop against {@link StripeMockServer}: {@link MembershipChargePipeline} →
+ * {@link PaymentService} → mock Stripe → signed webhook → {@link StripeWebhookController} → inbox →
+ * {@link StripeWebhookWorker} → membership status, for a group with a few hundred members.
+ */
+@H2JpaTest(properties = "stripe.webhook-secret=" + StripeMockEndToEndTest.WEBHOOK_SECRET)
+@Import({StripeMockEndToEndTest.StripeMockBeans.class, StripeService.class, StripeCircuitBreaker.class,
+        PaymentService.class, MembershipBatchRepository.class, MembershipChargePipeline.class, MembershipService.class,
+        WebhookInboxService.class, StripeWebhookProcessor.class, StripeWebhookWorker.class,
+        StripeWebhookController.class})
+class StripeMockEndToEndTest extends JpaTestSupport {
+
+    static final String WEBHOOK_SECRET = "whsec_test";
+    private static final int MEMBERS = 300;
+
+    private static HttpServer receiver;
+    private static StripeMockServer mock;
+    private static volatile StripeWebhookController controller;
+
+    @Autowired
+    private MembershipChargePipeline chargePipeline;
+    @Autowired
+    private StripeWebhookController webhookController;
+    @MockitoSpyBean
+    private StripeWebhookEventRepository eventRepo;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private WebhookDeduplicator webhookDeduplicator; // Redis; the inbox primary key still drops redeliveries
+
+    @BeforeAll
+    static void startStripe() throws IOException {
+        // /stripe/webhook 대신: 받은 그대로 컨트롤러에 넘긴다
+        receiver = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        receiver.createContext("/stripe/webhook", exchange -> {
+            try (exchange) {
+                String payload = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                StripeWebhookController target = controller;
+                int status;
+                try {
+                    status = target == null ? 503 : target.handleWebhook(payload,
+                            exchange.getRequestHeaders().getFirst("Stripe-Signature")).getStatusCode().value();
+                } catch (RuntimeException e) {
+                    status = 500; // the mock retries like Stripe does
+                }
+                exchange.sendResponseHeaders(status, -1);
+            }
+        });
+        receiver.start();
+
+        URI webhookUrl = URI.create("http://127.0.0.1:" + receiver.getAddress().getPort() + "/stripe/webhook");
+        mock = new StripeMockServer(new StripeMockServer.Settings(0, Duration.ZERO, Duration.ofMillis(5), 0, 0.1,
+                webhookUrl, WEBHOOK_SECRET, Duration.ZERO), new ObjectMapper());
+        mock.start();
+    }
+
+    @AfterAll
+    static void stopStripe() {
+        mock.close();
+        receiver.stop(0);
+    }
+
+    @BeforeEach
+    void setUp() {
+        // H2 has no ON CONFLICT; the mock sends every event once, so a plain guarded insert behaves the same here
+        doAnswer(invocation -> jdbcTemplate.update(
+                "INSERT INTO stripe_webhook_events (event_id, type, payload, status, attempts, available_at, received_at) " +
+                        "SELECT ?, ?, ?, 'PENDING', 0, ?, ? " +
+                        "WHERE NOT EXISTS (SELECT 1 FROM stripe_webhook_events WHERE event_id = ?)",
+                invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2),
+                Timestamp.from(invocation.getArgument(3)), Timestamp.from(invocation.getArgument(3)),
+                invocation.getArgument(0)))
+                .when(eventRepo).insertIfAbsent(any(), any(), any(), any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        controller = null;
+        eventRepo.deleteAllInBatch();
+    }
+
+    @Test
+    void chargeGroup_webhooksSettleEveryMembership() throws InterruptedException {
+        controller = webhookController;
+        SubscriptionGroup group = groupWithMembers(MEMBERS);
+
+        ChargeReport report = chargePipeline.charge(group);
+
+        assertEquals(MEMBERS, report.processingCount() + report.failedCount());
+        assertEquals(0, report.deferredCount());
+        assertEquals(mock.stats().declines(), report.failedCount());
+
+        Map<Membership.PaymentStatus, Long> statuses = awaitSettled(Duration.ofSeconds(30));
+        assertEquals(report.processingCount(), statuses.getOrDefault(Membership.PaymentStatus.SUCCEEDED, 0L));
+        assertEquals(report.failedCount(), statuses.getOrDefault(Membership.PaymentStatus.FAILED, 0L));
+        for (Membership m : membershipRepo.findAll()) {
+            boolean succeeded = m.getPaymentStatus() == Membership.PaymentStatus.SUCCEEDED;
+            assertEquals(succeeded, m.isPaid(), "membership " + m.getId());
+            assertEquals(succeeded, m.isValid(), "membership " + m.getId());
+            assertNotNull(m.getLastPaymentEventAt(), "settled by the webhook, membership " + m.getId());
+        }
+
+        List<StripeWebhookEvent> events = eventRepo.findAll();
+        assertEquals(MEMBERS, events.size(), "one webhook per payment intent");
+        assertTrue(events.stream().allMatch(e -> e.getStatus() == StripeWebhookEvent.Status.DONE));
+        assertEquals(0, mock.stats().webhooksFailed());
+    }
+
+    private Map<Membership.PaymentStatus, Long> awaitSettled(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            List<Membership> memberships = membershipRepo.findAll();
+            boolean settled = memberships.stream().allMatch(m -> m.getLastPaymentEventAt() != null)
+                    && eventRepo.findAll().stream().allMatch(e -> e.getStatus() == StripeWebhookEvent.Status.DONE);
+            if (settled) {
+                return memberships.stream()
+                        .collect(Collectors.groupingBy(Membership::getPaymentStatus, Collectors.counting()));
+            }
+            if (System.nanoTime() > deadline) {
+                fail("Webhooks did not settle every membership within " + timeout);
+            }
+            Thread.sleep(100);
+        }
+    }
+
+    private SubscriptionGroup groupWithMembers(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(TestFixtures.payingUser("member" + i));
+        }
+        userRepository.saveAll(users);
+
+        SubscriptionGroup group = TestFixtures.group("e2e", users.get(0), count, count);
+        group.setPriceAmount(1500);
+        group.setPriceCurrency("JPY");
+        subscriptionGroupRepo.save(group);
+
+        membershipRepo.saveAll(users.stream().map(user -> TestFixtures.membership(group, user)).toList());
+        return subscriptionGroupRepo.findForChargeById(group.getId()); // detached, like chargeAllMembers
+    }
+
+    @TestConfiguration
+    static class StripeMockBeans {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean(destroyMethod = "destroy")
+        StripeGateway stripeGateway(MeterRegistry meterRegistry) {
+            return new StripeGateway("sk_test_mock", mock.baseUrl(), Duration.ofSeconds(1), Duration.ofSeconds(5), 0,
+                    Duration.ofSeconds(10), 32, Duration.ofSeconds(5), meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package csw.subsync.common.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stripe.exception.ApiException;
+import com.stripe.exception.CardException;
+import com.stripe.model.Customer;
+import com.stripe.model.Event;
+import com.stripe.model.PaymentIntent;
+import com.stripe.model.SetupIntent;
+import com.stripe.net.Webhook;
+import com.sun.net.httpserver.HttpServer;
+import csw.subsync.payment.service.StripeGateway;
+import csw.subsync.payment.service.StripeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives {@link StripeService} through the real {@link StripeGateway} against {@link StripeMockServer}, with a local
+ * receiver standing in for {@code /stripe/webhook}.
+ */
+class StripeMockServerTest {
+
+    private static final String WEBHOOK_SECRET = "whsec_test";
+
+    private HttpServer receiver;
+    private final BlockingQueue<String[]> webhooks = new LinkedBlockingQueue<>();
+    private StripeMockServer mock;
+    private StripeGateway gateway;
+    private StripeService stripeService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        receiver = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        receiver.createContext("/stripe/webhook", exchange -> {
+            String payload = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            webhooks.add(new String[]{payload, exchange.getRequestHeaders().getFirst("Stripe-Signature")});
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        receiver.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (gateway != null) {
+            gateway.destroy();
+        }
+        if (mock != null) {
+            mock.close();
+        }
+        receiver.stop(0);
+    }
+
+    @Test
+    void customerAndSetupIntent_deliversSignedSetupWebhook() throws Exception {
+        start(0, 0);
+
+        Customer customer = stripeService.createCustomer("member@example.com");
+        SetupIntent setupIntent = stripeService.createSetupIntent(customer.getId(), 7L);
+        stripeService.setDefaultPaymentMethod(customer.getId(), setupIntent.getPaymentMethod());
+
+        assertTrue(customer.getId().startsWith("cus_"));
+        assertEquals("member@example.com", customer.getEmail());
+        assertNotNull(setupIntent.getClientSecret());
+
+        Event event = nextWebhook();
+        assertEquals("setup_intent.succeeded", event.getType());
+        SetupIntent delivered = (SetupIntent) event.getData().getObject();
+        assertEquals(customer.getId(), delivered.getCustomer());
+        assertEquals("7", delivered.getMetadata().get("user_id"));
+        assertEquals(setupIntent.getPaymentMethod(), delivered.getPaymentMethod());
+    }
+
+    @Test
+    void paymentIntent_succeeds_onceAcrossIdempotentRetries() throws Exception {
+        start(0, 0);
+        Map<String, String> metadata = Map.of("membership_id", "5", "group_id", "1", "order_id", "order-5");
+
+        PaymentIntent first = stripeService.createPaymentIntent(1500, "JPY", "cus_1", "pm_1", metadata);
+        PaymentIntent replay = stripeService.createPaymentIntent(1500, "JPY", "cus_1", "pm_1", metadata);
+
+        assertEquals("succeeded", first.getStatus());
+        assertEquals(first.getId(), replay.getId());
+
+        Event event = nextWebhook();
+        assertEquals("payment_intent.succeeded", event.getType());
+        PaymentIntent delivered = (PaymentIntent) event.getData().getObject();
+        assertEquals(first.getId(), delivered.getId());
+        assertEquals("5", delivered.getMetadata().get("membership_id"));
+        assertNull(webhooks.poll(300, TimeUnit.MILLISECONDS), "replayed request must not send a second webhook");
+    }
+
+    @Test
+    void paymentIntent_declined_throwsCardErrorAndDeliversFailure() throws Exception {
+        start(0, 1);
+
+        CardException declined = assertThrows(CardException.class, () -> stripeService.createPaymentIntent(
+                1500, "JPY", "cus_1", "pm_1", Map.of("membership_id", "6", "order_id", "order-6")));
+        assertEquals("card_declined", declined.getCode());
+
+        Event event = nextWebhook();
+        assertEquals("payment_intent.payment_failed", event.getType());
+        PaymentIntent delivered = (PaymentIntent) event.getData().getObject();
+        assertEquals("6", delivered.getMetadata().get("membership_id"));
+        assertEquals("Your card was declined.", delivered.getLastPaymentError().getMessage());
+        assertEquals(1, mock.stats().declines());
+    }
+
+    @Test
+    void injectedErrors_surfaceAsApiException() throws Exception {
+        start(1, 0);
+
+        assertThrows(ApiException.class, () -> stripeService.createCustomer("member@example.com"));
+        assertEquals(1, mock.stats().injectedErrors());
+    }
+
+    private void start(double errorRate, double declineRate) throws IOException {
+        URI webhookUrl = URI.create("http://127.0.0.1:" + receiver.getAddress().getPort() + "/stripe/webhook");
+        mock = new StripeMockServer(new StripeMockServer.Settings(0, Duration.ZERO, Duration.ZERO, errorRate,
+                declineRate, webhookUrl, WEBHOOK_SECRET, Duration.ZERO), new ObjectMapper());
+        mock.start();
+        gateway = new StripeGateway("sk_test_mock", mock.baseUrl(), Duration.ofSeconds(1), Duration.ofSeconds(5), 0,
+                Duration.ofSeconds(10), 8, Duration.ofSeconds(1), new SimpleMeterRegistry());
+        stripeService = new StripeService(gateway);
+    }
+
+    private Event nextWebhook() throws Exception {
+        String[] delivery = webhooks.poll(5, TimeUnit.SECONDS);
+        assertNotNull(delivery, "webhook not delivered");
+        return Webhook.constructEvent(delivery[0], delivery[1], WEBHOOK_SECRET); // 서명 검증 포함
+    }
+}
@@ -0,0 +1,54 @@
+package csw.subsync.common.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataSourceRoutingConfigTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class))
+            .withUserConfiguration(DataSourceRoutingConfig.class)
+            .withInitializer(context -> context.getBeanFactory() // SpringApplication 처럼 "5s" -> Duration 변환
+                    .setConversionService(ApplicationConversionService.getSharedInstance()))
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+            .withPropertyValues(
+                    "spring.datasource.url=jdbc:h2:mem:routing-primary",
+                    "spring.datasource.username=sa",
+                    "spring.datasource.hikari.maximum-pool-size=7");
+
+    @Test
+    void withoutReplicaUrl_bootsSinglePool() {
+        runner.run(context -> {
+            assertInstanceOf(HikariDataSource.class, context.getBean(DataSource.class));
+            assertFalse(context.containsBean("replicaDataSource"));
+        });
+    }
+
+    @Test
+    void withReplicaUrl_routesThroughLazyProxyWithSeparatePools() {
+        runner.withPropertyValues(
+                        "spring.datasource.read.url=jdbc:h2:mem:routing-replica",
+                        "spring.datasource.read.hikari.maximum-pool-size=3")
+                .run(context -> {
+                    assertInstanceOf(LazyConnectionDataSourceProxy.class, context.getBean(DataSource.class));
+
+                    HikariDataSource primary = context.getBean("primaryDataSource", HikariDataSource.class);
+                    HikariDataSource replica = context.getBean("replicaDataSource", HikariDataSource.class);
+                    assertEquals(7, primary.getMaximumPoolSize());
+                    assertEquals(3, replica.getMaximumPoolSize());
+                    assertEquals("sa", replica.getUsername()); // primary 계정을 그대로 쓴다
+                    assertTrue(replica.isReadOnly());
+                });
+    }
+}
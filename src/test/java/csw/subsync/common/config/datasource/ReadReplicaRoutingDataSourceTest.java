@@ -0,0 +1,118 @@
+package csw.subsync.common.config.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Two in-memory databases whose single row says which one answered.
+ */
+class ReadReplicaRoutingDataSourceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private DataSource primary;
+    private DataSource replica;
+    private ReplicaLagMonitor lagMonitor;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        lagMonitor = new ReplicaLagMonitor(mock(JdbcTemplate.class), Duration.ofSeconds(5), meterRegistry);
+    }
+
+    @Test
+    void readOnlyTransaction_goesToReplica() {
+        Routed routed = routed(replica);
+
+        assertEquals("replica", routed.read(true, TransactionDefinition.PROPAGATION_REQUIRED));
+        assertEquals("replica", routed.read(true, TransactionDefinition.PROPAGATION_SUPPORTS));
+    }
+
+    @Test
+    void readWriteTransactionAndNoTransaction_goToPrimary() {
+        Routed routed = routed(replica);
+
+        assertEquals("primary", routed.read(false, TransactionDefinition.PROPAGATION_REQUIRED));
+        assertEquals("primary", routed.jdbc.queryForObject("SELECT name FROM source", String.class));
+    }
+
+    @Test
+    void readOnlyJoiningReadWriteTransaction_staysOnPrimary() {
+        Routed routed = routed(replica);
+
+        String name = routed.transaction(false, TransactionDefinition.PROPAGATION_REQUIRED)
+                .execute(status -> routed.read(true, TransactionDefinition.PROPAGATION_REQUIRED));
+
+        assertEquals("primary", name);
+    }
+
+    @Test
+    void replicaMarkedDown_readsFallBackToPrimary() {
+        Routed routed = routed(replica);
+        lagMonitor.markDown(new IllegalStateException("lagging"));
+
+        assertEquals("primary", routed.read(true, TransactionDefinition.PROPAGATION_REQUIRED));
+        assertEquals(1.0, meterRegistry.get("subsync.datasource.replica.fallback").counter().count());
+    }
+
+    @Test
+    void replicaUnreachable_fallsBackToPrimaryAndMarksDown() {
+        // IFEXISTS: 없는 DB 라 연결이 실패한다
+        Routed routed = routed(new DriverManagerDataSource("jdbc:h2:mem:missing-" + UUID.randomUUID() + ";IFEXISTS=TRUE", "sa", ""));
+
+        assertEquals("primary", routed.read(true, TransactionDefinition.PROPAGATION_REQUIRED));
+        assertFalse(lagMonitor.isReplicaUsable());
+    }
+
+    private Routed routed(DataSource replicaTarget) {
+        ReadReplicaRoutingDataSource routing = new ReadReplicaRoutingDataSource(primary, replicaTarget, lagMonitor,
+                meterRegistry);
+        routing.afterPropertiesSet();
+        return new Routed(new LazyConnectionDataSourceProxy(routing));
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE source (name VARCHAR(20))");
+        jdbc.update("INSERT INTO source VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static final class Routed {
+        private final JdbcTemplate jdbc;
+        private final DataSourceTransactionManager transactionManager;
+
+        private Routed(DataSource dataSource) {
+            this.jdbc = new JdbcTemplate(dataSource);
+            this.transactionManager = new DataSourceTransactionManager(dataSource);
+        }
+
+        String read(boolean readOnly, int propagation) {
+            return transaction(readOnly, propagation)
+                    .execute(status -> jdbc.queryForObject("SELECT name FROM source", String.class));
+        }
+
+        TransactionTemplate transaction(boolean readOnly, int propagation) {
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            template.setReadOnly(readOnly);
+            template.setPropagationBehavior(propagation);
+            return template;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package csw.subsync.common.config.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaLagMonitorTest {
+
+    private final JdbcTemplate replicaJdbc = mock(JdbcTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReplicaLagMonitor monitor = new ReplicaLagMonitor(replicaJdbc, Duration.ofSeconds(5), meterRegistry);
+
+    @Test
+    void check_lagAboveMax_takesReplicaOutUntilItCatchesUp() {
+        when(replicaJdbc.queryForObject(eq(ReplicaLagMonitor.LAG_SQL), eq(Double.class))).thenReturn(12.0);
+        monitor.check();
+        assertFalse(monitor.isReplicaUsable());
+        assertEquals(12.0, meterRegistry.get("subsync.datasource.replica.lag").gauge().value());
+
+        when(replicaJdbc.queryForObject(eq(ReplicaLagMonitor.LAG_SQL), eq(Double.class))).thenReturn(0.5);
+        monitor.check();
+        assertTrue(monitor.isReplicaUsable());
+    }
+
+    @Test
+    void check_queryFails_marksDown() {
+        when(replicaJdbc.queryForObject(eq(ReplicaLagMonitor.LAG_SQL), eq(Double.class)))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        monitor.check();
+
+        assertFalse(monitor.isReplicaUsable());
+        assertEquals(0.0, meterRegistry.get("subsync.datasource.replica.usable").gauge().value());
+    }
+}
@@ -175,4 +175,49 @@ class GcraRateLimiterTest {
         assertEquals(config1, config2, "Configurations should be equal as they are the same");
         assertEquals(tatRef1, tatRef2, "TAT AtomicLong instance should be the same if no re-init");
     }
-}
\ No newline at end of file
+
+    @Test
+    void sweep_dropsKeysWhoseTatIsInThePast() throws InterruptedException {
+        String key = "expiredKey";
+        rateLimiter.configureRateLimiter(key, 1_000_000, Duration.ZERO); // TAT moves 1us ahead per request
+        assertTrue(rateLimiter.allowRequest(key));
+        Thread.sleep(5);
+
+        rateLimiter.sweep();
+
+        assertNull(rateLimiter.lastTheoreticalArrivalTime.get(key));
+        assertEquals(1, rateLimiter.evictionCount());
+        assertTrue(rateLimiter.allowRequest(key, GcraRateLimiter.RateLimiterConfig.of(1_000_000, Duration.ZERO)));
+    }
+
+    @Test
+    void sweep_keepsLiveKeys() {
+        String key = "liveKey";
+        rateLimiter.configureRateLimiter(key, 1, Duration.ZERO);
+        assertTrue(rateLimiter.allowRequest(key));
+
+        rateLimiter.sweep();
+
+        assertNotNull(rateLimiter.lastTheoreticalArrivalTime.get(key));
+        assertFalse(rateLimiter.allowRequest(key), "Sweeping must not reset a key that is still limited");
+    }
+
+    @Test
+    void allowRequest_millionsOfDistinctKeys_storeStaysBounded() {
+        int maxKeys = 10_000;
+        int distinctKeys = 3_000_000;
+        GcraRateLimiter bounded = new GcraRateLimiter(maxKeys);
+        GcraRateLimiter.RateLimiterConfig config = GcraRateLimiter.RateLimiterConfig.of(1, Duration.ZERO);
+
+        // Scanning traffic: every request comes from a new IP, and every key is still live (1 req/s)
+        for (int i = 0; i < distinctKeys; i++) {
+            assertTrue(bounded.allowRequest("scan_" + i, config));
+        }
+
+        assertTrue(bounded.size() <= maxKeys, "Store grew past its cap: " + bounded.size());
+        assertTrue(bounded.evictionCount() >= distinctKeys - maxKeys);
+
+        // The most recent caller is still limited
+        assertFalse(bounded.allowRequest("scan_" + (distinctKeys - 1), config));
+    }
+}
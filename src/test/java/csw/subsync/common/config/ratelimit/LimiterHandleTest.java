@@ -0,0 +1,115 @@
+package csw.subsync.common.config.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimiterHandleTest {
+
+    private final GcraRateLimiter rateLimiter = new GcraRateLimiter();
+
+    @Test
+    void tryAcquire_limitsEachCallerSeparately() {
+        LimiterHandle handle = rateLimiter.newHandle(GcraRateLimiter.RateLimiterConfig.of(1, Duration.ZERO));
+
+        assertTrue(handle.tryAcquire(1L));
+        assertFalse(handle.tryAcquire(1L));
+        assertTrue(handle.tryAcquire(2L), "Another caller has its own budget");
+        assertFalse(handle.tryAcquire(2L));
+    }
+
+    @Test
+    void tryAcquire_withTolerance_burstAllowed() {
+        LimiterHandle handle = rateLimiter.newHandle(GcraRateLimiter.RateLimiterConfig.of(2, Duration.ofSeconds(1)));
+
+        assertTrue(handle.tryAcquire(7L));
+        assertTrue(handle.tryAcquire(7L));
+        assertTrue(handle.tryAcquire(7L));
+        assertFalse(handle.tryAcquire(7L));
+    }
+
+    @Test
+    void tryAcquire_manyCallers_tableNeverGrows() {
+        LimiterHandle handle = new LimiterHandle(GcraRateLimiter.RateLimiterConfig.of(1, Duration.ZERO), 1024,
+                new LongAdder(), new LongAdder());
+
+        for (long caller = 0; caller < 1_000_000; caller++) {
+            assertTrue(handle.tryAcquire(caller));
+        }
+
+        assertEquals(1024, handle.capacity());
+        assertTrue(handle.size() <= handle.capacity());
+        assertFalse(handle.tryAcquire(999_999L), "The most recent caller is still limited");
+    }
+
+    @Test
+    void ipKey_neverCollidesWithUserIds() {
+        assertTrue(RateLimitInterceptor.ipKey("127.0.0.1") < 0);
+        assertNotEquals(RateLimitInterceptor.ipKey("10.0.0.1"), RateLimitInterceptor.ipKey("10.0.0.2"));
+    }
+
+    @Test
+    void tryAcquire_contended_neverOverAdmits() throws InterruptedException {
+        int permitsPerSecond = 1_000;
+        Duration tolerance = Duration.ofMillis(100);
+        long durationNanos = TimeUnit.MILLISECONDS.toNanos(500);
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        GcraRateLimiter.RateLimiterConfig config = GcraRateLimiter.RateLimiterConfig.of(permitsPerSecond, tolerance);
+        LimiterHandle handle = rateLimiter.newHandle(config);
+
+        LongAdder allowed = new LongAdder();
+        long[] ownAllowed = new long[threads];
+        long[] firstCall = new long[threads];
+        long[] lastCall = new long[threads];
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            int i = t;
+            long own = 1_000 + t;
+            executor.submit(() -> {
+                start.await();
+                firstCall[i] = System.nanoTime();
+                long end = firstCall[i] + durationNanos;
+                long n = 0;
+                while (System.nanoTime() < end) {
+                    // every thread hits the same hot caller, plus one caller of its own
+                    if (handle.tryAcquire(42L)) {
+                        allowed.increment();
+                    }
+                    if (handle.tryAcquire(own)) {
+                        n++;
+                    }
+                }
+                lastCall[i] = System.nanoTime();
+                ownAllowed[i] = n;
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // the hot caller was only hit between the earliest first call and the latest last call
+        long hotWindow = Arrays.stream(lastCall).max().orElseThrow() - Arrays.stream(firstCall).min().orElseThrow();
+        assertTrue(allowed.sum() <= gcraBound(config, hotWindow), "Hot caller over-admitted: " + allowed.sum());
+        assertTrue(allowed.sum() >= permitsPerSecond * (durationNanos / 1e9) / 2, "Hot caller starved: " + allowed.sum());
+        for (int t = 0; t < threads; t++) {
+            long window = lastCall[t] - firstCall[t];
+            assertTrue(ownAllowed[t] <= gcraBound(config, window),
+                    "Caller " + t + " over-admitted: " + ownAllowed[t] + " in " + window + "ns");
+        }
+    }
+
+    // GCRA admits at most one request per emission interval over the window, plus the burst the tolerance allows
+    private static long gcraBound(GcraRateLimiter.RateLimiterConfig config, long windowNanos) {
+        return (windowNanos + config.toleranceNanos()) / config.emissionIntervalNanos() + 2;
+    }
+}
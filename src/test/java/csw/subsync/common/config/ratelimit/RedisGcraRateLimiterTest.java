@@ -0,0 +1,88 @@
+package csw.subsync.common.config.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RedisGcraRateLimiterTest {
+
+    private StringRedisTemplate redisTemplate;
+    private RedisGcraRateLimiter rateLimiter;
+    private final GcraRateLimiter.RateLimiterConfig config = GcraRateLimiter.RateLimiterConfig.of(1, Duration.ZERO);
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        rateLimiter = new RedisGcraRateLimiter(redisTemplate, new GcraRateLimiter());
+    }
+
+    @Test
+    void allowRequest_allowedByRedis() {
+        whenScript().thenReturn(List.of(1L, 0L));
+
+        assertTrue(rateLimiter.allowRequest("key", config));
+        verify(redisTemplate).execute(script(), eq(List.of(RedisGcraRateLimiter.KEY_PREFIX + "key")),
+                eq("1000000"), eq("0"));
+    }
+
+    @Test
+    void allowRequest_rejectedByRedis_nextRejectStaysLocal() {
+        whenScript().thenReturn(List.of(0L, 60_000_000L)); // next permit in 60s
+
+        assertFalse(rateLimiter.allowRequest("key", config));
+        assertFalse(rateLimiter.allowRequest("key", config));
+        assertFalse(rateLimiter.allowRequest("key", config));
+
+        verify(redisTemplate, times(1)).execute(script(), anyList(), any(), any());
+    }
+
+    @Test
+    void allowRequest_rejectWindowOver_asksRedisAgain() {
+        whenScript().thenReturn(List.of(0L, 0L)).thenReturn(List.of(1L, 0L));
+
+        assertFalse(rateLimiter.allowRequest("key", config));
+        assertTrue(rateLimiter.allowRequest("key", config));
+
+        verify(redisTemplate, times(2)).execute(script(), anyList(), any(), any());
+        assertNull(rateLimiter.rejectUntil.getIfPresent("key"));
+    }
+
+    @Test
+    void allowRequest_manyRejectedKeys_rejectCacheStaysBounded() {
+        whenScript().thenReturn(List.of(0L, 60_000_000L));
+
+        for (int i = 0; i < RedisGcraRateLimiter.MAX_REJECT_ENTRIES + 500; i++) {
+            assertFalse(rateLimiter.allowRequest("key-" + i, config));
+        }
+        rateLimiter.rejectUntil.cleanUp();
+
+        assertTrue(rateLimiter.rejectUntil.estimatedSize() <= RedisGcraRateLimiter.MAX_REJECT_ENTRIES);
+    }
+
+    @Test
+    void allowRequest_redisDown_fallsBackToLocalLimiter() {
+        whenScript().thenThrow(new RedisConnectionFailureException("down"));
+
+        assertTrue(rateLimiter.allowRequest("key", config)); // 1st allowed locally
+        assertFalse(rateLimiter.allowRequest("key", config)); // 2nd limited locally
+    }
+
+    @SuppressWarnings("rawtypes")
+    private org.mockito.stubbing.OngoingStubbing<List> whenScript() {
+        return when(redisTemplate.execute(script(), anyList(), any(), any()));
+    }
+
+    @SuppressWarnings("rawtypes") // the limiter's script is declared as RedisScript<List>
+    private static RedisScript<List> script() {
+        return any();
+    }
+}
@@ -0,0 +1,41 @@
+package csw.subsync.common.config.security;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JwtAuthenticationFilterTest {
+
+    private final JwtService jwtService = mock(JwtService.class);
+    private final PrincipalCache principalCache = mock(PrincipalCache.class);
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService,
+            mock(UserDetailsService.class), principalCache);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_rejectedToken_continuesUnauthenticated() throws Exception {
+        when(jwtService.verify("bad")).thenThrow(new JwtService.JwtValidationException("Invalid token"));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/subscriptions/my");
+        request.setServletPath("/api/v1/subscriptions/my");
+        request.addHeader("Authorization", "Bearer bad");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = mock(FilterChain.class);
+
+        filter.doFilter(request, response, chain);
+
+        verify(chain).doFilter(request, response); // the entry point answers 401 for protected paths
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(principalCache);
+    }
+}
@@ -0,0 +1,87 @@
+package csw.subsync.common.config.security;
+
+import csw.subsync.user.model.User;
+import csw.subsync.user.model.role.Role;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private static final String SECRET_KEY = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    private final JwtService jwtService = new JwtService(SECRET_KEY, 60_000, 120_000, 100);
+    private final User user = User.builder()
+            .id(7L)
+            .username("testUser")
+            .email("test@example.com")
+            .password("password")
+            .role(Role.USER)
+            .build();
+
+    @Test
+    void verify_returnsClaims() {
+        String token = jwtService.generateToken(user);
+
+        JwtService.VerifiedToken verified = jwtService.verify(token);
+
+        assertEquals("testUser", verified.username());
+        assertEquals(7L, verified.userId());
+        assertEquals("USER", verified.role());
+        assertNotNull(verified.issuedAt());
+        assertFalse(verified.isExpired());
+        assertTrue(verified.isValidFor(user));
+    }
+
+    @Test
+    void verify_unknownRoleClaim_rejected() {
+        User roleless = User.builder().id(7L).username("testUser").build();
+        String token = jwtService.generateToken(new HashMap<>(Map.of("role", "ROOT")), roleless);
+
+        assertThrows(JwtService.JwtValidationException.class, () -> jwtService.verify(token));
+    }
+
+    @Test
+    void verify_sameTokenTwice_servedFromCache() {
+        String token = jwtService.generateToken(user);
+
+        assertSame(jwtService.verify(token), jwtService.verify(token));
+    }
+
+    @Test
+    void verify_cacheDisabled_stillVerifies() {
+        JwtService uncached = new JwtService(SECRET_KEY, 60_000, 120_000, 0);
+        String token = uncached.generateToken(user);
+
+        assertEquals("testUser", uncached.verify(token).username());
+        assertNotSame(uncached.verify(token), uncached.verify(token));
+    }
+
+    @Test
+    void verify_tamperedToken_rejectedEvenAfterOriginalWasCached() {
+        String token = jwtService.generateToken(user);
+        jwtService.verify(token);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(JwtService.JwtSignatureException.class, () -> jwtService.verify(tampered));
+    }
+
+    @Test
+    void verify_expiredToken_rejected() {
+        JwtService shortLived = new JwtService(SECRET_KEY, -1_000, 120_000, 100);
+        String token = shortLived.generateToken(user);
+
+        assertThrows(JwtService.JwtTokenExpiredException.class, () -> shortLived.verify(token));
+    }
+
+    @Test
+    void verify_tokenFromAnotherKey_rejected() {
+        JwtService other = new JwtService("7134743777217A25432A462D4A614E645267556B58703273357638792F423F45",
+                60_000, 120_000, 100);
+
+        assertThrows(JwtService.JwtSignatureException.class, () -> jwtService.verify(other.generateToken(user)));
+    }
+}
@@ -0,0 +1,104 @@
+package csw.subsync.common.config.security;
+
+import csw.subsync.user.model.User;
+import csw.subsync.user.model.role.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PrincipalCacheTest {
+
+    private ValueOperations<String, String> valueOps;
+    private StringRedisTemplate redisTemplate;
+    private final AtomicInteger dbLookups = new AtomicInteger();
+    private final Function<String, User> loader = username -> {
+        dbLookups.incrementAndGet();
+        return User.builder().id(7L).username(username).email("db@example.com").role(Role.MANAGER).build();
+    };
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        valueOps = mock(ValueOperations.class);
+        redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+    }
+
+    @Test
+    void principalFor_stateless_buildsUserFromClaimsWithoutDb() {
+        PrincipalCache cache = cache(true);
+
+        User principal = cache.principalFor(token(Instant.now()), loader);
+
+        assertEquals(7L, principal.getId());
+        assertEquals("testUser", principal.getUsername());
+        assertEquals("USER", principal.getRole().name());
+        assertEquals(0, dbLookups.get());
+        assertSame(principal, cache.principalFor(token(Instant.now()), loader), "Second request is a cache hit");
+        verify(valueOps, times(1)).get(anyString());
+    }
+
+    @Test
+    void principalFor_statelessOff_alwaysLoadsFromDb() {
+        PrincipalCache cache = cache(false);
+
+        cache.principalFor(token(Instant.now()), loader);
+        cache.principalFor(token(Instant.now()), loader);
+
+        assertEquals(2, dbLookups.get());
+    }
+
+    @Test
+    void principalFor_tokenWithoutRoleClaim_loadsFromDb() {
+        PrincipalCache cache = cache(true);
+        JwtService.VerifiedToken legacy = new JwtService.VerifiedToken("testUser", 7L, null, Instant.now(),
+                Instant.now().plusSeconds(60), null);
+
+        assertEquals("MANAGER", cache.principalFor(legacy, loader).getRole().name());
+        assertEquals(1, dbLookups.get());
+    }
+
+    @Test
+    void invalidate_tokensIssuedBeforeFallBackToDb() {
+        PrincipalCache cache = cache(true);
+        Instant issuedAt = Instant.now().minusSeconds(10);
+        cache.principalFor(token(issuedAt), loader);
+
+        cache.invalidate(7L);
+        verify(valueOps).set(eq(PrincipalCache.STALE_KEY_PREFIX + 7), anyString(), eq(Duration.ofMinutes(1)));
+        when(valueOps.get(PrincipalCache.STALE_KEY_PREFIX + 7)).thenReturn(String.valueOf(Instant.now().toEpochMilli()));
+
+        User principal = cache.principalFor(token(issuedAt), loader);
+        assertEquals("MANAGER", principal.getRole().name(), "Role comes from the database, not the old claim");
+        assertEquals(1, dbLookups.get());
+    }
+
+    @Test
+    void principalFor_redisDown_doesNotTrustClaims() {
+        PrincipalCache cache = cache(true);
+        when(valueOps.get(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+
+        cache.principalFor(token(Instant.now()), loader);
+
+        assertEquals(1, dbLookups.get());
+    }
+
+    private PrincipalCache cache(boolean stateless) {
+        return new PrincipalCache(redisTemplate, stateless, Duration.ofSeconds(30), 100, 60_000);
+    }
+
+    private static JwtService.VerifiedToken token(Instant issuedAt) {
+        return new JwtService.VerifiedToken("testUser", 7L, "USER", issuedAt, issuedAt.plusSeconds(60), null);
+    }
+}
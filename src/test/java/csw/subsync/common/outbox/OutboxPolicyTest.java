@@ -0,0 +1,61 @@
+package csw.subsync.common.outbox;
+
+import csw.subsync.subscription.model.ChargeJob;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboxPolicyTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+    private final OutboxPolicy policy = new OutboxPolicy(3, Duration.ofMinutes(10), Duration.ofSeconds(10));
+
+    @Test
+    void claimed_marksRunningAndCountsAttempt() {
+        ChargeJob job = entry(0);
+
+        policy.claimed(List.of(job), NOW);
+
+        assertEquals(ChargeJob.Status.RUNNING, job.getStatus());
+        assertEquals(NOW, job.getLockedAt());
+        assertEquals(1, job.getAttempts());
+        assertEquals(NOW.minus(Duration.ofMinutes(10)), policy.staleBefore(NOW));
+    }
+
+    @Test
+    void fail_doublesBackoffPerAttempt() {
+        ChargeJob job = entry(1);
+        job.setLockedAt(NOW);
+
+        assertFalse(policy.fail(job, "boom", NOW));
+        assertEquals(ChargeJob.Status.PENDING, job.getStatus());
+        assertNull(job.getLockedAt());
+        assertEquals(NOW.plusSeconds(10), job.getAvailableAt());
+
+        job.setAttempts(2);
+        policy.fail(job, "boom", NOW);
+        assertEquals(NOW.plusSeconds(20), job.getAvailableAt());
+    }
+
+    @Test
+    void fail_lastAttempt_givesUp() {
+        ChargeJob job = entry(3);
+
+        assertTrue(policy.fail(job, "x".repeat(600), NOW));
+
+        assertEquals(ChargeJob.Status.FAILED, job.getStatus());
+        assertEquals(OutboxPolicy.MAX_ERROR_LENGTH, job.getLastError().length());
+    }
+
+    private static ChargeJob entry(int attempts) {
+        ChargeJob job = new ChargeJob();
+        job.setStatus(ChargeJob.Status.RUNNING);
+        job.setAttempts(attempts);
+        return job;
+    }
+}
@@ -0,0 +1,58 @@
+package csw.subsync.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderIdsTest {
+
+    @Test
+    void next_isVersion7WithRfcVariant() {
+        UUID id = OrderIds.next();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+    }
+
+    @Test
+    void next_carriesCreationTime() {
+        long before = System.currentTimeMillis();
+        UUID id = OrderIds.next();
+        long after = System.currentTimeMillis();
+
+        long timestamp = OrderIds.timestampOf(id);
+        assertTrue(timestamp >= before && timestamp <= after);
+    }
+
+    @Test
+    void uuidV7_laterMillisecondSortsAfter() {
+        Random random = new Random(42);
+        UUID earlier = OrderIds.uuidV7(1_700_000_000_000L, random);
+        UUID later = OrderIds.uuidV7(1_700_000_000_001L, random);
+
+        // Postgres compares uuid bytewise, i.e. as unsigned; the 48-bit timestamp leads, so this is the index order
+        assertTrue(Long.compareUnsigned(earlier.getMostSignificantBits(), later.getMostSignificantBits()) < 0);
+        assertEquals(1_700_000_000_000L, OrderIds.timestampOf(earlier));
+    }
+
+    @Test
+    void uuidV7_roundTripsThroughString() {
+        UUID id = OrderIds.uuidV7(1_700_000_000_000L, new Random(7));
+
+        assertEquals(id, UUID.fromString(id.toString()));
+        assertTrue(id.toString().startsWith("018bcfe5-6800-7"));
+    }
+
+    @Test
+    void next_uniqueAcrossThreads() {
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+
+        IntStream.range(0, 100_000).parallel().forEach(i -> ids.add(OrderIds.next()));
+
+        assertEquals(100_000, ids.size());
+    }
+}
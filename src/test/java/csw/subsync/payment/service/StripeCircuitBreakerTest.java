@@ -0,0 +1,212 @@
+package csw.subsync.payment.service;
+
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.ApiException;
+import com.stripe.exception.CardException;
+import csw.subsync.common.exception.StripeCallRejectedException;
+import csw.subsync.common.exception.StripeUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripeCircuitBreakerTest {
+
+    private final MutableClock clock = new MutableClock();
+    private final List<Long> sleeps = new ArrayList<>();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void execute_transientFailure_retriedWithBackoffThenSucceeds() throws Exception {
+        StripeCircuitBreaker breaker = breaker(3);
+
+        String result = breaker.execute("test", () -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new ApiConnectionException("connection reset");
+            }
+            return "pi_1";
+        });
+
+        assertEquals("pi_1", result);
+        assertEquals(2, calls.get());
+        assertEquals(1, sleeps.size());
+        assertTrue(sleeps.get(0) <= 200, "first backoff is capped by the initial backoff");
+    }
+
+    @Test
+    void execute_cardError_notRetriedAndPassedThrough() {
+        StripeCircuitBreaker breaker = breaker(3);
+
+        assertThrows(CardException.class, () -> breaker.execute("test", () -> {
+            calls.incrementAndGet();
+            throw new CardException("declined", "req", "card_declined", null, "generic_decline", null, 402, null);
+        }));
+
+        assertEquals(1, calls.get());
+        assertTrue(sleeps.isEmpty());
+        assertEquals(StripeCircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void execute_retriesExhausted_throwsUnavailableWithCause() {
+        StripeCircuitBreaker breaker = breaker(3);
+        ApiException failure = new ApiException("server error", "req", null, 500, null);
+
+        StripeUnavailableException thrown = assertThrows(StripeUnavailableException.class,
+                () -> breaker.execute("test", () -> {
+                    calls.incrementAndGet();
+                    throw failure;
+                }));
+
+        assertEquals(3, calls.get());
+        assertSame(failure, thrown.getCause());
+    }
+
+    @Test
+    void execute_failureRateReached_opensAndRejectsWithoutCallingStripe() {
+        StripeCircuitBreaker breaker = breaker(1);
+        for (int i = 0; i < 4; i++) {
+            assertThrows(StripeUnavailableException.class, () -> breaker.execute("test", () -> {
+                calls.incrementAndGet();
+                throw new ApiConnectionException("timeout");
+            }));
+        }
+        assertEquals(StripeCircuitBreaker.State.OPEN, breaker.state());
+
+        assertThrows(StripeUnavailableException.class, () -> breaker.execute("test", () -> {
+            calls.incrementAndGet();
+            return "never";
+        }));
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    void execute_slowCallRateReached_opens() throws Exception {
+        StripeCircuitBreaker breaker = breaker(1);
+        for (int i = 0; i < 4; i++) {
+            breaker.execute("test", () -> {
+                clock.advance(Duration.ofSeconds(6));
+                return "slow";
+            });
+        }
+
+        assertEquals(StripeCircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void execute_afterOpenDuration_successfulProbesClose() throws Exception {
+        StripeCircuitBreaker breaker = openBreaker();
+        clock.advance(Duration.ofSeconds(30));
+        assertEquals(StripeCircuitBreaker.State.HALF_OPEN, breaker.state());
+
+        breaker.execute("probe", () -> "ok");
+        breaker.execute("probe", () -> "ok");
+
+        assertEquals(StripeCircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void execute_failedProbe_reopensWithoutRetry() {
+        StripeCircuitBreaker breaker = breaker(3);
+        tripOpen(breaker);
+        clock.advance(Duration.ofSeconds(30));
+        calls.set(0);
+
+        assertThrows(StripeUnavailableException.class, () -> breaker.execute("probe", () -> {
+            calls.incrementAndGet();
+            throw new ApiConnectionException("still down");
+        }));
+
+        assertEquals(1, calls.get(), "no retries while the circuit isn't closed");
+        assertEquals(StripeCircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void execute_bulkheadRejections_retriedButNotCountedAsFailures() {
+        StripeCircuitBreaker breaker = breaker(2);
+        for (int i = 0; i < 4; i++) {
+            assertThrows(StripeUnavailableException.class, () -> breaker.execute("test", () -> {
+                calls.incrementAndGet();
+                throw new StripeCallRejectedException("Too many concurrent Stripe calls");
+            }));
+        }
+
+        assertEquals(8, calls.get(), "each rejection is retried");
+        assertEquals(StripeCircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void execute_unexpectedExceptionsWhileHalfOpen_permitsHandedBack() throws Exception {
+        StripeCircuitBreaker breaker = openBreaker();
+        clock.advance(Duration.ofSeconds(30));
+
+        for (int i = 0; i < 5; i++) {
+            assertThrows(IllegalArgumentException.class, () -> breaker.execute("probe", () -> {
+                throw new IllegalArgumentException("bad idempotency key");
+            }));
+        }
+        assertThrows(StripeUnavailableException.class, () -> breaker.execute("probe", () -> {
+            throw new StripeCallRejectedException("Too many concurrent Stripe calls");
+        }));
+        assertEquals(StripeCircuitBreaker.State.HALF_OPEN, breaker.state());
+
+        breaker.execute("probe", () -> "ok");
+        breaker.execute("probe", () -> "ok");
+
+        assertEquals(StripeCircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    private StripeCircuitBreaker openBreaker() {
+        StripeCircuitBreaker breaker = breaker(1);
+        tripOpen(breaker);
+        return breaker;
+    }
+
+    private void tripOpen(StripeCircuitBreaker breaker) {
+        while (breaker.state() == StripeCircuitBreaker.State.CLOSED) {
+            assertThrows(StripeUnavailableException.class, () -> breaker.execute("test", () -> {
+                calls.incrementAndGet();
+                throw new ApiConnectionException("timeout");
+            }));
+        }
+    }
+
+    // window 4, min 4 calls, 50% failures or 75% slow (>= 5s) opens, 30s open, 2 probes
+    private StripeCircuitBreaker breaker(int maxAttempts) {
+        return new StripeCircuitBreaker(4, 4, 0.5, Duration.ofSeconds(5), 0.75, Duration.ofSeconds(30), 2,
+                maxAttempts, Duration.ofMillis(200), Duration.ofSeconds(5), new SimpleMeterRegistry(),
+                clock, sleeps::add);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
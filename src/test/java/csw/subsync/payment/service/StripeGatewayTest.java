@@ -0,0 +1,105 @@
+package csw.subsync.payment.service;
+
+import com.stripe.StripeClient;
+import com.stripe.exception.ApiConnectionException;
+import csw.subsync.common.exception.StripeCallRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class StripeGatewayTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private StripeGateway gateway;
+
+    @AfterEach
+    void tearDown() {
+        if (gateway != null) {
+            gateway.destroy();
+        }
+    }
+
+    @Test
+    void call_runsOnVirtualThread() throws Exception {
+        gateway = gateway(4, Duration.ofSeconds(1), Duration.ofSeconds(5));
+
+        Boolean virtual = gateway.call("test", client -> Thread.currentThread().isVirtual());
+        assertTrue(virtual);
+        assertEquals(1, meterRegistry.get("subsync.stripe.call")
+                .tag("operation", "test").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void call_bulkheadFull_rejectedWithoutCallingStripe() throws Exception {
+        gateway = gateway(1, Duration.ofMillis(50), Duration.ofSeconds(5));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> {
+            try {
+                return gateway.call("slow", client -> {
+                    started.countDown();
+                    awaitQuietly(release);
+                    return "done";
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(StripeCallRejectedException.class, () -> gateway.call("fast", client -> "never"));
+        assertEquals(1.0, meterRegistry.get("subsync.stripe.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("done", first.get(5, TimeUnit.SECONDS));
+        assertEquals("ok", gateway.call("fast", client -> "ok"));
+    }
+
+    @Test
+    void call_exceedsCallTimeout_failsAndFreesSlot() throws Exception {
+        gateway = gateway(1, Duration.ofSeconds(2), Duration.ofMillis(100));
+
+        assertThrows(ApiConnectionException.class, () -> gateway.call("hang", client -> {
+            awaitQuietly(new CountDownLatch(1)); // cancel 로 인터럽트될 때까지 대기
+            return "late";
+        }));
+
+        // 타임아웃된 호출이 취소되면서 슬롯을 돌려준다
+        assertEquals("ok", gateway.call("next", client -> "ok"));
+        assertEquals(1, meterRegistry.get("subsync.stripe.call")
+                .tag("operation", "hang").tag("outcome", "timeout").timer().count());
+    }
+
+    @Test
+    void call_stripeException_propagatedAsIs() {
+        gateway = gateway(4, Duration.ofSeconds(1), Duration.ofSeconds(5));
+        ApiConnectionException failure = new ApiConnectionException("boom");
+
+        ApiConnectionException thrown = assertThrows(ApiConnectionException.class,
+                () -> gateway.call("fail", client -> {
+                    throw failure;
+                }));
+        assertSame(failure, thrown);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private StripeGateway gateway(int maxConcurrentCalls, Duration acquireTimeout, Duration callTimeout) {
+        return new StripeGateway(mock(StripeClient.class), maxConcurrentCalls, acquireTimeout, callTimeout,
+                meterRegistry);
+    }
+}
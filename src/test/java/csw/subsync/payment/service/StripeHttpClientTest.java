@@ -0,0 +1,103 @@
+package csw.subsync.payment.service;
+
+import com.stripe.StripeClient;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.model.Customer;
+import com.stripe.param.CustomerCreateParams;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives a real {@link StripeClient} over {@link StripeHttpClient} against a local HTTP server.
+ */
+class StripeHttpClientTest {
+
+    private HttpServer server;
+    private final List<Map<String, String>> requests = new CopyOnWriteArrayList<>();
+    private volatile long responseDelayMillis;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/customers", exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            requests.add(Map.of(
+                    "method", exchange.getRequestMethod(),
+                    "path", exchange.getRequestURI().getPath(),
+                    "body", body,
+                    "authorization", String.valueOf(exchange.getRequestHeaders().getFirst("Authorization")),
+                    "contentType", String.valueOf(exchange.getRequestHeaders().getFirst("Content-Type"))));
+            sleep(responseDelayMillis);
+            byte[] response = """
+                    {"id": "cus_123", "object": "customer", "email": "member@example.com"}
+                    """.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("Request-Id", "req_1");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void request_roundTripsThroughSdk() throws Exception {
+        StripeClient client = client(Duration.ofSeconds(5), 0);
+
+        Customer customer = client.customers().create(CustomerCreateParams.builder()
+                .setEmail("member@example.com")
+                .build());
+
+        assertEquals("cus_123", customer.getId());
+        assertEquals("member@example.com", customer.getEmail());
+        assertEquals(1, requests.size());
+        Map<String, String> request = requests.get(0);
+        assertEquals("POST", request.get("method"));
+        assertEquals("/v1/customers", request.get("path"));
+        assertEquals("email=member%40example.com", request.get("body"));
+        assertEquals("Bearer sk_test_gateway", request.get("authorization"));
+        assertTrue(request.get("contentType").startsWith("application/x-www-form-urlencoded"));
+    }
+
+    @Test
+    void request_slowerThanReadTimeout_failsWithApiConnectionException() {
+        responseDelayMillis = 1_000;
+        StripeClient client = client(Duration.ofMillis(100), 0);
+
+        assertThrows(ApiConnectionException.class, () -> client.customers().create(CustomerCreateParams.builder()
+                .setEmail("member@example.com")
+                .build()));
+    }
+
+    private StripeClient client(Duration readTimeout, int maxNetworkRetries) {
+        return StripeGateway.buildClient("sk_test_gateway", "http://127.0.0.1:" + server.getAddress().getPort(),
+                Duration.ofSeconds(1), readTimeout, maxNetworkRetries);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package csw.subsync.payment.service;
+
+import csw.subsync.payment.model.StripeWebhookEvent;
+import csw.subsync.subscription.model.Membership;
+import csw.subsync.subscription.repository.MembershipBatchRepository.PaymentResult;
+import csw.subsync.subscription.service.MembershipService;
+import csw.subsync.user.model.User;
+import csw.subsync.user.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class StripeWebhookProcessorTest {
+
+    private StripeService stripeService;
+    private MembershipService membershipService;
+    private UserRepository userRepository;
+    private StripeWebhookProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        stripeService = mock(StripeService.class);
+        when(stripeService.parseEvent(anyString())).thenCallRealMethod();
+        membershipService = mock(MembershipService.class);
+        userRepository = mock(UserRepository.class);
+        processor = new StripeWebhookProcessor(stripeService, membershipService, userRepository);
+    }
+
+    @Test
+    void process_appliesOnlyNewestEventPerMembership() {
+        List<StripeWebhookEvent> batch = List.of(
+                stored(paymentEvent("evt_1", "payment_intent.payment_failed", 100, "pi_1", 5)),
+                stored(paymentEvent("evt_2", "payment_intent.succeeded", 200, "pi_2", 5)),
+                stored(paymentEvent("evt_3", "payment_intent.succeeded", 150, "pi_3", 6)));
+
+        StripeWebhookProcessor.BatchResult result = processor.process(batch);
+
+        verify(membershipService, times(1)).applyPaymentResults(List.of(
+                new PaymentResult(5L, Membership.PaymentStatus.SUCCEEDED, "pi_2", Instant.ofEpochSecond(200)),
+                new PaymentResult(6L, Membership.PaymentStatus.SUCCEEDED, "pi_3", Instant.ofEpochSecond(150))));
+        assertEquals(List.of("evt_1", "evt_2", "evt_3"), result.doneEventIds().stream().sorted().toList());
+        assertTrue(result.failedEventIds().isEmpty());
+    }
+
+    @Test
+    void process_failedUpdate_retriesNewestOnly() {
+        when(membershipService.applyPaymentResults(any())).thenThrow(new IllegalStateException("db down"));
+        List<StripeWebhookEvent> batch = List.of(
+                stored(paymentEvent("evt_1", "payment_intent.succeeded", 100, "pi_1", 5)),
+                stored(paymentEvent("evt_2", "payment_intent.payment_failed", 200, "pi_2", 5)));
+
+        StripeWebhookProcessor.BatchResult result = processor.process(batch);
+
+        assertEquals(List.of("evt_1"), result.doneEventIds());
+        assertEquals("db down", result.failedEventIds().get("evt_2"));
+    }
+
+    @Test
+    void process_unknownMembership_eventDone() {
+        when(membershipService.applyPaymentResults(any())).thenReturn(List.of(9L));
+
+        StripeWebhookProcessor.BatchResult result = processor.process(List.of(
+                stored(paymentEvent("evt_1", "payment_intent.payment_failed", 100, "pi_1", 9))));
+
+        verify(membershipService).applyPaymentResults(List.of(
+                new PaymentResult(9L, Membership.PaymentStatus.FAILED, "pi_1", Instant.ofEpochSecond(100))));
+        assertEquals(List.of("evt_1"), result.doneEventIds());
+        assertTrue(result.failedEventIds().isEmpty());
+    }
+
+    @Test
+    void process_unparseablePayload_failsOnlyThatEvent() {
+        StripeWebhookEvent broken = new StripeWebhookEvent();
+        broken.setEventId("evt_bad");
+        broken.setPayload("{not json");
+
+        StripeWebhookProcessor.BatchResult result = processor.process(List.of(
+                broken, stored(paymentEvent("evt_ok", "payment_intent.succeeded", 100, "pi_1", 5))));
+
+        assertEquals(List.of("evt_ok"), result.doneEventIds());
+        assertTrue(result.failedEventIds().containsKey("evt_bad"));
+    }
+
+    @Test
+    void process_setupIntent_setsDefaultPaymentMethod() throws Exception {
+        User user = User.builder().id(3L).username("u").stripeCustomerId("cus_1").build();
+        when(userRepository.findById(3L)).thenReturn(Optional.of(user));
+        String payload = """
+                {"id": "evt_s", "object": "event", "type": "setup_intent.succeeded", "created": 100,
+                 "data": {"object": {"id": "seti_1", "object": "setup_intent", "customer": "cus_1",
+                  "payment_method": "pm_1", "metadata": {"user_id": "3"}}}}
+                """;
+
+        StripeWebhookProcessor.BatchResult result = processor.process(List.of(stored(payload)));
+
+        assertEquals(List.of("evt_s"), result.doneEventIds());
+        verify(stripeService).setDefaultPaymentMethod("cus_1", "pm_1");
+        assertEquals("pm_1", user.getPaymentMethodId());
+        verify(userRepository).save(user);
+    }
+
+    private static String paymentEvent(String id, String type, long created, String intentId, long membershipId) {
+        return """
+                {"id": "%s", "object": "event", "type": "%s", "created": %d,
+                 "data": {"object": {"id": "%s", "object": "payment_intent",
+                  "last_payment_error": {"message": "card declined"},
+                  "metadata": {"membership_id": "%d"}}}}
+                """.formatted(id, type, created, intentId, membershipId);
+    }
+
+    private static StripeWebhookEvent stored(String payload) {
+        StripeWebhookEvent event = new StripeWebhookEvent();
+        event.setEventId(payload.replaceAll("(?s).*\"id\": \"(evt_[^\"]+)\".*", "$1"));
+        event.setPayload(payload);
+        return event;
+    }
+}
@@ -0,0 +1,75 @@
+package csw.subsync.payment.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class WebhookDeduplicatorTest {
+
+    private StringRedisTemplate redisTemplate;
+    private ValueOperations<String, String> valueOps;
+    private SimpleMeterRegistry meterRegistry;
+    private WebhookDeduplicator deduplicator;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        valueOps = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        meterRegistry = new SimpleMeterRegistry();
+        deduplicator = new WebhookDeduplicator(redisTemplate, meterRegistry, Duration.ofDays(3), 100);
+    }
+
+    @Test
+    void seen_newEvent_missAndNothingWritten() {
+        assertFalse(deduplicator.seen("evt_1"));
+
+        assertEquals(1, count("miss"));
+        verify(valueOps, never()).setIfAbsent(anyString(), anyString(), any(Duration.class));
+    }
+
+    @Test
+    void remember_thenSeen_servedLocallyWithoutRedis() {
+        deduplicator.remember("evt_1");
+        verify(valueOps).setIfAbsent(WebhookDeduplicator.KEY_PREFIX + "evt_1", "1", Duration.ofDays(3));
+        clearInvocations(redisTemplate);
+
+        assertTrue(deduplicator.seen("evt_1"));
+
+        assertEquals(1, count("local_hit"));
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void seen_rememberedByAnotherNode_redisHit() {
+        when(redisTemplate.hasKey(WebhookDeduplicator.KEY_PREFIX + "evt_2")).thenReturn(true);
+
+        assertTrue(deduplicator.seen("evt_2"));
+        assertTrue(deduplicator.seen("evt_2"));
+
+        assertEquals(1, count("redis_hit"));
+        assertEquals(1, count("local_hit"));
+    }
+
+    @Test
+    void seen_redisDown_treatedAsMiss() {
+        when(redisTemplate.hasKey(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertFalse(deduplicator.seen("evt_3"));
+        assertEquals(1, count("miss"));
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("subsync.webhook.dedup").tag("result", result).counter().count();
+    }
+}
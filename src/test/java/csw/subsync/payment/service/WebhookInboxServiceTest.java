@@ -0,0 +1,62 @@
+package csw.subsync.payment.service;
+
+import csw.subsync.payment.model.StripeWebhookEvent;
+import csw.subsync.payment.repository.StripeWebhookEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class WebhookInboxServiceTest {
+
+    private StripeWebhookEventRepository eventRepo;
+    private ApplicationEventPublisher eventPublisher;
+    private WebhookInboxService inbox;
+
+    @BeforeEach
+    void setUp() {
+        eventRepo = mock(StripeWebhookEventRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        inbox = new WebhookInboxService(eventRepo, eventPublisher, 3, Duration.ofMinutes(5), Duration.ofDays(7));
+    }
+
+    @Test
+    void append_newEvent_wakesWorker() {
+        when(eventRepo.insertIfAbsent(eq("evt_1"), any(), any(), any())).thenReturn(1);
+
+        assertTrue(inbox.append("evt_1", "payment_intent.succeeded", "{}"));
+        verify(eventPublisher).publishEvent(new WebhookInboxService.EventReceived("evt_1"));
+    }
+
+    @Test
+    void append_redelivery_ignored() {
+        when(eventRepo.insertIfAbsent(eq("evt_1"), any(), any(), any())).thenReturn(0);
+
+        assertFalse(inbox.append("evt_1", "payment_intent.succeeded", "{}"));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void fail_backsOffThenGivesUp() {
+        StripeWebhookEvent event = new StripeWebhookEvent();
+        event.setEventId("evt_1");
+        event.setAttempts(1);
+        when(eventRepo.findById("evt_1")).thenReturn(Optional.of(event));
+
+        inbox.fail("evt_1", "boom");
+        assertEquals(StripeWebhookEvent.Status.PENDING, event.getStatus());
+        assertTrue(event.getAvailableAt().isAfter(Instant.now().plusSeconds(5)));
+
+        event.setAttempts(3);
+        inbox.fail("evt_1", "boom");
+        assertEquals(StripeWebhookEvent.Status.FAILED, event.getStatus());
+        assertEquals("boom", event.getLastError());
+    }
+}
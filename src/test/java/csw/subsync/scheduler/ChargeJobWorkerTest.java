@@ -0,0 +1,152 @@
+package csw.subsync.scheduler;
+
+import csw.subsync.subscription.model.ChargeJob;
+import csw.subsync.subscription.service.ChargeQueueService;
+import csw.subsync.subscription.service.MembershipChargePipeline.ChargeReport;
+import csw.subsync.subscription.service.MembershipChargePipeline.ChargeResult;
+import csw.subsync.subscription.service.MembershipChargePipeline.Outcome;
+import csw.subsync.subscription.service.SubscriptionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ChargeJobWorkerTest {
+
+    private ChargeQueueService chargeQueue;
+    private SubscriptionService subscriptionService;
+    private ChargeJobWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        chargeQueue = mock(ChargeQueueService.class);
+        subscriptionService = mock(SubscriptionService.class);
+        worker = new ChargeJobWorker(chargeQueue, subscriptionService, 2);
+        when(chargeQueue.claim(anyInt())).thenReturn(List.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        worker.shutdown();
+    }
+
+    @Test
+    void drain_chargedRun_completesJob() {
+        when(chargeQueue.claim(anyInt())).thenReturn(List.of(job(1L, 10L))).thenReturn(List.of());
+        when(subscriptionService.chargeMembers(10L, null)).thenReturn(report(10L, Outcome.PROCESSING, Outcome.FAILED));
+
+        worker.drain();
+
+        verify(chargeQueue, timeout(2000)).complete(1L);
+        verify(chargeQueue, never()).defer(anyLong(), any(), any());
+        verify(chargeQueue, never()).fail(anyLong(), any());
+    }
+
+    @Test
+    void drain_deferredMembers_defersJob() {
+        when(chargeQueue.claim(anyInt())).thenReturn(List.of(job(1L, 10L))).thenReturn(List.of());
+        when(subscriptionService.chargeMembers(10L, null)).thenReturn(report(10L, Outcome.PROCESSING, Outcome.DEFERRED));
+
+        worker.drain();
+
+        verify(chargeQueue, timeout(2000)).defer(eq(1L), eq(List.of(1L)), contains("1 member(s) deferred"));
+        verify(chargeQueue, never()).complete(anyLong());
+    }
+
+    @Test
+    void drain_deferredJob_chargesOnlyDeferredMembers() {
+        ChargeJob job = job(1L, 10L);
+        job.setDeferredMemberIds(List.of(3L, 5L));
+        when(chargeQueue.claim(anyInt())).thenReturn(List.of(job)).thenReturn(List.of());
+        when(subscriptionService.chargeMembers(10L, List.of(3L, 5L))).thenReturn(report(10L, Outcome.PROCESSING));
+
+        worker.drain();
+
+        verify(chargeQueue, timeout(2000)).complete(1L);
+        verify(subscriptionService, never()).chargeMembers(anyLong(), isNull());
+    }
+
+    @Test
+    void drain_runThrows_failsJob() {
+        when(chargeQueue.claim(anyInt())).thenReturn(List.of(job(1L, 10L))).thenReturn(List.of());
+        when(subscriptionService.chargeMembers(10L, null)).thenThrow(new IllegalStateException("db down"));
+
+        worker.drain();
+
+        verify(chargeQueue, timeout(2000)).fail(1L, "db down");
+    }
+
+    @Test
+    void drain_claimsNoMoreThanFreeSlots() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        when(chargeQueue.claim(anyInt())).thenReturn(List.of(job(1L, 10L), job(2L, 20L))).thenReturn(List.of());
+        when(subscriptionService.chargeMembers(anyLong(), isNull())).thenAnswer(invocation -> {
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            release.await(5, TimeUnit.SECONDS);
+            concurrent.decrementAndGet();
+            return report(invocation.getArgument(0));
+        });
+
+        worker.drain();
+        verify(subscriptionService, timeout(2000).times(2)).chargeMembers(anyLong(), isNull());
+        worker.drain(); // both slots busy: nothing to claim
+
+        verify(chargeQueue, times(1)).claim(2);
+        verify(chargeQueue, never()).claim(intThat(n -> n != 2));
+        release.countDown();
+        verify(chargeQueue, timeout(2000).times(2)).complete(anyLong());
+        assertEquals(2, maxConcurrent.get());
+    }
+
+    @Test
+    void renewLeases_coversRunsInProgress() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(chargeQueue.claim(anyInt())).thenReturn(List.of(job(1L, 10L))).thenReturn(List.of());
+        when(subscriptionService.chargeMembers(10L, null)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return report(10L);
+        });
+
+        worker.drain();
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        worker.renewLeases();
+        verify(chargeQueue).renewLeases(Set.of(1L));
+
+        release.countDown();
+        verify(chargeQueue, timeout(2000).times(2)).claim(2); // the drain after the run, once its slot is free
+        worker.renewLeases();
+        verify(chargeQueue).renewLeases(Set.of());
+    }
+
+    private static ChargeJob job(Long id, Long groupId) {
+        ChargeJob job = new ChargeJob();
+        job.setId(id);
+        job.setGroupId(groupId);
+        job.setStatus(ChargeJob.Status.RUNNING);
+        job.setAttempts(1);
+        return job;
+    }
+
+    private static ChargeReport report(Long groupId, Outcome... outcomes) {
+        List<ChargeResult> results = new ArrayList<>();
+        for (int i = 0; i < outcomes.length; i++) {
+            results.add(new ChargeResult((long) i, outcomes[i], outcomes[i] == Outcome.PROCESSING ? "pi_" + i : null, null));
+        }
+        return new ChargeReport(groupId, results, Duration.ofMillis(5));
+    }
+}
@@ -0,0 +1,95 @@
+package csw.subsync.scheduler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the real lock SQL against H2, with {@code pg_try_advisory_lock} / {@code pg_advisory_unlock} stubbed by
+ * the static methods below so the test can see which leases are held.
+ */
+class ClusterJobLockTest {
+
+    private static final Set<String> HELD = ConcurrentHashMap.newKeySet();
+    private static final String JOB = "expire-groups";
+
+    private ClusterJobLock lock;
+
+    @BeforeEach
+    void setUp() {
+        HELD.clear();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:advisory;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS pg_try_advisory_lock FOR '" + AdvisoryLocks.class.getName() + ".tryLock'");
+        jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS pg_advisory_unlock FOR '" + AdvisoryLocks.class.getName() + ".unlock'");
+        lock = new ClusterJobLock(jdbcTemplate, 4);
+    }
+
+    private static boolean tryLock(int jobKey, int shard) {
+        return AdvisoryLocks.tryLock(jobKey, shard);
+    }
+
+    // H2 이 리플렉션으로 호출하므로 public
+    public static class AdvisoryLocks {
+        public static boolean tryLock(int jobKey, int shard) {
+            return HELD.add(jobKey + ":" + shard);
+        }
+
+        public static boolean unlock(int jobKey, int shard) {
+            return HELD.remove(jobKey + ":" + shard);
+        }
+    }
+
+    @Test
+    void forEachShard_runsEveryShardOnceWhileHoldingItsLock() {
+        List<ClusterJobLock.Shard> ran = new ArrayList<>();
+
+        int processed = lock.forEachShard(JOB, shard -> {
+            assertTrue(HELD.contains(JOB.hashCode() + ":" + shard.index()), "work runs under the shard lock");
+            ran.add(shard);
+        });
+
+        assertEquals(4, processed);
+        assertEquals(Set.of(0, 1, 2, 3), ran.stream().map(ClusterJobLock.Shard::index).collect(Collectors.toSet()));
+        assertTrue(ran.stream().allMatch(shard -> shard.count() == 4));
+        assertTrue(HELD.isEmpty(), "every lock is released");
+    }
+
+    @Test
+    void forEachShard_skipsShardHeldByAnotherNode() {
+        tryLock(JOB.hashCode(), 1); // another replica is working on shard 1
+        List<Integer> ran = new ArrayList<>();
+
+        int processed = lock.forEachShard(JOB, shard -> ran.add(shard.index()));
+
+        assertEquals(3, processed);
+        assertFalse(ran.contains(1));
+        assertEquals(Set.of(JOB.hashCode() + ":1"), HELD);
+    }
+
+    @Test
+    void forEachShard_otherJobsDoNotBlock() {
+        tryLock("remove-invalid-members".hashCode(), 0);
+
+        assertEquals(4, lock.forEachShard(JOB, shard -> {
+        }));
+    }
+
+    @Test
+    void forEachShard_failingWorkStillReleasesLock() {
+        assertThrows(IllegalStateException.class, () -> lock.forEachShard(JOB, shard -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertTrue(HELD.isEmpty());
+    }
+}
@@ -0,0 +1,163 @@
+package csw.subsync.scheduler;
+
+import csw.subsync.subscription.cache.GroupSummaryCache;
+import csw.subsync.subscription.repository.SubscriptionGroupBatchRepository;
+import csw.subsync.subscription.service.GroupExpiryQueue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class GroupExpiryJobTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 1);
+
+    private SubscriptionGroupBatchRepository batchRepo;
+    private GroupSummaryCache cache;
+    private GroupExpiryQueue queue;
+    private PlatformTransactionManager transactionManager;
+    private SimpleMeterRegistry meterRegistry;
+    private GroupExpiryJob job;
+
+    @BeforeEach
+    void setUp() {
+        batchRepo = mock(SubscriptionGroupBatchRepository.class);
+        cache = mock(GroupSummaryCache.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        meterRegistry = new SimpleMeterRegistry();
+        queue = mock(GroupExpiryQueue.class);
+        job = new GroupExpiryJob(batchRepo, cache, queue, transactionManager, meterRegistry, 3, 2);
+    }
+
+    @Test
+    void run_walksChunksByKeysetAndCommitsEach() {
+        when(batchRepo.expireChunk(TODAY, 0, 1, 0L, 3)).thenReturn(List.of(3L, 1L, 2L)).thenReturn(List.of());
+        when(batchRepo.expireChunk(TODAY, 0, 1, 3L, 3)).thenReturn(List.of(7L, 5L, 9L));
+        when(batchRepo.expireChunk(TODAY, 0, 1, 9L, 3)).thenReturn(List.of(12L));
+
+        GroupExpiryJob.ExpiryReport report = job.run(TODAY, ClusterJobLock.Shard.ALL);
+
+        assertEquals(7, report.expiredCount());
+        assertEquals(3, report.chunkCount());
+        verify(batchRepo).expireChunk(TODAY, 0, 1, 12L, 3); // a short chunk may have skipped locked rows
+        verify(batchRepo, times(2)).expireChunk(TODAY, 0, 1, 0L, 3); // one re-scan from the start
+        verify(transactionManager, times(5)).commit(any());
+        verify(cache).invalidateAll(List.of(3L, 1L, 2L));
+        verify(cache).invalidateAll(List.of(12L));
+        assertEquals(7, meterRegistry.get("subsync.expiry.groups").counter().count());
+        assertEquals(1, meterRegistry.get("subsync.expiry.run").timer().count());
+    }
+
+    @Test
+    void run_rowSkippedByLock_pickedUpByRescan() {
+        // group 2 is locked by a join during the first pass, SKIP LOCKED leaves it behind the cursor
+        when(batchRepo.expireChunk(TODAY, 0, 1, 0L, 3)).thenReturn(List.of(1L, 3L)).thenReturn(List.of(2L));
+
+        GroupExpiryJob.ExpiryReport report = job.run(TODAY, ClusterJobLock.Shard.ALL);
+
+        assertEquals(3, report.expiredCount());
+        verify(cache).invalidateAll(List.of(2L));
+        verify(batchRepo).expireChunk(TODAY, 0, 1, 3L, 3);
+        verify(batchRepo).expireChunk(TODAY, 0, 1, 2L, 3);
+        verify(batchRepo, times(2)).expireChunk(TODAY, 0, 1, 0L, 3); // re-scanned only once
+    }
+
+    @Test
+    void run_passesShardToQuery() {
+        when(batchRepo.expireChunk(TODAY, 2, 8, 0L, 3)).thenReturn(List.of(10L)).thenReturn(List.of());
+
+        assertEquals(1, job.run(TODAY, new ClusterJobLock.Shard(2, 8)).expiredCount());
+    }
+
+    @Test
+    void run_cacheEvictedOnlyAfterChunkCommits() {
+        when(batchRepo.expireChunk(TODAY, 0, 1, 0L, 3)).thenReturn(List.of(1L)).thenReturn(List.of());
+
+        job.run(TODAY, ClusterJobLock.Shard.ALL);
+
+        InOrder inOrder = inOrder(batchRepo, transactionManager, cache);
+        inOrder.verify(batchRepo).expireChunk(TODAY, 0, 1, 0L, 3);
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(cache).invalidateAll(List.of(1L));
+    }
+
+    @Test
+    void run_nothingExpired_noCacheTraffic() {
+        when(batchRepo.expireChunk(any(), anyInt(), anyInt(), anyLong(), anyInt())).thenReturn(List.of());
+
+        GroupExpiryJob.ExpiryReport report = job.run(TODAY, ClusterJobLock.Shard.ALL);
+
+        assertEquals(0, report.expiredCount());
+        verifyNoInteractions(cache);
+    }
+
+    @Test
+    void run_failedChunk_keepsEarlierChunksCommitted() {
+        when(batchRepo.expireChunk(TODAY, 0, 1, 0L, 3)).thenReturn(List.of(1L, 2L, 3L));
+        when(batchRepo.expireChunk(TODAY, 0, 1, 3L, 3)).thenThrow(new QueryTimeoutException("timeout"));
+
+        assertThrows(QueryTimeoutException.class, () -> job.run(TODAY, ClusterJobLock.Shard.ALL));
+
+        verify(transactionManager, times(1)).commit(any());
+        verify(transactionManager, times(1)).rollback(any());
+        verify(cache).invalidateAll(List.of(1L, 2L, 3L));
+        assertEquals(3, meterRegistry.get("subsync.expiry.groups").counter().count());
+    }
+
+    @Test
+    void expireDue_drainsQueueInBatches() {
+        Instant now = TODAY.atStartOfDay(ZoneId.systemDefault()).toInstant().plusSeconds(3);
+        when(queue.popDue(now, 2))
+                .thenReturn(List.of(due(1L, now.minusSeconds(3)), due(2L, now.minusSeconds(3))))
+                .thenReturn(List.of(due(3L, now.minusSeconds(1))));
+        when(batchRepo.expireByIds(List.of(1L, 2L), TODAY)).thenReturn(List.of(1L, 2L));
+        when(batchRepo.expireByIds(List.of(3L), TODAY)).thenReturn(List.of()); // already inactive
+
+        assertEquals(2, job.expireDue(now));
+
+        verify(transactionManager, times(2)).commit(any());
+        verify(cache).invalidateAll(List.of(1L, 2L));
+        verify(cache, never()).invalidateAll(List.of());
+        assertEquals(2, meterRegistry.get("subsync.expiry.groups").counter().count());
+        assertEquals(3, meterRegistry.get("subsync.expiry.lag").timer().count());
+    }
+
+    @Test
+    void expireDue_databaseFailure_requeuesBatch() {
+        Instant now = Instant.now();
+        List<GroupExpiryQueue.DueGroup> batch = List.of(due(1L, now));
+        when(queue.popDue(now, 2)).thenReturn(batch);
+        when(batchRepo.expireByIds(any(), any())).thenThrow(new QueryTimeoutException("timeout"));
+
+        assertThrows(QueryTimeoutException.class, () -> job.expireDue(now));
+
+        verify(queue).requeue(batch);
+        verifyNoInteractions(cache);
+    }
+
+    @Test
+    void expireDue_redisDown_noDatabaseWork() {
+        when(queue.popDue(any(), anyInt())).thenThrow(new IllegalStateException("redis down"));
+
+        assertEquals(0, job.expireDue(Instant.now()));
+
+        verifyNoInteractions(batchRepo, transactionManager);
+    }
+
+    private static GroupExpiryQueue.DueGroup due(Long groupId, Instant expiresAt) {
+        return new GroupExpiryQueue.DueGroup(groupId, expiresAt);
+    }
+}
@@ -0,0 +1,95 @@
+package csw.subsync.scheduler;
+
+import csw.subsync.subscription.cache.GroupSummaryCache;
+import csw.subsync.subscription.repository.MembershipBatchRepository;
+import csw.subsync.subscription.repository.SubscriptionGroupBatchRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class InvalidMemberPurgeJobTest {
+
+    private static final LocalDate CUTOFF = LocalDate.of(2025, 2, 26);
+
+    private MembershipBatchRepository membershipBatchRepo;
+    private SubscriptionGroupBatchRepository groupBatchRepo;
+    private GroupSummaryCache cache;
+    private PlatformTransactionManager transactionManager;
+    private SimpleMeterRegistry meterRegistry;
+    private InvalidMemberPurgeJob job;
+
+    @BeforeEach
+    void setUp() {
+        membershipBatchRepo = mock(MembershipBatchRepository.class);
+        groupBatchRepo = mock(SubscriptionGroupBatchRepository.class);
+        cache = mock(GroupSummaryCache.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        meterRegistry = new SimpleMeterRegistry();
+        job = new InvalidMemberPurgeJob(membershipBatchRepo, groupBatchRepo, cache, transactionManager, meterRegistry, 4);
+    }
+
+    @Test
+    void run_deletesInChunksAndReleasesSeatsPerGroup() {
+        when(membershipBatchRepo.deleteInvalidChunk(CUTOFF, 0, 1, 4))
+                .thenReturn(List.of(10L, 10L, 20L, 10L))
+                .thenReturn(List.of(20L));
+
+        InvalidMemberPurgeJob.PurgeReport report = job.run(CUTOFF, ClusterJobLock.Shard.ALL);
+
+        assertEquals(5, report.deletedCount());
+        assertEquals(2, report.chunkCount());
+        verify(membershipBatchRepo, times(2)).deleteInvalidChunk(CUTOFF, 0, 1, 4);
+        verify(groupBatchRepo).releaseSeats(Map.of(10L, 3, 20L, 1), 4);
+        verify(groupBatchRepo).releaseSeats(Map.of(20L, 1), 4);
+        verify(transactionManager, times(2)).commit(any());
+        verify(cache).invalidateAll(Set.of(10L, 20L));
+        assertEquals(5, meterRegistry.get("subsync.purge.members").counter().count());
+        assertEquals(1, meterRegistry.get("subsync.purge.run").timer().count());
+    }
+
+    @Test
+    void run_membershipWithoutGroup_deletedWithoutSeatRelease() {
+        when(membershipBatchRepo.deleteInvalidChunk(CUTOFF, 0, 1, 4)).thenReturn(Arrays.asList(null, null));
+
+        assertEquals(2, job.run(CUTOFF, ClusterJobLock.Shard.ALL).deletedCount());
+
+        verify(groupBatchRepo, never()).releaseSeats(any(), anyInt());
+    }
+
+    @Test
+    void run_nothingToPurge_singleQuery() {
+        when(membershipBatchRepo.deleteInvalidChunk(CUTOFF, 0, 1, 4)).thenReturn(List.of());
+
+        assertEquals(0, job.run(CUTOFF, ClusterJobLock.Shard.ALL).deletedCount());
+
+        verify(membershipBatchRepo, times(1)).deleteInvalidChunk(CUTOFF, 0, 1, 4);
+        verifyNoInteractions(groupBatchRepo, cache);
+    }
+
+    @Test
+    void run_seatReleaseFails_chunkRolledBack() {
+        when(membershipBatchRepo.deleteInvalidChunk(CUTOFF, 0, 1, 4)).thenReturn(List.of(10L));
+        doThrow(new QueryTimeoutException("timeout")).when(groupBatchRepo).releaseSeats(any(), anyInt());
+
+        assertThrows(QueryTimeoutException.class, () -> job.run(CUTOFF, ClusterJobLock.Shard.ALL));
+
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        verifyNoInteractions(cache);
+        assertEquals(0, meterRegistry.get("subsync.purge.members").counter().count());
+    }
+}
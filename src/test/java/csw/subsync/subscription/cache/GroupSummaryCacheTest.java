@@ -0,0 +1,114 @@
+package csw.subsync.subscription.cache;
+
+import csw.subsync.common.config.ObjectMapperConfig;
+import csw.subsync.subscription.dto.GroupSummary;
+import csw.subsync.subscription.model.SubscriptionGroup;
+import csw.subsync.subscription.repository.SubscriptionGroupRepository;
+import csw.subsync.support.H2JpaTest;
+import csw.subsync.support.TestFixtures;
+import csw.subsync.user.model.User;
+import csw.subsync.user.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@H2JpaTest
+@Import({GroupSummaryCache.class, ObjectMapperConfig.class})
+class GroupSummaryCacheTest {
+
+    @Autowired
+    private GroupSummaryCache cache;
+    @Autowired
+    private UserRepository userRepository;
+    @MockitoSpyBean
+    private SubscriptionGroupRepository subscriptionGroupRepo;
+    @MockitoBean
+    private StringRedisTemplate redisTemplate;
+
+    private ValueOperations<String, String> valueOps;
+    private SubscriptionGroup group;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        subscriptionGroupRepo.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+        valueOps = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+
+        User owner = userRepository.save(TestFixtures.user("owner"));
+        group = TestFixtures.group("cached", owner, 5, 1);
+        group.setStartDate(LocalDate.of(2025, 2, 1));
+        group.setEndDate(LocalDate.of(2025, 3, 3));
+        group.setPriceCurrency("USD");
+        group = subscriptionGroupRepo.save(group);
+        cache.invalidate(group.getId());
+        clearInvocations(subscriptionGroupRepo, redisTemplate);
+    }
+
+    @Test
+    void get_readsDatabaseOnce_thenServesNearCache() {
+        GroupSummary first = cache.get(group.getId());
+        GroupSummary second = cache.get(group.getId());
+
+        assertEquals(new GroupSummary(group.getId(), group.getOwner().getId(), 5, 1, true,
+                LocalDate.of(2025, 2, 1), LocalDate.of(2025, 3, 3)), first);
+        assertSame(first, second);
+        verify(subscriptionGroupRepo, times(1)).findSummaryById(group.getId());
+        verify(valueOps, times(1)).set(eq(GroupSummaryCache.KEY_PREFIX + group.getId()), anyString(), any(Duration.class));
+    }
+
+    @Test
+    void get_redisHit_skipsDatabase() {
+        ArgumentCaptor<String> json = ArgumentCaptor.forClass(String.class);
+        GroupSummary loaded = cache.get(group.getId());
+        verify(valueOps).set(anyString(), json.capture(), any(Duration.class));
+
+        cache.invalidate(group.getId()); // 다른 노드처럼 near cache 가 비어 있는 상태
+        when(valueOps.get(GroupSummaryCache.KEY_PREFIX + group.getId())).thenReturn(json.getValue());
+        clearInvocations(subscriptionGroupRepo);
+
+        assertEquals(loaded, cache.get(group.getId()));
+        verify(subscriptionGroupRepo, never()).findSummaryById(any());
+    }
+
+    @Test
+    void invalidate_nextReadSeesNewMemberCount() {
+        cache.get(group.getId());
+        group.setMemberCount(2);
+        subscriptionGroupRepo.save(group);
+
+        cache.invalidate(group.getId());
+
+        verify(redisTemplate).delete(GroupSummaryCache.KEY_PREFIX + group.getId());
+        assertEquals(2, cache.get(group.getId()).memberCount());
+    }
+
+    @Test
+    void get_redisDown_fallsBackToDatabase() {
+        when(valueOps.get(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+        doThrow(new RedisConnectionFailureException("down")).when(valueOps).set(anyString(), anyString(), any(Duration.class));
+
+        assertTrue(cache.get(group.getId()).isOwnedBy(group.getOwner().getId()));
+    }
+
+    @Test
+    void get_unknownGroup_returnsNull() {
+        assertNull(cache.get(group.getId() + 1000));
+        verify(valueOps, never()).set(anyString(), anyString(), any(Duration.class));
+    }
+}
@@ -0,0 +1,132 @@
+package csw.subsync.subscription.repository;
+
+import csw.subsync.subscription.model.ChargeJob;
+import csw.subsync.support.H2JpaTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Claim queries of the charge queue against an in-memory database: SKIP LOCKED, backoff and lease reclaim.
+ */
+@H2JpaTest
+class ChargeJobRepositoryTest {
+
+    private static final Duration LEASE = Duration.ofMinutes(10);
+
+    @Autowired
+    private ChargeJobRepository chargeJobRepo;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        chargeJobRepo.deleteAllInBatch();
+    }
+
+    @Test
+    void lockNextBatch_skipsJobsLockedByAnotherWorker() throws Exception {
+        Instant now = Instant.now();
+        ChargeJob first = save(ChargeJob.Status.PENDING, now.minusSeconds(30), null);
+        ChargeJob second = save(ChargeJob.Status.PENDING, now.minusSeconds(20), null);
+        ChargeJob third = save(ChargeJob.Status.PENDING, now.minusSeconds(10), null);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        // another worker holds the row lock of the oldest job for the length of its transaction
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> tx.executeWithoutResult(status -> {
+            jdbcTemplate.queryForList("SELECT id FROM charge_jobs WHERE id = ? FOR UPDATE", Long.class, first.getId());
+            locked.countDown();
+            await(release);
+        }));
+        assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+        List<Long> claimed = tx.execute(status -> ids(chargeJobRepo.lockNextBatch(now, now.minus(LEASE), 10)));
+        release.countDown();
+
+        holder.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of(second.getId(), third.getId()), claimed);
+    }
+
+    @Test
+    void lockNextBatch_honoursBackoffAndReclaimsExpiredLeases() {
+        Instant now = Instant.now();
+        ChargeJob due = save(ChargeJob.Status.PENDING, now.minusSeconds(1), null);
+        save(ChargeJob.Status.PENDING, now.plusSeconds(60), null); // backing off
+        ChargeJob abandoned = save(ChargeJob.Status.RUNNING, now.minus(Duration.ofHours(1)), now.minus(LEASE).minusSeconds(1));
+        save(ChargeJob.Status.RUNNING, now.minus(Duration.ofHours(1)), now.minusSeconds(5)); // lease still held
+        save(ChargeJob.Status.DONE, now.minusSeconds(1), null);
+        save(ChargeJob.Status.FAILED, now.minusSeconds(1), null);
+
+        List<Long> claimed = new TransactionTemplate(transactionManager)
+                .execute(status -> ids(chargeJobRepo.lockNextBatch(now, now.minus(LEASE), 10)));
+
+        assertEquals(Set.of(due.getId(), abandoned.getId()), Set.copyOf(claimed));
+    }
+
+    @Test
+    void renewLeases_onlyRunningJobs() {
+        Instant old = Instant.now().minus(LEASE);
+        ChargeJob running = save(ChargeJob.Status.RUNNING, old, old);
+        ChargeJob done = save(ChargeJob.Status.DONE, old, old);
+
+        Instant now = Instant.now();
+        int renewed = new TransactionTemplate(transactionManager)
+                .execute(status -> chargeJobRepo.renewLeases(List.of(running.getId(), done.getId()), now));
+
+        assertEquals(1, renewed);
+        assertFalse(chargeJobRepo.findById(running.getId()).orElseThrow().getLockedAt().isBefore(now.minusMillis(1)));
+        assertTrue(chargeJobRepo.findById(done.getId()).orElseThrow().getLockedAt().isBefore(now.minusSeconds(1)));
+    }
+
+    @Test
+    void lockNextBatch_keepsDeferredMembers() {
+        Instant now = Instant.now();
+        ChargeJob deferred = save(ChargeJob.Status.PENDING, now.minusSeconds(1), null);
+        deferred.setDeferredMemberIds(List.of(3L, 5L));
+        chargeJobRepo.save(deferred);
+
+        List<ChargeJob> claimed = new TransactionTemplate(transactionManager)
+                .execute(status -> chargeJobRepo.lockNextBatch(now, now.minus(LEASE), 10));
+
+        assertEquals(List.of(3L, 5L), claimed.get(0).getDeferredMemberIds());
+    }
+
+    private ChargeJob save(ChargeJob.Status status, Instant availableAt, Instant lockedAt) {
+        ChargeJob job = new ChargeJob();
+        job.setGroupId(1L);
+        job.setStatus(status);
+        job.setAvailableAt(availableAt);
+        job.setLockedAt(lockedAt);
+        job.setCreatedAt(availableAt);
+        return chargeJobRepo.save(job);
+    }
+
+    private static List<Long> ids(List<ChargeJob> jobs) {
+        return jobs.stream().map(ChargeJob::getId).toList();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package csw.subsync.subscription.repository;
+
+import csw.subsync.subscription.model.Membership;
+import csw.subsync.subscription.model.SubscriptionGroup;
+import csw.subsync.support.H2JpaTest;
+import csw.subsync.support.JpaTestSupport;
+import csw.subsync.support.TestFixtures;
+import csw.subsync.user.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * With pooled sequence ids and {@code hibernate.jdbc.batch_size}, bulk inserts and updates go out as a few JDBC
+ * batches instead of one round trip per row.
+ */
+@H2JpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.order_updates=true"
+})
+class MembershipJdbcBatchingTest extends JpaTestSupport {
+
+    private static final int MEMBERS = 120;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics stats;
+    private TransactionTemplate tx;
+    private SubscriptionGroup group;
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        tx = new TransactionTemplate(transactionManager);
+
+        users = new ArrayList<>();
+        for (int i = 0; i < MEMBERS; i++) {
+            users.add(TestFixtures.user("member" + i));
+        }
+        userRepository.saveAll(users);
+
+        group = subscriptionGroupRepo.save(TestFixtures.group("batching", null, MEMBERS, MEMBERS));
+    }
+
+    @Test
+    void saveAll_insertsInBatches() {
+        stats.clear();
+
+        tx.executeWithoutResult(status -> membershipRepo.saveAll(memberships()));
+
+        // batched rows share one prepared statement; unbatched, every row prepares its own
+        assertTrue(stats.getPrepareStatementCount() <= 5,
+                "statements: " + stats.getPrepareStatementCount());
+        assertEquals(MEMBERS, stats.getEntityInsertCount());
+        assertEquals(MEMBERS, membershipRepo.count());
+    }
+
+    @Test
+    void statusUpdates_flushInBatches() {
+        tx.executeWithoutResult(status -> membershipRepo.saveAll(memberships()));
+        stats.clear();
+
+        tx.executeWithoutResult(status -> membershipRepo.findAll().forEach(m -> {
+            m.setPaymentStatus(Membership.PaymentStatus.SUCCEEDED);
+            m.setPaid(true);
+        }));
+
+        // 1 select + the batched update (120 rows in batches of 50)
+        assertTrue(stats.getPrepareStatementCount() <= 3,
+                "statements: " + stats.getPrepareStatementCount());
+        assertEquals(MEMBERS, stats.getEntityUpdateCount());
+        assertTrue(membershipRepo.findAll().stream().allMatch(Membership::isPaid));
+    }
+
+    @Test
+    void ids_areAllocatedFromPooledSequence() {
+        tx.executeWithoutResult(status -> membershipRepo.saveAll(memberships()));
+
+        List<Long> ids = membershipRepo.findAll().stream().map(Membership::getId).sorted().toList();
+        assertEquals(MEMBERS, ids.stream().distinct().count());
+        // one session draws consecutive ids from its pooled blocks
+        assertEquals(MEMBERS - 1, ids.get(MEMBERS - 1) - ids.get(0));
+    }
+
+    private List<Membership> memberships() {
+        List<Membership> memberships = new ArrayList<>();
+        for (User user : users) {
+            memberships.add(TestFixtures.membership(group, user));
+        }
+        return memberships;
+    }
+}
@@ -0,0 +1,195 @@
+package csw.subsync.subscription.service;
+
+import csw.subsync.subscription.model.ChargeJob;
+import csw.subsync.subscription.repository.ChargeJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ChargeQueueServiceTest {
+
+    private static final Duration LEASE = Duration.ofMinutes(10);
+    private static final Duration DEFER_DELAY = Duration.ofMinutes(1);
+    private static final Duration DEFER_MAX_AGE = Duration.ofHours(24);
+
+    private ChargeJobRepository chargeJobRepo;
+    private ApplicationEventPublisher eventPublisher;
+    private ChargeQueueService queue;
+
+    @BeforeEach
+    void setUp() {
+        chargeJobRepo = mock(ChargeJobRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        queue = new ChargeQueueService(chargeJobRepo, eventPublisher, 3, LEASE, DEFER_DELAY, DEFER_MAX_AGE);
+    }
+
+    @Test
+    void enqueue_newJob_wakesWorker() {
+        when(chargeJobRepo.save(any())).thenAnswer(invocation -> {
+            ChargeJob job = invocation.getArgument(0);
+            job.setId(9L);
+            return job;
+        });
+
+        queue.enqueue(1L);
+
+        ArgumentCaptor<ChargeJob> saved = ArgumentCaptor.forClass(ChargeJob.class);
+        verify(chargeJobRepo).save(saved.capture());
+        assertEquals(ChargeJob.Status.PENDING, saved.getValue().getStatus());
+        assertEquals(0, saved.getValue().getAttempts());
+        verify(eventPublisher).publishEvent(new ChargeQueueService.JobEnqueued(9L, 1L));
+    }
+
+    @Test
+    void enqueue_alreadyQueued_ignored() {
+        ChargeJob running = job(ChargeJob.Status.RUNNING, 1);
+        when(chargeJobRepo.findByGroupIdAndStatusIn(eq(1L), any())).thenReturn(List.of(running));
+
+        queue.enqueue(1L);
+
+        verify(chargeJobRepo, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void enqueue_deferredRunWaiting_widenedToWholeGroup() {
+        ChargeJob deferred = job(ChargeJob.Status.PENDING, 0);
+        deferred.setDeferredMemberIds(List.of(3L));
+        when(chargeJobRepo.findByGroupIdAndStatusIn(eq(1L), any())).thenReturn(List.of(deferred));
+
+        queue.enqueue(1L);
+
+        assertNull(deferred.getDeferredMemberIds());
+        verify(chargeJobRepo, never()).save(any());
+    }
+
+    @Test
+    void enqueue_deferredRunInProgress_queuesFullCharge() {
+        ChargeJob running = job(ChargeJob.Status.RUNNING, 1);
+        running.setDeferredMemberIds(List.of(3L));
+        when(chargeJobRepo.findByGroupIdAndStatusIn(eq(1L), any())).thenReturn(List.of(running));
+        when(chargeJobRepo.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        queue.enqueue(1L);
+
+        ArgumentCaptor<ChargeJob> saved = ArgumentCaptor.forClass(ChargeJob.class);
+        verify(chargeJobRepo).save(saved.capture());
+        assertNull(saved.getValue().getDeferredMemberIds());
+        assertEquals(List.of(3L), running.getDeferredMemberIds());
+    }
+
+    @Test
+    void claim_marksRunningAndCountsAttempt() {
+        ChargeJob job = job(ChargeJob.Status.PENDING, 0);
+        when(chargeJobRepo.lockNextBatch(any(), any(), eq(2))).thenReturn(List.of(job));
+
+        Instant before = Instant.now();
+        assertEquals(List.of(job), queue.claim(2));
+
+        assertEquals(ChargeJob.Status.RUNNING, job.getStatus());
+        assertEquals(1, job.getAttempts());
+        assertFalse(job.getLockedAt().isBefore(before));
+        // RUNNING jobs whose lease ran out are reclaimed
+        ArgumentCaptor<Instant> now = ArgumentCaptor.forClass(Instant.class);
+        ArgumentCaptor<Instant> staleBefore = ArgumentCaptor.forClass(Instant.class);
+        verify(chargeJobRepo).lockNextBatch(now.capture(), staleBefore.capture(), eq(2));
+        assertEquals(LEASE, Duration.between(staleBefore.getValue(), now.getValue()));
+    }
+
+    @Test
+    void fail_backsOffExponentiallyThenGivesUp() {
+        ChargeJob job = job(ChargeJob.Status.RUNNING, 1);
+
+        queue.fail(1L, "boom");
+        assertEquals(ChargeJob.Status.PENDING, job.getStatus());
+        assertNull(job.getLockedAt());
+        assertBetween(job.getAvailableAt(), Duration.ofMinutes(1), Duration.ofMinutes(1).plusSeconds(5));
+
+        job.setAttempts(2);
+        queue.fail(1L, "boom");
+        assertBetween(job.getAvailableAt(), Duration.ofMinutes(2), Duration.ofMinutes(2).plusSeconds(5));
+
+        job.setAttempts(3);
+        queue.fail(1L, "x".repeat(600));
+        assertEquals(ChargeJob.Status.FAILED, job.getStatus());
+        assertEquals(500, job.getLastError().length());
+    }
+
+    @Test
+    void complete_clearsLockAndError() {
+        ChargeJob job = job(ChargeJob.Status.RUNNING, 1);
+        job.setLastError("earlier failure");
+
+        queue.complete(1L);
+
+        assertEquals(ChargeJob.Status.DONE, job.getStatus());
+        assertNull(job.getLockedAt());
+        assertNull(job.getLastError());
+    }
+
+    @Test
+    void defer_requeuesAfterDelayWithJitter() {
+        ChargeJob job = job(ChargeJob.Status.RUNNING, 1);
+
+        queue.defer(1L, List.of(4L, 7L), "2 member(s) deferred");
+
+        assertEquals(ChargeJob.Status.PENDING, job.getStatus());
+        assertNull(job.getLockedAt());
+        assertEquals("2 member(s) deferred", job.getLastError());
+        assertBetween(job.getAvailableAt(), DEFER_DELAY, DEFER_DELAY.plus(DEFER_DELAY.dividedBy(5)).plusSeconds(5));
+        assertEquals(0, job.getAttempts(), "a deferral doesn't use up an attempt");
+        assertEquals(List.of(4L, 7L), job.getDeferredMemberIds());
+    }
+
+    @Test
+    void defer_pastMaxAge_givesUp() {
+        ChargeJob job = job(ChargeJob.Status.RUNNING, 1);
+        job.setCreatedAt(Instant.now().minus(DEFER_MAX_AGE).minusSeconds(1));
+
+        queue.defer(1L, List.of(4L, 7L), "2 member(s) deferred");
+
+        assertEquals(ChargeJob.Status.FAILED, job.getStatus());
+        assertNull(job.getLockedAt());
+        assertTrue(job.getLastError().endsWith("2 member(s) deferred"));
+    }
+
+    @Test
+    void renewLeases_onlyTouchesGivenJobs() {
+        when(chargeJobRepo.renewLeases(any(), any())).thenReturn(2);
+
+        assertEquals(0, queue.renewLeases(Set.of()));
+        verify(chargeJobRepo, never()).renewLeases(any(), any());
+
+        assertEquals(2, queue.renewLeases(Set.of(1L, 2L)));
+        verify(chargeJobRepo).renewLeases(eq(Set.of(1L, 2L)), any());
+    }
+
+    private ChargeJob job(ChargeJob.Status status, int attempts) {
+        ChargeJob job = new ChargeJob();
+        job.setId(1L);
+        job.setGroupId(1L);
+        job.setStatus(status);
+        job.setAttempts(attempts);
+        job.setCreatedAt(Instant.now());
+        job.setLockedAt(status == ChargeJob.Status.RUNNING ? Instant.now() : null);
+        when(chargeJobRepo.findById(1L)).thenReturn(Optional.of(job));
+        return job;
+    }
+
+    private static void assertBetween(Instant actual, Duration min, Duration max) {
+        Instant now = Instant.now();
+        assertTrue(actual.isAfter(now.plus(min).minusSeconds(5)) && actual.isBefore(now.plus(max)),
+                actual + " not within " + min + ".." + max + " from now");
+    }
+}
@@ -0,0 +1,74 @@
+package csw.subsync.subscription.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class GroupExpiryQueueTest {
+
+    private StringRedisTemplate redisTemplate;
+    private ZSetOperations<String, String> zSetOps;
+    private GroupExpiryQueue queue;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        zSetOps = mock(ZSetOperations.class);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOps);
+        queue = new GroupExpiryQueue(redisTemplate);
+    }
+
+    @Test
+    void schedule_scoresByStartOfDayAfterEndDate() {
+        LocalDate endDate = LocalDate.of(2025, 3, 14);
+
+        queue.schedule(42L, endDate);
+
+        long expected = LocalDate.of(2025, 3, 15).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        verify(zSetOps).add(GroupExpiryQueue.KEY, "42", expected);
+    }
+
+    @Test
+    void schedule_redisDown_doesNotFailCaller() {
+        when(zSetOps.add(anyString(), anyString(), anyDouble())).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertDoesNotThrow(() -> queue.schedule(42L, LocalDate.now()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void popDue_parsesIdScorePairs() {
+        Instant now = Instant.parse("2025-03-15T00:00:05Z");
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(GroupExpiryQueue.KEY)), any(), any()))
+                .thenReturn(List.of("7", "1741996800000", "9", "1.7419968E12"));
+
+        List<GroupExpiryQueue.DueGroup> due = queue.popDue(now, 10);
+
+        assertEquals(List.of(
+                new GroupExpiryQueue.DueGroup(7L, Instant.ofEpochMilli(1741996800000L)),
+                new GroupExpiryQueue.DueGroup(9L, Instant.ofEpochMilli(1741996800000L))), due);
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(GroupExpiryQueue.KEY)),
+                eq(String.valueOf(now.toEpochMilli())), eq("10"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void popDue_nothingDue_emptyList() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).thenReturn(List.of());
+
+        assertTrue(queue.popDue(Instant.now(), 10).isEmpty());
+    }
+}
@@ -0,0 +1,160 @@
+package csw.subsync.subscription.service;
+
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.model.PaymentIntent;
+import csw.subsync.common.exception.StripeUnavailableException;
+import csw.subsync.payment.service.PaymentService;
+import csw.subsync.subscription.model.Membership;
+import csw.subsync.subscription.model.SubscriptionGroup;
+import csw.subsync.subscription.repository.MembershipBatchRepository;
+import csw.subsync.subscription.repository.MembershipBatchRepository.PaymentIntentRef;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MembershipChargePipelineTest {
+
+    private PaymentService paymentService;
+    private MembershipBatchRepository membershipBatchRepo;
+    private SimpleMeterRegistry meterRegistry;
+    private MembershipChargePipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        paymentService = Mockito.mock(PaymentService.class);
+        membershipBatchRepo = Mockito.mock(MembershipBatchRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        pipeline = new MembershipChargePipeline(paymentService, membershipBatchRepo, meterRegistry, 4, 2);
+    }
+
+    @Test
+    void charge_failedMemberDoesNotAbortRun() throws Exception {
+        SubscriptionGroup group = groupWithMembers(5);
+        when(paymentService.initiateSubscriptionPayment(any())).thenAnswer(invocation -> {
+            Membership m = invocation.getArgument(0);
+            if (m.getId() == 3L) {
+                throw new ApiConnectionException("stripe unavailable");
+            }
+            return intent("pi_" + m.getId());
+        });
+
+        MembershipChargePipeline.ChargeReport report = pipeline.charge(group);
+
+        assertEquals(5, report.results().size());
+        assertEquals(4, report.processingCount());
+        assertEquals(1, report.failedCount());
+        verify(paymentService, times(5)).initiateSubscriptionPayment(any());
+        verify(membershipBatchRepo).markFailed(eq(List.of(3L)), any(), eq(2));
+    }
+
+    @Test
+    void charge_stripeUnavailable_defersMemberWithoutMarkingFailed() throws Exception {
+        SubscriptionGroup group = groupWithMembers(3);
+        when(paymentService.initiateSubscriptionPayment(any())).thenAnswer(invocation -> {
+            Membership m = invocation.getArgument(0);
+            if (m.getId() == 2L) {
+                throw new StripeUnavailableException("Stripe circuit is open");
+            }
+            return intent("pi_" + m.getId());
+        });
+
+        MembershipChargePipeline.ChargeReport report = pipeline.charge(group);
+
+        assertEquals(2, report.processingCount());
+        assertEquals(0, report.failedCount());
+        assertEquals(1, report.deferredCount());
+        verify(membershipBatchRepo, never()).markFailed(any(), any(), anyInt());
+        assertEquals(1.0, meterRegistry.get("subsync.charge.members").tag("outcome", "deferred").counter().count());
+    }
+
+    @Test
+    void charge_wholeGroup_includesMembersChargedBefore() throws Exception {
+        SubscriptionGroup group = groupWithMembers(3);
+        group.getMemberships().get(0).setPaymentStatus(Membership.PaymentStatus.PROCESSING);
+        group.getMemberships().get(1).setPaymentStatus(Membership.PaymentStatus.FAILED);
+        when(paymentService.initiateSubscriptionPayment(any())).thenReturn(intent("pi"));
+
+        MembershipChargePipeline.ChargeReport report = pipeline.charge(group);
+
+        assertEquals(3, report.processingCount());
+        verify(paymentService, times(3)).initiateSubscriptionPayment(any());
+    }
+
+    @Test
+    void charge_givenMembers_chargesOnlyThose() throws Exception {
+        SubscriptionGroup group = groupWithMembers(4);
+        when(paymentService.initiateSubscriptionPayment(any())).thenAnswer(invocation -> {
+            Membership m = invocation.getArgument(0);
+            if (m.getId() == 4L) {
+                throw new StripeUnavailableException("Stripe circuit is open");
+            }
+            return intent("pi_" + m.getId());
+        });
+
+        MembershipChargePipeline.ChargeReport report = pipeline.charge(group, List.of(2L, 4L));
+
+        assertEquals(List.of(2L, 4L), report.results().stream().map(r -> r.membershipId()).sorted().toList());
+        assertEquals(List.of(4L), report.deferredIds());
+        verify(paymentService, times(2)).initiateSubscriptionPayment(any());
+    }
+
+    @Test
+    void charge_persistsResultsInBatches() throws Exception {
+        SubscriptionGroup group = groupWithMembers(5);
+        when(paymentService.initiateSubscriptionPayment(any()))
+                .thenAnswer(invocation -> intent("pi_" + ((Membership) invocation.getArgument(0)).getId()));
+
+        pipeline.charge(group);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<PaymentIntentRef>> captor = ArgumentCaptor.forClass(List.class);
+        verify(membershipBatchRepo, times(3)).markProcessing(captor.capture(), eq(2));
+        assertEquals(5, captor.getAllValues().stream().mapToInt(List::size).sum());
+        verify(membershipBatchRepo, never()).markFailed(any(), any(), anyInt());
+    }
+
+    @Test
+    void charge_neverExceedsMaxConcurrency() throws Exception {
+        SubscriptionGroup group = groupWithMembers(50);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        when(paymentService.initiateSubscriptionPayment(any())).thenAnswer(invocation -> {
+            peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(5);
+            inFlight.decrementAndGet();
+            return intent("pi");
+        });
+
+        pipeline.charge(group);
+
+        assertTrue(peak.get() <= 4, "At most 4 Stripe calls should be in flight, saw " + peak.get());
+        assertEquals(50.0, meterRegistry.get("subsync.charge.members").tag("outcome", "processing").counter().count());
+    }
+
+    private static SubscriptionGroup groupWithMembers(int count) {
+        SubscriptionGroup group = new SubscriptionGroup();
+        group.setId(1L);
+        for (long i = 1; i <= count; i++) {
+            Membership m = new Membership();
+            m.setId(i);
+            m.setSubscriptionGroup(group);
+            group.getMemberships().add(m);
+        }
+        return group;
+    }
+
+    private static PaymentIntent intent(String id) {
+        PaymentIntent intent = new PaymentIntent();
+        intent.setId(id);
+        return intent;
+    }
+}
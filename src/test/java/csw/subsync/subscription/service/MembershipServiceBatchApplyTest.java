@@ -0,0 +1,111 @@
+package csw.subsync.subscription.service;
+
+import csw.subsync.subscription.model.Membership;
+import csw.subsync.subscription.model.SubscriptionGroup;
+import csw.subsync.subscription.repository.MembershipBatchRepository;
+import csw.subsync.subscription.repository.MembershipBatchRepository.PaymentResult;
+import csw.subsync.support.H2JpaTest;
+import csw.subsync.support.JpaTestSupport;
+import csw.subsync.support.TestFixtures;
+import csw.subsync.user.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the batch UPDATE behind {@link MembershipService#applyPaymentResults} against an in-memory database.
+ */
+@H2JpaTest(properties = "application.charge.batch-size=2")
+@Import({MembershipService.class, MembershipBatchRepository.class})
+class MembershipServiceBatchApplyTest extends JpaTestSupport {
+
+    private static final Instant CREATED = Instant.parse("2025-01-01T00:00:00Z");
+
+    @Autowired
+    private MembershipService membershipService;
+
+    @Test
+    void applyPaymentResults_updatesEveryRowAcrossBatches() {
+        List<Membership> members = members(5);
+        List<PaymentResult> results = new ArrayList<>();
+        for (int i = 0; i < members.size(); i++) {
+            Membership.PaymentStatus status = i == 2 ? Membership.PaymentStatus.FAILED : Membership.PaymentStatus.SUCCEEDED;
+            results.add(new PaymentResult(members.get(i).getId(), status, "pi_" + i, CREATED));
+        }
+
+        List<Long> missing = membershipService.applyPaymentResults(results);
+
+        assertTrue(missing.isEmpty());
+        for (int i = 0; i < members.size(); i++) {
+            Membership before = members.get(i);
+            Membership after = membershipRepo.findById(before.getId()).orElseThrow();
+            assertEquals(before.getVersion() + 1, after.getVersion(), "version is bumped");
+            assertEquals("pi_" + i, after.getStripePaymentIntentId());
+            if (i == 2) {
+                assertEquals(Membership.PaymentStatus.FAILED, after.getPaymentStatus());
+                assertFalse(after.isPaid());
+                assertFalse(after.isValid());
+                assertEquals(LocalDate.now(), after.getFailedDate());
+            } else {
+                assertEquals(Membership.PaymentStatus.SUCCEEDED, after.getPaymentStatus());
+                assertTrue(after.isPaid());
+                assertTrue(after.isValid());
+                assertNull(after.getFailedDate());
+            }
+        }
+    }
+
+    @Test
+    void applyPaymentResults_reportsMissingMemberships() {
+        Membership member = members(1).get(0);
+
+        List<Long> missing = membershipService.applyPaymentResults(List.of(
+                new PaymentResult(member.getId() + 100, Membership.PaymentStatus.SUCCEEDED, "pi_x", CREATED),
+                new PaymentResult(member.getId(), Membership.PaymentStatus.SUCCEEDED, "pi_1", CREATED)));
+
+        assertEquals(List.of(member.getId() + 100), missing);
+        assertTrue(membershipRepo.findById(member.getId()).orElseThrow().isPaid());
+    }
+
+    @Test
+    void applyPaymentResults_olderThanAppliedEvent_notWritten() {
+        Membership member = members(1).get(0);
+        membershipService.applyPaymentResults(List.of(
+                new PaymentResult(member.getId(), Membership.PaymentStatus.SUCCEEDED, "pi_2", CREATED)));
+
+        // a retried batch delivers the earlier failure after the success was applied
+        List<Long> skipped = membershipService.applyPaymentResults(List.of(
+                new PaymentResult(member.getId(), Membership.PaymentStatus.FAILED, "pi_1", CREATED.minusSeconds(60))));
+
+        assertEquals(List.of(member.getId()), skipped);
+        Membership after = membershipRepo.findById(member.getId()).orElseThrow();
+        assertTrue(after.isPaid());
+        assertEquals("pi_2", after.getStripePaymentIntentId());
+        assertEquals(CREATED, after.getLastPaymentEventAt());
+
+        membershipService.applyPaymentResults(List.of(
+                new PaymentResult(member.getId(), Membership.PaymentStatus.FAILED, "pi_3", CREATED.plusSeconds(60))));
+        assertEquals(Membership.PaymentStatus.FAILED,
+                membershipRepo.findById(member.getId()).orElseThrow().getPaymentStatus());
+    }
+
+    private List<Membership> members(int count) {
+        User owner = userRepository.save(TestFixtures.user("owner"));
+        SubscriptionGroup group = subscriptionGroupRepo.save(TestFixtures.group("batch", owner, count + 1, count));
+
+        List<Membership> members = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Membership m = TestFixtures.membership(group, userRepository.save(TestFixtures.user("member" + i)));
+            m.setPaymentStatus(Membership.PaymentStatus.PROCESSING);
+            members.add(membershipRepo.save(m));
+        }
+        return members;
+    }
+}
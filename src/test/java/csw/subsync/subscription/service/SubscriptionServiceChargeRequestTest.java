@@ -0,0 +1,49 @@
+package csw.subsync.subscription.service;
+
+import csw.subsync.common.exception.GroupNotFoundException;
+import csw.subsync.subscription.cache.GroupSummaryCache;
+import csw.subsync.subscription.repository.MembershipRepository;
+import csw.subsync.subscription.repository.SubscriptionGroupRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SubscriptionServiceChargeRequestTest {
+
+    private SubscriptionGroupRepository subscriptionGroupRepo;
+    private MembershipChargePipeline chargePipeline;
+    private ChargeQueueService chargeQueueService;
+    private SubscriptionService subscriptionService;
+
+    @BeforeEach
+    void setUp() {
+        subscriptionGroupRepo = mock(SubscriptionGroupRepository.class);
+        chargePipeline = mock(MembershipChargePipeline.class);
+        chargeQueueService = mock(ChargeQueueService.class);
+        subscriptionService = new SubscriptionService(subscriptionGroupRepo, mock(MembershipRepository.class),
+                chargePipeline, chargeQueueService, mock(GroupSummaryCache.class), mock(GroupExpiryQueue.class),
+                mock(EntityManager.class));
+    }
+
+    @Test
+    void requestCharge_queuesInsteadOfCharging() {
+        when(subscriptionGroupRepo.existsByIdAndActiveTrue(1L)).thenReturn(true);
+
+        subscriptionService.requestCharge(1L);
+
+        verify(chargeQueueService).enqueue(1L);
+        verifyNoInteractions(chargePipeline);
+    }
+
+    @Test
+    void requestCharge_missingOrInactiveGroup_rejected() {
+        when(subscriptionGroupRepo.existsByIdAndActiveTrue(1L)).thenReturn(false);
+
+        assertThrows(GroupNotFoundException.class, () -> subscriptionService.requestCharge(1L));
+        verify(chargeQueueService, never()).enqueue(anyLong());
+    }
+}
@@ -0,0 +1,149 @@
+package csw.subsync.subscription.service;
+
+import csw.subsync.subscription.model.Membership;
+import csw.subsync.subscription.model.SubscriptionGroup;
+import csw.subsync.support.H2JpaTest;
+import csw.subsync.support.TestFixtures;
+import csw.subsync.user.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Counts the statements each {@link SubscriptionService} operation runs, so an association that turns eager again
+ * (or a fetch plan that loses a node) shows up as extra selects.
+ */
+@H2JpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class SubscriptionServiceFetchPlanTest extends SubscriptionServiceTestSupport {
+
+    private static final int MEMBERS = 4;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics stats;
+    private TransactionTemplate tx;
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        tx = new TransactionTemplate(transactionManager);
+        owner = userRepository.save(TestFixtures.payingUser("owner"));
+    }
+
+    @Test
+    void chargeAllMembers_loadsGroupMembersAndUsersInOneSelect() {
+        SubscriptionGroup group = groupWithMembers(MEMBERS, MEMBERS + 1);
+        stats.clear();
+
+        subscriptionService.chargeAllMembers(group.getId());
+
+        assertEquals(1, stats.getPrepareStatementCount());
+        ArgumentCaptor<SubscriptionGroup> charged = ArgumentCaptor.forClass(SubscriptionGroup.class);
+        verify(chargePipeline).charge(charged.capture(), isNull());
+        assertEquals(MEMBERS + 1, charged.getValue().getMemberships().size());
+        for (Membership m : charged.getValue().getMemberships()) {
+            // the pipeline reads Stripe ids outside any session
+            assertTrue(Hibernate.isInitialized(m.getUser()));
+            assertNotNull(m.getUser().getStripeCustomerId());
+        }
+    }
+
+    @Test
+    void chargeAllMembers_insideTransaction_handsDetachedMembershipsToPipeline() {
+        SubscriptionGroup group = groupWithMembers(MEMBERS, MEMBERS + 1);
+        when(chargePipeline.charge(any(), isNull())).thenAnswer(invocation -> {
+            SubscriptionGroup charged = invocation.getArgument(0);
+            assertFalse(entityManager.contains(charged));
+            charged.getMemberships().forEach(m -> assertFalse(entityManager.contains(m)));
+            // MembershipBatchRepository bumps version on every write
+            jdbcTemplate.update("UPDATE memberships SET version = version + 1 WHERE subscription_group_id = ?",
+                    charged.getId());
+            return null;
+        });
+
+        // commit-time flush must not touch the memberships the pipeline changed
+        assertDoesNotThrow(() -> tx.executeWithoutResult(status -> subscriptionService.chargeAllMembers(group.getId())));
+        verify(chargePipeline).charge(any(), isNull());
+    }
+
+    @Test
+    void joinGroup_capacityCheckLoadsNoUsers() {
+        SubscriptionGroup group = groupWithMembers(MEMBERS, MEMBERS + 2);
+        User joiner = userRepository.save(TestFixtures.payingUser("joiner"));
+        stats.clear();
+
+        SubscriptionGroup joined = subscriptionService.joinGroup(group.getId(), joiner);
+
+        // reserveSeat UPDATE, group SELECT, membership INSERT
+        assertEquals(3, stats.getPrepareStatementCount());
+        assertEquals(0, stats.getEntityStatistics(User.class.getName()).getLoadCount());
+        assertFalse(Hibernate.isInitialized(joined.getOwner()));
+        assertEquals(owner.getId(), joined.getOwner().getId());
+    }
+
+    @Test
+    void removeGroup_comparesUserIdsWithoutLoadingUsers() {
+        SubscriptionGroup group = groupWithMembers(0, MEMBERS);
+        stats.clear();
+
+        subscriptionService.removeGroup(group.getId());
+
+        // group + memberships SELECT, owner membership DELETE, group UPDATE
+        assertEquals(3, stats.getPrepareStatementCount());
+        assertEquals(0, stats.getEntityStatistics(User.class.getName()).getLoadCount());
+        assertFalse(subscriptionGroupRepo.findById(group.getId()).orElseThrow().isActive());
+    }
+
+    @Test
+    void findAllInvalidMembersOlderThan_loadsNoUsers() {
+        groupWithMembers(MEMBERS, MEMBERS + 1);
+        membershipRepo.findAll().forEach(m -> {
+            m.setValid(false);
+            m.setFailedDate(LocalDate.now().minusDays(5));
+            membershipRepo.save(m);
+        });
+        stats.clear();
+
+        assertEquals(MEMBERS + 1, membershipRepo.findAllInvalidMembersOlderThan(LocalDate.now().minusDays(3)).size());
+
+        assertEquals(1, stats.getPrepareStatementCount());
+        assertEquals(0, stats.getEntityStatistics(User.class.getName()).getLoadCount());
+    }
+
+    // owner 멤버십 + members 명
+    private SubscriptionGroup groupWithMembers(int members, int maxMembers) {
+        SubscriptionGroup group = subscriptionGroupRepo.save(
+                TestFixtures.group("fetch-plan", owner, maxMembers, members + 1));
+
+        membershipRepo.save(TestFixtures.membership(group, owner));
+        for (int i = 0; i < members; i++) {
+            membershipRepo.save(TestFixtures.membership(group, userRepository.save(TestFixtures.payingUser("member" + i))));
+        }
+        return group;
+    }
+}
@@ -0,0 +1,106 @@
+package csw.subsync.subscription.service;
+
+import csw.subsync.subscription.model.PricingModel;
+import csw.subsync.subscription.model.SubscriptionGroup;
+import csw.subsync.support.H2JpaTest;
+import csw.subsync.support.TestFixtures;
+import csw.subsync.user.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Hammers joinGroup from many threads against a real (in-memory) database and checks that the seat
+ * counter never lets more members in than {@code maxMembers}.
+ */
+@H2JpaTest(properties = "spring.datasource.hikari.maximum-pool-size=20") // every join commits on its own thread
+class SubscriptionServiceJoinConcurrencyTest extends SubscriptionServiceTestSupport {
+
+    private static final int MAX_MEMBERS = 10;
+    private static final int JOINERS = 64;
+
+    @Test
+    void concurrentJoins_neverOverbook() throws InterruptedException {
+        User owner = userRepository.save(TestFixtures.user("owner"));
+        SubscriptionGroup group = subscriptionService.createGroup(owner, "stress", MAX_MEMBERS, 30,
+                PricingModel.FIXED, 1000, "USD");
+        List<User> joiners = new ArrayList<>();
+        for (int i = 0; i < JOINERS; i++) {
+            joiners.add(userRepository.save(TestFixtures.user("joiner" + i)));
+        }
+
+        AtomicInteger joined = new AtomicInteger();
+        AtomicInteger rejectedFull = new AtomicInteger();
+        List<Throwable> unexpected = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        for (User joiner : joiners) {
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    subscriptionService.joinGroup(group.getId(), joiner);
+                    joined.incrementAndGet();
+                } catch (RuntimeException e) {
+                    if ("Group is full".equals(e.getMessage())) {
+                        rejectedFull.incrementAndGet();
+                    } else {
+                        synchronized (unexpected) {
+                            unexpected.add(e);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+
+        assertTrue(unexpected.isEmpty(), "Unexpected failures: " + unexpected);
+        assertEquals(MAX_MEMBERS - 1, joined.get(), "Only the free seats can be taken");
+        assertEquals(JOINERS - (MAX_MEMBERS - 1), rejectedFull.get());
+
+        SubscriptionGroup reloaded = subscriptionGroupRepo.findById(group.getId()).orElseThrow();
+        assertEquals(MAX_MEMBERS, reloaded.getMemberCount());
+        assertEquals(MAX_MEMBERS, membershipRepo.count());
+        verify(chargeQueueService, times(1)).enqueue(group.getId());
+    }
+
+    @Test
+    void joinTwice_rejectedAndSeatReturned() {
+        User owner = userRepository.save(TestFixtures.user("owner"));
+        User joiner = userRepository.save(TestFixtures.user("joiner"));
+        SubscriptionGroup group = subscriptionService.createGroup(owner, "dup", MAX_MEMBERS, 30,
+                PricingModel.FIXED, 1000, "USD");
+
+        subscriptionService.joinGroup(group.getId(), joiner);
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> subscriptionService.joinGroup(group.getId(), joiner));
+
+        assertEquals("Already joined", e.getMessage());
+        assertEquals(2, subscriptionGroupRepo.findById(group.getId()).orElseThrow().getMemberCount());
+    }
+
+    @Test
+    void joinInactiveGroup_rejected() {
+        User owner = userRepository.save(TestFixtures.user("owner"));
+        SubscriptionGroup group = subscriptionService.createGroup(owner, "inactive", MAX_MEMBERS, 30,
+                PricingModel.FIXED, 1000, "USD");
+        group.setActive(false);
+        subscriptionGroupRepo.save(group);
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> subscriptionService.joinGroup(group.getId(), userRepository.save(TestFixtures.user("late"))));
+        assertEquals("Group not found or inactive", e.getMessage());
+    }
+}
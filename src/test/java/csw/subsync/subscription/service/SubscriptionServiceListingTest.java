@@ -0,0 +1,131 @@
+package csw.subsync.subscription.service;
+
+import csw.subsync.common.dto.CursorPage;
+import csw.subsync.subscription.dto.SubscriptionGroupDto;
+import csw.subsync.subscription.model.Membership;
+import csw.subsync.subscription.model.SubscriptionGroup;
+import csw.subsync.support.H2JpaTest;
+import csw.subsync.support.TestFixtures;
+import csw.subsync.user.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Keyset listings served straight from DTO projections, against an in-memory database.
+ */
+@H2JpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class SubscriptionServiceListingTest extends SubscriptionServiceTestSupport {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User owner;
+    private User member;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(TestFixtures.user("owner"));
+        member = userRepository.save(TestFixtures.user("member"));
+    }
+
+    @Test
+    void getMyGroups_pagesNewestFirstUntilExhausted() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            SubscriptionGroup group = group("mine-" + i, 4, 2, true);
+            join(group, member);
+            ids.add(group.getId());
+        }
+        group("not-mine", 4, 1, true);
+
+        CursorPage<SubscriptionGroupDto> first = subscriptionService.getMyGroups(member.getId(), null, 2);
+        CursorPage<SubscriptionGroupDto> second = subscriptionService.getMyGroups(member.getId(), first.nextCursor(), 2);
+        CursorPage<SubscriptionGroupDto> last = subscriptionService.getMyGroups(member.getId(), second.nextCursor(), 2);
+
+        assertEquals(List.of(ids.get(4), ids.get(3)), idsOf(first));
+        assertTrue(first.hasNext());
+        assertEquals(List.of(ids.get(2), ids.get(1)), idsOf(second));
+        assertEquals(List.of(ids.get(0)), idsOf(last));
+        assertFalse(last.hasNext());
+        assertNull(last.nextCursor());
+
+        SubscriptionGroupDto dto = first.content().get(0);
+        assertEquals("mine-4", dto.getTitle());
+        assertEquals(2, dto.getMemberCount());
+        assertEquals(owner.getId(), dto.getOwnerId());
+    }
+
+    @Test
+    void getMyGroups_skipsInvalidatedMemberships() {
+        SubscriptionGroup kept = group("kept", 4, 2, true);
+        join(kept, member);
+        Membership dropped = join(group("dropped", 4, 2, true), member);
+        dropped.setValid(false);
+        membershipRepo.save(dropped);
+
+        CursorPage<SubscriptionGroupDto> page = subscriptionService.getMyGroups(member.getId(), null, 10);
+
+        assertEquals(List.of(kept.getId()), idsOf(page));
+    }
+
+    @Test
+    void getOpenGroups_onlyActiveGroupsWithFreeSeats() {
+        SubscriptionGroup open = group("open", 4, 3, true);
+        group("full", 4, 4, true);
+        group("inactive", 4, 1, false);
+        SubscriptionGroup newest = group("newest", 2, 1, true);
+
+        CursorPage<SubscriptionGroupDto> page = subscriptionService.getOpenGroups(null, 10);
+
+        assertEquals(List.of(newest.getId(), open.getId()), idsOf(page));
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    void listings_readOnlyProjectedColumns() {
+        for (int i = 0; i < 3; i++) {
+            join(group("g-" + i, 4, 2, true), member);
+        }
+        Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        subscriptionService.getMyGroups(member.getId(), null, 10);
+        subscriptionService.getOpenGroups(null, 10);
+
+        assertEquals(0, stats.getEntityLoadCount(), "no entity is hydrated");
+        assertEquals(2, stats.getPrepareStatementCount(), "one statement per listing");
+    }
+
+    @Test
+    void pageSize_isClamped() {
+        for (int i = 0; i < 3; i++) {
+            group("g-" + i, 4, 1, true);
+        }
+
+        assertEquals(1, subscriptionService.getOpenGroups(null, 0).content().size());
+        assertEquals(3, subscriptionService.getOpenGroups(null, 10_000).content().size());
+    }
+
+    private SubscriptionGroup group(String title, int maxMembers, int memberCount, boolean active) {
+        SubscriptionGroup group = TestFixtures.group(title, owner, maxMembers, memberCount);
+        group.setActive(active);
+        return subscriptionGroupRepo.save(group);
+    }
+
+    private Membership join(SubscriptionGroup group, User user) {
+        return membershipRepo.save(TestFixtures.membership(group, user));
+    }
+
+    private static List<Long> idsOf(CursorPage<SubscriptionGroupDto> page) {
+        return page.content().stream().map(SubscriptionGroupDto::getId).toList();
+    }
+}
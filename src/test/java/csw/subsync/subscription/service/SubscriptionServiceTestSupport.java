@@ -0,0 +1,26 @@
+package csw.subsync.subscription.service;
+
+import csw.subsync.subscription.cache.GroupSummaryCache;
+import csw.subsync.support.JpaTestSupport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+/**
+ * {@link SubscriptionService} on a real (in-memory) database, with its charge, expiry and cache collaborators mocked.
+ */
+@Import(SubscriptionService.class)
+abstract class SubscriptionServiceTestSupport extends JpaTestSupport {
+
+    @Autowired
+    protected SubscriptionService subscriptionService;
+
+    @MockitoBean
+    protected MembershipChargePipeline chargePipeline;
+    @MockitoBean
+    protected ChargeQueueService chargeQueueService;
+    @MockitoBean
+    protected GroupSummaryCache groupSummaryCache;
+    @MockitoBean
+    protected GroupExpiryQueue groupExpiryQueue;
+}
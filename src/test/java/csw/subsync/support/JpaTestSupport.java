@@ -0,0 +1,28 @@
+package csw.subsync.support;
+
+import csw.subsync.subscription.repository.MembershipRepository;
+import csw.subsync.subscription.repository.SubscriptionGroupRepository;
+import csw.subsync.user.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Base for {@link H2JpaTest}s that work with users, groups and memberships; empties those tables after each test.
+ */
+@H2JpaTest
+public abstract class JpaTestSupport {
+
+    @Autowired
+    protected UserRepository userRepository;
+    @Autowired
+    protected SubscriptionGroupRepository subscriptionGroupRepo;
+    @Autowired
+    protected MembershipRepository membershipRepo;
+
+    @AfterEach
+    void deleteUsersAndGroups() {
+        membershipRepo.deleteAllInBatch();
+        subscriptionGroupRepo.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+}
@@ -0,0 +1,58 @@
+package csw.subsync.support;
+
+import csw.subsync.subscription.model.Membership;
+import csw.subsync.subscription.model.PricingModel;
+import csw.subsync.subscription.model.SubscriptionGroup;
+import csw.subsync.user.model.User;
+import csw.subsync.user.model.role.Role;
+
+/**
+ * Unsaved entities with the required columns filled in.
+ */
+public final class TestFixtures {
+
+    private TestFixtures() {
+    }
+
+    public static User user(String username) {
+        return User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .password("password")
+                .role(Role.USER)
+                .build();
+    }
+
+    /**
+     * A user who can be charged: has a Stripe customer and a saved payment method.
+     */
+    public static User payingUser(String username) {
+        User user = user(username);
+        user.setStripeCustomerId("cus_" + username);
+        user.setPaymentMethodId("pm_" + username);
+        return user;
+    }
+
+    /**
+     * An active, fixed-price 30-day group.
+     */
+    public static SubscriptionGroup group(String title, User owner, int maxMembers, int memberCount) {
+        SubscriptionGroup group = new SubscriptionGroup();
+        group.setTitle(title);
+        group.setMaxMembers(maxMembers);
+        group.setMemberCount(memberCount);
+        group.setDurationDays(30);
+        group.setActive(true);
+        group.setOwner(owner);
+        group.setPricingModel(PricingModel.FIXED);
+        return group;
+    }
+
+    public static Membership membership(SubscriptionGroup group, User user) {
+        Membership m = new Membership();
+        m.setUser(user);
+        m.setSubscriptionGroup(group);
+        m.setValid(true);
+        return m;
+    }
+}
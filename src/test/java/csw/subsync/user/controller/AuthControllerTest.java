@@ -3,6 +3,7 @@ package csw.subsync.user.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import csw.subsync.common.config.security.JwtService;
+import csw.subsync.common.config.security.PrincipalCache;
 import csw.subsync.user.dto.AuthenticationRequest;
 import csw.subsync.user.dto.AuthenticationResponse;
 import csw.subsync.user.dto.RefreshTokenRequest;
@@ -40,6 +41,8 @@ class AuthControllerTest {
     @MockitoBean
     private JwtService jwtService;
     @MockitoBean
+    private PrincipalCache principalCache;
+    @MockitoBean
     private AuthenticationManager authenticationManager;
 
     @Autowired